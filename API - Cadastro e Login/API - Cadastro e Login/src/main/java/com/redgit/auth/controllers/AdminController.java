@@ -2,20 +2,37 @@ package com.redgit.auth.controllers;
 
 import com.redgit.auth.controllers.DTO.AdminStatsDTO;
 import com.redgit.auth.controllers.DTO.UserDTO;
+import com.redgit.auth.controllers.DTO.BulkUserActionDTO;
+import com.redgit.auth.controllers.DTO.BulkUserActionResultDTO;
 import com.redgit.auth.controllers.DTO.ChangeRoleDTO;
+import com.redgit.auth.controllers.DTO.CredentialStuffingStatsDTO;
+import com.redgit.auth.controllers.DTO.CursorPageDTO;
+import com.redgit.auth.controllers.DTO.PasswordHashingStatsDTO;
+import com.redgit.auth.controllers.DTO.TokenValidationStatsDTO;
+import com.redgit.auth.controllers.DTO.UserImportResultDTO;
 import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.ratelimit.CredentialStuffingGuard;
+import com.redgit.auth.infrastructure.redis.LoginAttemptStatus;
 import com.redgit.auth.infrastructure.redis.RateLimitService;
+import com.redgit.auth.service.PasswordHashingService;
+import com.redgit.auth.service.TokenService;
+import com.redgit.auth.service.UserExportService;
+import com.redgit.auth.service.UserFileFormat;
+import com.redgit.auth.service.UserImportService;
 import com.redgit.auth.service.UserService;
-import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.service.UserStatsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -28,14 +45,51 @@ public class AdminController {
 
     private final UserService userService;
     private final RateLimitService rateLimitService; // ⭐ NOVO
+    private final TokenService tokenService;
+    private final PasswordHashingService passwordHashingService;
+    private final CredentialStuffingGuard credentialStuffingGuard;
+    private final UserStatsService userStatsService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
 
     @GetMapping("/users")
-    public ResponseEntity<Page<UserDTO>> getAllUsers(
-            @PageableDefault(size = 20) Pageable pageable) {
-        Page<UserDTO> users = userService.findAll(pageable);
+    public ResponseEntity<CursorPageDTO<UserDTO>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) Boolean locked,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPageDTO<UserDTO> users = userService.findPage(cursor, size, role, enabled, locked, includeTotal);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) Boolean locked) {
+        UserFileFormat exportFormat = UserFileFormat.from(format);
+        StreamingResponseBody body = out -> userExportService.export(exportFormat, role, enabled, locked, out);
+
+        String filename = "users." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Corpo cru (CSV com cabeçalho ou NDJSON), lido em streaming sem multipart
+    @PostMapping("/users/import")
+    public ResponseEntity<UserImportResultDTO> importUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) throws IOException {
+        UserImportResultDTO result = userImportService.importUsers(UserFileFormat.from(format), body);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/users/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable UUID id) {
         User user = userService.findById(id);
@@ -80,13 +134,34 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/users/bulk/lock")
+    public ResponseEntity<BulkUserActionResultDTO> bulkLock(@RequestBody @Valid BulkUserActionDTO dto) {
+        return ResponseEntity.ok(userService.bulkUpdate(UserService.BulkAction.LOCK, dto));
+    }
+
+    @PostMapping("/users/bulk/unlock")
+    public ResponseEntity<BulkUserActionResultDTO> bulkUnlock(@RequestBody @Valid BulkUserActionDTO dto) {
+        return ResponseEntity.ok(userService.bulkUpdate(UserService.BulkAction.UNLOCK, dto));
+    }
+
+    @PostMapping("/users/bulk/disable")
+    public ResponseEntity<BulkUserActionResultDTO> bulkDisable(@RequestBody @Valid BulkUserActionDTO dto) {
+        return ResponseEntity.ok(userService.bulkUpdate(UserService.BulkAction.DISABLE, dto));
+    }
+
+    @PostMapping("/users/bulk/enable")
+    public ResponseEntity<BulkUserActionResultDTO> bulkEnable(@RequestBody @Valid BulkUserActionDTO dto) {
+        return ResponseEntity.ok(userService.bulkUpdate(UserService.BulkAction.ENABLE, dto));
+    }
+
+    @PostMapping("/users/bulk/role")
+    public ResponseEntity<BulkUserActionResultDTO> bulkChangeRole(@RequestBody @Valid BulkUserActionDTO dto) {
+        return ResponseEntity.ok(userService.bulkUpdate(UserService.BulkAction.CHANGE_ROLE, dto));
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<AdminStatsDTO> getStats() {
-        AdminStatsDTO stats = new AdminStatsDTO();
-        stats.setTotalUsers(userService.countUsers());
-        stats.setTotalAdmins(userService.countByRole(UserRole.ADMIN));
-        stats.setTotalRegularUsers(userService.countByRole(UserRole.USER));
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(userStatsService.getStats());
     }
 
     @PostMapping("/users/unblock-ratelimit")
@@ -113,12 +188,29 @@ public class AdminController {
     public ResponseEntity<Map<String, Object>> getRateLimitStatus(
             @RequestParam String email) {
 
+        LoginAttemptStatus attemptStatus = rateLimitService.check(email);
+
         Map<String, Object> status = new HashMap<>();
         status.put("email", email);
-        status.put("isBlocked", rateLimitService.isBlocked(email));
-        status.put("remainingAttempts", rateLimitService.getRemainingAttempts(email));
-        status.put("blockTimeRemaining", rateLimitService.getBlockTimeRemaining(email));
+        status.put("isBlocked", attemptStatus.blocked());
+        status.put("remainingAttempts", attemptStatus.remainingAttempts());
+        status.put("blockTimeRemaining", attemptStatus.blockSecondsRemaining());
 
         return ResponseEntity.ok(status);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/tokens/validation-stats")
+    public ResponseEntity<TokenValidationStatsDTO> getTokenValidationStats() {
+        return ResponseEntity.ok(tokenService.getValidationStats());
+    }
+
+    @GetMapping("/password-hashing/stats")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    @GetMapping("/security/stuffing-stats")
+    public ResponseEntity<CredentialStuffingStatsDTO> getCredentialStuffingStats() {
+        return ResponseEntity.ok(credentialStuffingGuard.getStats());
+    }
+}
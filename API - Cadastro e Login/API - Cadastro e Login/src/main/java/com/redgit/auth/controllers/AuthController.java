@@ -3,16 +3,24 @@ package com.redgit.auth.controllers;
 import com.redgit.auth.controllers.DTO.LoginRequestDTO;
 import com.redgit.auth.controllers.DTO.RegisterRequestDTO;
 import com.redgit.auth.controllers.DTO.ResponseDTO;
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
 import com.redgit.auth.infrastructure.entity.User;
 import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.ratelimit.ClientIpResolver;
+import com.redgit.auth.infrastructure.ratelimit.CredentialStuffingGuard;
+import com.redgit.auth.infrastructure.redis.LoginAttemptStatus;
 import com.redgit.auth.infrastructure.redis.RateLimitService;
 import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.service.PasswordHashingService;
 import com.redgit.auth.service.TokenService;
+import com.redgit.auth.service.UserService;
+import com.redgit.auth.service.UserStatsService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -28,21 +36,41 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AuthController {
     private final UserRepository repository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final TokenService tokenService;
     private final RateLimitService rateLimitService;
+    private final UserService userService;
+    private final CredentialStuffingGuard credentialStuffingGuard;
+    private final ClientIpResolver clientIpResolver;
+    private final UserStatsService userStatsService;
+    private final ReadYourWritesTracker readYourWrites;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody @Valid LoginRequestDTO body){
+    public ResponseEntity<?> login(@RequestBody @Valid LoginRequestDTO body, HttpServletRequest request){
         String email = body.email();
+        String ip = clientIpResolver.resolve(request);
 
-        if (rateLimitService.isBlocked(email)) {
-            long timeRemaining = rateLimitService.getBlockTimeRemaining(email);
+        // Origem em credential stuffing é barrada antes de qualquer consulta ou BCrypt
+        long sourceBlockSeconds = credentialStuffingGuard.check(ip);
+        if (sourceBlockSeconds > 0) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Origem temporariamente bloqueada");
+            errorResponse.put("message", "Muitas tentativas de login a partir desta rede. Tente novamente em " + sourceBlockSeconds + " segundos");
+            errorResponse.put("remainingSeconds", sourceBlockSeconds);
+            errorResponse.put("blocked", true);
 
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(sourceBlockSeconds))
+                    .body(errorResponse);
+        }
+
+        LoginAttemptStatus status = rateLimitService.check(email);
+        if (status.blocked()) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Conta temporariamente bloqueada");
-            errorResponse.put("message", "Muitas tentativas de login. Tente novamente em " + timeRemaining + " segundos");
-            errorResponse.put("remainingSeconds", timeRemaining);
+            errorResponse.put("message", "Muitas tentativas de login. Tente novamente em " + status.blockSecondsRemaining() + " segundos");
+            errorResponse.put("remainingSeconds", status.blockSecondsRemaining());
             errorResponse.put("blocked", true);
 
             return ResponseEntity
@@ -50,29 +78,31 @@ public class AuthController {
                     .body(errorResponse);
         }
 
-        User user = this.repository.findByEmail(email)
+        User user = findByEmailFresh(email)
                 .orElseThrow(() -> {
-                    rateLimitService.checkAndBlock(email);
-                    int remaining = rateLimitService.getRemainingAttempts(email);
+                    credentialStuffingGuard.recordFailure(ip, email);
+                    LoginAttemptStatus failure = rateLimitService.recordFailure(email);
 
                     throw new ResponseStatusException(
                             HttpStatus.NOT_FOUND,
-                            "Usuário não identificado. Tentativas restantes: " + remaining
+                            "Usuário não identificado. Tentativas restantes: " + failure.remainingAttempts()
                     );
                 });
 
-        if(passwordEncoder.matches(body.password(), user.getPassword())) {
+        if(passwordHashingService.matches(body.password(), user.getPassword())) {
             rateLimitService.resetAttempts(email);
+            userService.upgradePasswordHash(user, body.password());
 
             String token = this.tokenService.generateToken(user);
             return ResponseEntity.ok(new ResponseDTO(user.getName(), token));
         }
 
-        boolean wasBlocked = rateLimitService.checkAndBlock(email);
-        int remaining = rateLimitService.getRemainingAttempts(email);
+        credentialStuffingGuard.recordFailure(ip, email);
+        LoginAttemptStatus failure = rateLimitService.recordFailure(email);
+        int remaining = failure.remainingAttempts();
 
-        if (wasBlocked) {
-            long blockTime = rateLimitService.getBlockTimeRemaining(email);
+        if (failure.blocked()) {
+            long blockTime = failure.blockSecondsRemaining();
 
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Conta bloqueada");
@@ -97,17 +127,19 @@ public class AuthController {
 
     @PostMapping("/register")
     public ResponseEntity<ResponseDTO> register(@RequestBody @Valid RegisterRequestDTO body){
-        Optional<User> existingUser = this.repository.findByEmail(body.email());
+        Optional<User> existingUser = findByEmailFresh(body.email());
 
         if(existingUser.isEmpty()) {
             User newUser = new User();
-            newUser.setPassword(passwordEncoder.encode(body.password()));
+            newUser.setPassword(passwordHashingService.encode(body.password()));
             newUser.setEmail(body.email());
             newUser.setName(body.name());
             newUser.setRole(UserRole.USER);
             newUser.setEnabled(true);
             newUser.setAccountNonLocked(true);
             this.repository.save(newUser);
+            markRegistered(newUser);
+            userStatsService.recordTransition(null, UserStatsService.Snapshot.of(newUser));
 
             String token = this.tokenService.generateToken(newUser);
             return ResponseEntity.ok(new ResponseDTO(newUser.getName(), token));
@@ -117,17 +149,19 @@ public class AuthController {
 
     @PostMapping("/register/admin")
     public ResponseEntity<ResponseDTO> registerAdmin(@RequestBody @Valid RegisterRequestDTO body){
-        Optional<User> existingUser = this.repository.findByEmail(body.email());
+        Optional<User> existingUser = findByEmailFresh(body.email());
 
         if(existingUser.isEmpty()) {
             User newAdmin = new User();
-            newAdmin.setPassword(passwordEncoder.encode(body.password()));
+            newAdmin.setPassword(passwordHashingService.encode(body.password()));
             newAdmin.setEmail(body.email());
             newAdmin.setName(body.name());
             newAdmin.setRole(UserRole.ADMIN);
             newAdmin.setEnabled(true);
             newAdmin.setAccountNonLocked(true);
             this.repository.save(newAdmin);
+            markRegistered(newAdmin);
+            userStatsService.recordTransition(null, UserStatsService.Snapshot.of(newAdmin));
 
             String token = this.tokenService.generateToken(newAdmin);
             return ResponseEntity.ok(new ResponseDTO(newAdmin.getName(), token));
@@ -154,4 +188,16 @@ public class AuthController {
         return ResponseEntity.badRequest()
                 .body(Map.of("error", "Token não fornecido"));
     }
-}
\ No newline at end of file
+
+    // Cadastro recém-feito em outra instância pode ainda não estar na réplica:
+    // sem isso o login logo após o cadastro responderia "Usuário não identificado"
+    private Optional<User> findByEmailFresh(String email) {
+        return readYourWrites.readFresh(ReadYourWritesTracker.emailKey(email), () -> repository.findByEmail(email));
+    }
+
+    // save() já fez o commit; login e primeira requisição autenticada passam a ler do primário
+    private void markRegistered(User user) {
+        readYourWrites.markWrite(ReadYourWritesTracker.emailKey(user.getEmail()));
+        readYourWrites.markWrite(ReadYourWritesTracker.userKey(user.getId()));
+    }
+}
@@ -11,4 +11,6 @@ public class AdminStatsDTO {
     private long totalUsers;
     private long totalAdmins;
     private long totalRegularUsers;
+    private long totalDisabled;
+    private long totalLocked;
 }
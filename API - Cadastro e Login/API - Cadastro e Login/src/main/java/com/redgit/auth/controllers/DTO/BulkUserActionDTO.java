@@ -0,0 +1,17 @@
+package com.redgit.auth.controllers.DTO;
+
+import com.redgit.auth.infrastructure.entity.UserRole;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+// Alvo por lista de ids ou por filtro (um dos dois). role só é usada em /bulk/role.
+public record BulkUserActionDTO(
+        @Size(max = 100000, message = "Máximo de 100000 ids por requisição")
+        List<UUID> ids,
+
+        UserFilterDTO filter,
+
+        UserRole role
+) { }
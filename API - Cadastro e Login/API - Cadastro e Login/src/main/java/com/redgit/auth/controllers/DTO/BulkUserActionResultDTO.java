@@ -0,0 +1,10 @@
+package com.redgit.auth.controllers.DTO;
+
+// targeted: usuários selecionados; updated: os que de fato mudaram
+// (já no estado pedido ou protegidos, como ADMIN, ficam de fora)
+public record BulkUserActionResultDTO(
+        String action,
+        long targeted,
+        long updated,
+        long elapsedMillis
+) { }
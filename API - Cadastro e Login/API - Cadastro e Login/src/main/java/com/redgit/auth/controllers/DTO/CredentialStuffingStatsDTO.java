@@ -0,0 +1,7 @@
+package com.redgit.auth.controllers.DTO;
+
+public record CredentialStuffingStatsDTO(
+        long activeLocalBlocks,
+        long blocksIssued,
+        long rejectedAttempts
+) { }
@@ -0,0 +1,15 @@
+package com.redgit.auth.controllers.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// nextCursor é opaco: o cliente apenas o devolve para buscar a próxima página.
+// total só vem preenchido quando solicitado (includeTotal=true).
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPageDTO<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore,
+        Long total
+) { }
@@ -0,0 +1,13 @@
+package com.redgit.auth.controllers.DTO;
+
+public record PasswordHashingStatsDTO(
+        int poolSize,
+        int activeThreads,
+        int queueDepth,
+        int queueCapacity,
+        long completed,
+        long rejected,
+        long timedOut,
+        long avgWaitMillis,
+        long maxWaitMillis
+) { }
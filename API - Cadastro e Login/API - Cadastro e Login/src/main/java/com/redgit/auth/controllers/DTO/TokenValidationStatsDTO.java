@@ -0,0 +1,10 @@
+package com.redgit.auth.controllers.DTO;
+
+public record TokenValidationStatsDTO(
+        String mode,
+        long localHits,
+        long localMisses,
+        long invalidTokens,
+        int revokedTokens,
+        boolean revocationListFresh
+) { }
@@ -0,0 +1,20 @@
+package com.redgit.auth.controllers.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.redgit.auth.infrastructure.entity.UserRole;
+
+// Filtro de usuários das operações de administração; campos nulos não filtram
+public record UserFilterDTO(
+        UserRole role,
+        Boolean enabled,
+        Boolean locked
+) {
+    @JsonIgnore
+    public boolean isEmpty() {
+        return role == null && enabled == null && locked == null;
+    }
+
+    public Boolean accountNonLocked() {
+        return locked != null ? !locked : null;
+    }
+}
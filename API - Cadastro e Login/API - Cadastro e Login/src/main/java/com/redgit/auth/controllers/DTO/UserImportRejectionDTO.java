@@ -0,0 +1,7 @@
+package com.redgit.auth.controllers.DTO;
+
+public record UserImportRejectionDTO(
+        long line,
+        String email,
+        String reason
+) { }
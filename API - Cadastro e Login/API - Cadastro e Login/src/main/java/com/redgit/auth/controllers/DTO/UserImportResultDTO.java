@@ -0,0 +1,14 @@
+package com.redgit.auth.controllers.DTO;
+
+import java.util.List;
+
+// rejections traz no máximo import.users.max-reported-rejections linhas;
+// rejected sempre tem a contagem completa
+public record UserImportResultDTO(
+        long totalRows,
+        long imported,
+        long rejected,
+        List<UserImportRejectionDTO> rejections,
+        boolean rejectionsTruncated,
+        long elapsedMillis
+) { }
@@ -25,8 +25,7 @@ public class UserController {
         if (user == null) {
             return ResponseEntity.status(401).build();
         }
-        User fullUser = userService.findByEmail(user.getEmail());
-        return ResponseEntity.ok(new UserDTO(fullUser));
+        return ResponseEntity.ok(new UserDTO(user));
     }
 
     @GetMapping("/{id}")
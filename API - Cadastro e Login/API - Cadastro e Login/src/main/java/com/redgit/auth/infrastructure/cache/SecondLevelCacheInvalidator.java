@@ -0,0 +1,203 @@
+package com.redgit.auth.infrastructure.cache;
+
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.metamodel.mapping.NaturalIdMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// O cache de segundo nível é local a cada instância: alterações commitadas aqui
+// são publicadas em "auth:l2-invalidation" para as demais removerem a entrada.
+// Com réplica de leitura, a remoção se repete depois do atraso máximo tolerado,
+// descartando o que tenha sido recarregado da réplica ainda desatualizada.
+// A mensagem leva os natural ids (email) anterior e atual, e só essas associações saem
+// da região de natural id; sem eles (estado anterior desconhecido) a região inteira sai.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator implements MessageListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    public static final String CHANNEL = "auth:l2-invalidation";
+    private static final String CHANNEL_FAMILY = "l2-invalidation";
+    private static final String ALL = "*";
+    private static final String NATURAL_ID_SEPARATOR = "\n";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TaskScheduler taskScheduler;
+    private final ReadYourWritesTracker readYourWrites;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    @Value("${datasource.routing.max-lag-seconds:5}")
+    private long maxReplicaLagSeconds = 5;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = sessionFactory().getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister().getEntityName(), String.valueOf(event.getId()),
+                naturalIds(event.getPersister(), event.getOldState(), event.getState()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister().getEntityName(), String.valueOf(event.getId()),
+                naturalIds(event.getPersister(), event.getDeletedState()));
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    // UPDATE em massa (JPQL) não dispara eventos por entidade: a região inteira é descartada.
+    // Chamar após o commit.
+    public void evictAll(Class<?> entityClass) {
+        publish(entityClass.getName(), ALL, null);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // origem|entidade|id[|natural ids separados por \n]; sem o quarto campo, natural ids desconhecidos
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3) {
+            return;
+        }
+        String origin = parts[0];
+        String entityName = parts[1];
+        String id = parts[2];
+        List<String> naturalIds = parts.length == 4 ? naturalIdList(parts[3]) : null;
+
+        // A própria instância já atualizou o cache no commit
+        if (!instanceId.equals(origin)) {
+            evict(entityName, id, naturalIds);
+            log.debug("Cache L2 invalidado por outra instância: {} {}", entityName, id);
+        }
+
+        if (readYourWrites.isEnabled()) {
+            taskScheduler.schedule(() -> evict(entityName, id, naturalIds),
+                    Instant.now().plusSeconds(maxReplicaLagSeconds + 1));
+        }
+    }
+
+    // naturalIds null: não se sabe quais associações mudaram, a região de natural id sai inteira
+    void evict(String entityName, String id, List<String> naturalIds) {
+        try {
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            if (ALL.equals(id)) {
+                cache.evictEntityData(entityName);
+            } else {
+                cache.evictEntityData(entityName, UUID.fromString(id));
+            }
+            // O email é natural id mutável: a associação antiga precisa sair junto
+            if (ALL.equals(id) || naturalIds == null) {
+                cache.evictNaturalIdData(entityName);
+            } else if (!naturalIds.isEmpty()) {
+                evictNaturalIds(entityName, naturalIds);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao invalidar cache L2: entity={}, id={}, error={}", entityName, id, e.getMessage());
+        }
+    }
+
+    private void evictNaturalIds(String entityName, List<String> naturalIds) {
+        SessionFactoryImplementor sessionFactory = sessionFactory();
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityName);
+        NaturalIdMapping mapping = persister.getNaturalIdMapping();
+        if (mapping == null || mapping.getCacheAccess() == null) {
+            return;
+        }
+        NaturalIdDataAccess access = mapping.getCacheAccess();
+        // A chave inclui o tenant da sessão; abrir a sessão não pega conexão do pool
+        try (SessionImplementor session = sessionFactory.openSession()) {
+            for (String naturalId : naturalIds) {
+                access.evict(access.generateCacheKey(mapping.normalizeInput(naturalId), persister, session));
+            }
+        }
+    }
+
+    // Natural ids (simples, texto) dos estados informados; null se algum não puder ser lido
+    private static List<String> naturalIds(EntityPersister persister, Object[]... states) {
+        NaturalIdMapping mapping = persister.getNaturalIdMapping();
+        if (mapping == null || !persister.hasNaturalIdCache()) {
+            return List.of();
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (Object[] state : states) {
+            if (state == null || !(mapping.extractNaturalIdFromEntityState(state) instanceof String value)) {
+                return null;
+            }
+            values.add(value);
+        }
+        return List.copyOf(values);
+    }
+
+    private static List<String> naturalIdList(String field) {
+        return field.isEmpty() ? List.of() : Arrays.asList(field.split(NATURAL_ID_SEPARATOR));
+    }
+
+    private void publish(String entityName, String id, List<String> naturalIds) {
+        String header = instanceId + "|" + entityName + "|" + id;
+        String body = naturalIds != null ? header + "|" + String.join(NATURAL_ID_SEPARATOR, naturalIds) : header;
+        try {
+            circuitBreaker.execute("publish", CHANNEL_FAMILY, () -> RedisCommandMetrics.record("publish", CHANNEL_FAMILY,
+                    () -> stringRedisTemplate.convertAndSend(CHANNEL, body)));
+        } catch (Exception e) {
+            // O TTL da região limita a janela de inconsistência nas outras instâncias
+            log.error("Erro ao publicar invalidação do cache L2: {}", e.getMessage());
+        }
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+}
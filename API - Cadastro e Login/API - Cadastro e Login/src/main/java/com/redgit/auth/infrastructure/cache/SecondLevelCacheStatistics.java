@@ -0,0 +1,52 @@
+package com.redgit.auth.infrastructure.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Hit/miss por região do cache L2 (hibernate.generate_statistics=true).
+// Os mesmos números ficam expostos por JMX pelas estatísticas do JCache.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheStatistics {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Scheduled(
+            initialDelayString = "${cache.l2.stats-log-interval-ms:300000}",
+            fixedDelayString = "${cache.l2.stats-log-interval-ms:300000}"
+    )
+    public void logStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            long hits = stats.getHitCount();
+            long misses = stats.getMissCount();
+            log.info("Cache L2 [{}]: {} hits, {} misses ({}% hit), {} puts, {} em memória",
+                    region, hits, misses, hitRatio(hits, misses), stats.getPutCount(), stats.getElementCountInMemory());
+        }
+
+        log.info("Cache L2 natural id: {} hits, {} misses; consultas ao banco por natural id: {}",
+                statistics.getNaturalIdCacheHitCount(),
+                statistics.getNaturalIdCacheMissCount(),
+                statistics.getNaturalIdQueryExecutionCount());
+    }
+
+    private static long hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : Math.round(hits * 100.0 / total);
+    }
+}
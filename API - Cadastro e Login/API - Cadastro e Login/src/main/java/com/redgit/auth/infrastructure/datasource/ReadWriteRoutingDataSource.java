@@ -0,0 +1,35 @@
+package com.redgit.auth.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Transações @Transactional(readOnly = true) usam a réplica; o resto usa o primário.
+// Volta para o primário com a réplica atrasada ou fora do ar e após gravações do próprio usuário.
+// Precisa ficar atrás de um LazyConnectionDataSourceProxy: a chave é decidida ao obter a conexão,
+// depois que a transação já marcou o readOnly.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            return Route.PRIMARY;
+        }
+        if (readYourWrites.shouldReadFromPrimary()) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+}
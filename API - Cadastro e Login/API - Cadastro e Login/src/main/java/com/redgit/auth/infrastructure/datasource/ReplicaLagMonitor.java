@@ -0,0 +1,84 @@
+package com.redgit.auth.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Mede o atraso da réplica (Seconds_Behind_Source) em intervalo fixo.
+// Réplica fora do ar, replicação parada ou atraso acima do limite: leituras voltam ao primário.
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // MySQL 8.0.22+; versões anteriores só conhecem SHOW SLAVE STATUS
+    private static final String REPLICA_STATUS = "SHOW REPLICA STATUS";
+    private static final String LEGACY_REPLICA_STATUS = "SHOW SLAVE STATUS";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagSeconds;
+
+    private volatile boolean replicaUsable;
+    private volatile boolean legacySyntax;
+    private volatile Long lastLagSeconds;
+
+    public ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, long maxLagSeconds) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    // Até a primeira verificação as leituras ficam no primário
+    @Scheduled(fixedDelayString = "${datasource.routing.lag-check-interval-ms:2000}")
+    public void check() {
+        Long lag;
+        try {
+            lag = readLagSeconds();
+        } catch (DataAccessException e) {
+            // Repetiria a cada verificação; a transição de estado abaixo já fica no log
+            log.debug("Erro ao consultar atraso da réplica: {}", e.getMessage());
+            lag = null;
+        }
+
+        lastLagSeconds = lag;
+        boolean usable = lag != null && lag <= maxLagSeconds;
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Réplica de leitura disponível (atraso {}s)", lag);
+            } else {
+                log.warn("Réplica de leitura indisponível ou atrasada (atraso {}s, limite {}s): leituras no primário",
+                        lag, maxLagSeconds);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public Long getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+
+    private Long readLagSeconds() {
+        if (!legacySyntax) {
+            try {
+                return replicaJdbcTemplate.query(REPLICA_STATUS, rs -> rs.next() ? lagOf(rs, "Seconds_Behind_Source") : Long.valueOf(0));
+            } catch (BadSqlGrammarException e) {
+                log.info("Servidor sem SHOW REPLICA STATUS, usando SHOW SLAVE STATUS");
+                legacySyntax = true;
+            }
+        }
+        return replicaJdbcTemplate.query(LEGACY_REPLICA_STATUS, rs -> rs.next() ? lagOf(rs, "Seconds_Behind_Master") : Long.valueOf(0));
+    }
+
+    // Sem linha de status o nó não replica de ninguém (ex.: réplica gerenciada): atraso zero.
+    // Coluna nula significa replicação parada.
+    private static Long lagOf(ResultSet rs, String column) throws SQLException {
+        long lag = rs.getLong(column);
+        return rs.wasNull() ? null : lag;
+    }
+}
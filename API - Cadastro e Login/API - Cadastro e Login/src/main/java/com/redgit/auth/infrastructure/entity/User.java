@@ -6,6 +6,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.type.SqlTypes;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,20 +22,37 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+// (created_at, id) sustenta a paginação por cursor da listagem de administração;
+// a variante com role atende o filtro mais comum sem varrer as outras roles;
+// updated_at localiza quem mudou desde uma publicação de tokenVersion que falhou
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_role_created_at_id", columnList = "role, created_at, id"),
+        @Index(name = "idx_users_updated_at", columnList = "updated_at")
+})
+// Cache de segundo nível: findByEmail resolve email -> id e id -> entidade sem sair da JVM
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.EMAIL_CACHE_REGION)
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class User implements UserDetails {
 
+    public static final String CACHE_REGION = "users";
+    public static final String EMAIL_CACHE_REGION = "users-by-email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Column(name = "name", nullable = false)
     private String name;
 
+    // Mutável: o usuário pode trocar o email em updateProfile
+    @NaturalId(mutable = true)
     @Column(name = "email", unique = true, nullable = false)
     private String email;
 
@@ -47,6 +70,10 @@ public class User implements UserDetails {
     @Column(name = "account_non_locked", nullable = false)
     private boolean accountNonLocked = true;
 
+    // Incrementada quando tokens já emitidos devem deixar de valer
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,58 @@
+package com.redgit.auth.infrastructure.metrics;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Chamadas e tempo acumulado de espera por tipo de I/O dentro de um escopo (em geral, uma requisição).
+// Escopos aninhados repassam o que registram para o escopo de fora.
+public class IoStats {
+
+    private final IoStats parent;
+    private final AtomicLongArray calls = new AtomicLongArray(IoKind.values().length);
+    private final AtomicLongArray nanos = new AtomicLongArray(IoKind.values().length);
+
+    IoStats(IoStats parent) {
+        this.parent = parent;
+    }
+
+    IoStats parent() {
+        return parent;
+    }
+
+    void add(IoKind kind, long elapsedNanos) {
+        calls.incrementAndGet(kind.ordinal());
+        nanos.addAndGet(kind.ordinal(), elapsedNanos);
+        if (parent != null) {
+            parent.add(kind, elapsedNanos);
+        }
+    }
+
+    public long calls(IoKind kind) {
+        return calls.get(kind.ordinal());
+    }
+
+    public long nanos(IoKind kind) {
+        return nanos.get(kind.ordinal());
+    }
+
+    // Formato do Server-Timing: redis;desc="3 calls";dur=1.27, jdbc;desc="1 calls";dur=4.02
+    public String toServerTiming() {
+        StringJoiner header = new StringJoiner(", ");
+        for (IoKind kind : IoKind.values()) {
+            header.add(String.format(Locale.ROOT, "%s;desc=\"%d calls\";dur=%.2f",
+                    kind.tag(), calls(kind), nanos(kind) / 1_000_000.0));
+        }
+        return header.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner summary = new StringJoiner(", ");
+        for (IoKind kind : IoKind.values()) {
+            summary.add(String.format(Locale.ROOT, "%s=%d (%.1fms)",
+                    kind.tag(), calls(kind), nanos(kind) / 1_000_000.0));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.redgit.auth.infrastructure.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// Registrado via hibernate.session.events.auto: o Hibernate cria uma instância por sessão.
+// Conta cada statement (ou batch) executado e o tempo até o banco responder.
+public class JdbcIoSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestIoTracer.record(IoKind.JDBC, System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestIoTracer.record(IoKind.JDBC, System.nanoTime() - batchStart);
+    }
+}
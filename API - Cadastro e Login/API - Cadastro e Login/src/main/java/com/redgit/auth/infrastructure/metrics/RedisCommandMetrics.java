@@ -0,0 +1,46 @@
+package com.redgit.auth.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.Supplier;
+
+// Latência de cada comando Redis, por operação e família de chave; também conta para a requisição atual.
+// Registra no registry global, que o Spring Boot liga ao Prometheus; em testes unitários vira no-op.
+public final class RedisCommandMetrics {
+
+    private static final Meter.MeterProvider<Timer> COMMANDS = Timer.builder("redis.commands")
+            .description("Latência dos comandos Redis")
+            .withRegistry(Metrics.globalRegistry);
+
+    private RedisCommandMetrics() {
+    }
+
+    public static <T> T record(String op, String family, Supplier<T> command) {
+        Timer.Sample sample = Timer.start();
+        String outcome = "error";
+        try {
+            T result = command.get();
+            outcome = "success";
+            return result;
+        } finally {
+            long elapsed = sample.stop(COMMANDS.withTags("op", op, "family", family, "outcome", outcome));
+            RequestIoTracer.record(IoKind.REDIS, elapsed);
+        }
+    }
+
+    public static void record(String op, String family, Runnable command) {
+        record(op, family, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    // Primeiro segmento da chave (sem o prefixo do serviço): "blacklist:<token>" -> "blacklist".
+    // A tag nunca carrega ids ou emails, só o que o código usa como prefixo.
+    public static String family(String key) {
+        int separator = key.indexOf(':');
+        return separator > 0 ? key.substring(0, separator) : "other";
+    }
+}
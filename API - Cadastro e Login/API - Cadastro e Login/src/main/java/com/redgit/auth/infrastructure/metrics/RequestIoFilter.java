@@ -0,0 +1,110 @@
+package com.redgit.auth.infrastructure.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Abre o escopo de I/O antes da cadeia do Spring Security, para que validação de token,
+// carga do usuário e rate limit também entrem na conta da requisição.
+// O resumo vai no header Server-Timing (escrito antes do commit da resposta) e em métricas por rota.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestIoFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final Meter.MeterProvider<DistributionSummary> CALLS = DistributionSummary.builder("request.io.calls")
+            .description("Chamadas de I/O por requisição")
+            .baseUnit("calls")
+            .withRegistry(Metrics.globalRegistry);
+
+    private static final Meter.MeterProvider<Timer> WAIT = Timer.builder("request.io.wait")
+            .description("Espera acumulada por I/O em cada requisição")
+            .withRegistry(Metrics.globalRegistry);
+
+    // Desligado por padrão: o header expõe a clientes externos quantas consultas e
+    // chamadas ao Redis cada rota faz (e quanto tempo levam). Ligar só em ambiente interno.
+    @Value("${metrics.request-io.header-enabled:false}")
+    private boolean headerEnabled = false;
+
+    // Acima disso a requisição é logada com o resumo de I/O (0 desliga)
+    @Value("${metrics.request-io.warn-calls:50}")
+    private long warnCalls = 50;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        IoStats stats = RequestIoTracer.begin();
+        ServerTimingResponse wrapped = headerEnabled ? new ServerTimingResponse(response, stats) : null;
+
+        try {
+            filterChain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            RequestIoTracer.end(stats);
+            // Respostas sem corpo só são commitadas depois do filtro
+            if (wrapped != null) {
+                wrapped.writeHeader();
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, IoStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        long total = 0;
+        for (IoKind kind : IoKind.values()) {
+            long calls = stats.calls(kind);
+            total += calls;
+            CALLS.withTags("method", request.getMethod(), "uri", uri, "kind", kind.tag()).record(calls);
+            WAIT.withTags("method", request.getMethod(), "uri", uri, "kind", kind.tag())
+                    .record(stats.nanos(kind), TimeUnit.NANOSECONDS);
+        }
+
+        if (warnCalls > 0 && total > warnCalls) {
+            log.warn("Requisição com {} chamadas de I/O: {} {} -> {}", total, request.getMethod(), uri, stats);
+        } else {
+            log.debug("I/O da requisição {} {}: {}", request.getMethod(), uri, stats);
+        }
+    }
+
+    private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final IoStats stats;
+        private boolean written;
+
+        ServerTimingResponse(HttpServletResponse response, IoStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (!written && !getResponse().isCommitted()) {
+                written = true;
+                ((HttpServletResponse) getResponse()).setHeader(HEADER, stats.toServerTiming());
+            }
+        }
+    }
+}
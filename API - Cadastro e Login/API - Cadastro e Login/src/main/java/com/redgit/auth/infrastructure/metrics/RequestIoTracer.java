@@ -0,0 +1,32 @@
+package com.redgit.auth.infrastructure.metrics;
+
+// Atribui cada comando Redis e statement JDBC ao escopo aberto na thread atual.
+// Fora de um escopo (jobs agendados, threads de pool) o registro é ignorado.
+public final class RequestIoTracer {
+
+    private static final ThreadLocal<IoStats> CURRENT = new ThreadLocal<>();
+
+    private RequestIoTracer() {
+    }
+
+    public static IoStats begin() {
+        IoStats stats = new IoStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end(IoStats stats) {
+        if (stats.parent() != null) {
+            CURRENT.set(stats.parent());
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static void record(IoKind kind, long elapsedNanos) {
+        IoStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.add(kind, elapsedNanos);
+        }
+    }
+}
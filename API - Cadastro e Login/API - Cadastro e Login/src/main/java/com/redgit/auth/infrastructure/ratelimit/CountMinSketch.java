@@ -0,0 +1,93 @@
+package com.redgit.auth.infrastructure.ratelimit;
+
+import com.redgit.auth.infrastructure.security.DoubleHashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Count-Min Sketch thread-safe: a estimativa nunca fica abaixo da contagem real
+// e a memória é fixa (depth x width contadores), qualquer que seja o número de chaves.
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("depth e width devem ser maiores que zero");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public void add(String key, long count) {
+        long hash1 = DoubleHashing.hash(key, DoubleHashing.SEED_1);
+        long hash2 = DoubleHashing.hash(key, DoubleHashing.SEED_2);
+
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(row * width + column(hash1, hash2, row), count);
+        }
+    }
+
+    public long estimate(String key) {
+        long hash1 = DoubleHashing.hash(key, DoubleHashing.SEED_1);
+        long hash2 = DoubleHashing.hash(key, DoubleHashing.SEED_2);
+
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(row * width + column(hash1, hash2, row)));
+        }
+        return min;
+    }
+
+    public void addCell(int row, int column, long value) {
+        counters.addAndGet(row * width + column, value);
+    }
+
+    // Zera cada célula e devolve um sketch com o que havia nelas (null se estava vazio).
+    // Um add concorrente cai na célula já zerada e fica para a próxima drenagem.
+    public CountMinSketch drain() {
+        CountMinSketch drained = null;
+        for (int i = 0; i < counters.length(); i++) {
+            if (counters.get(i) == 0) {
+                continue;
+            }
+            long value = counters.getAndSet(i, 0);
+            if (value != 0) {
+                if (drained == null) {
+                    drained = new CountMinSketch(depth, width);
+                }
+                drained.counters.addAndGet(i, value);
+            }
+        }
+        return drained;
+    }
+
+    // Percorre apenas as células não zeradas (row, column) -> valor
+    public void forEachNonZero(CellConsumer consumer) {
+        for (int i = 0; i < counters.length(); i++) {
+            long value = counters.get(i);
+            if (value != 0) {
+                consumer.accept(i / width, i % width, value);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface CellConsumer {
+        void accept(int row, int column, long value);
+    }
+
+    private int column(long hash1, long hash2, int row) {
+        return (int) DoubleHashing.index(hash1, hash2, row, width);
+    }
+}
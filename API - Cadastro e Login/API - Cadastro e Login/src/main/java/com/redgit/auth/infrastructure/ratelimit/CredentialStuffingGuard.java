@@ -0,0 +1,290 @@
+package com.redgit.auth.infrastructure.ratelimit;
+
+import com.redgit.auth.controllers.DTO.CredentialStuffingStatsDTO;
+import com.redgit.auth.infrastructure.metrics.RateLimitMetrics;
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.redis.RedisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Detecta credential stuffing por origem (IP e sub-rede /24 ou /64), não por email:
+// - HyperLogLog no Redis conta emails distintos com falha por origem (memória fixa por chave);
+// - Count-Min Sketch local conta o volume de falhas por origem, mesclado entre
+//   instâncias periodicamente via hash no Redis.
+// Origem bloqueada é rejeitada antes de buscar o usuário e rodar o BCrypt.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CredentialStuffingGuard {
+
+    private static final String CMS_KEY_PREFIX = "auth:stuffing:cms:";
+    private static final String SKETCH_FAMILY = "stuffing";
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECORD_SCRIPT = loadScript("scripts/stuffing_record.lua", List.class);
+    private static final RedisScript<Long> CHECK_SCRIPT = loadScript("scripts/stuffing_check.lua", Long.class);
+
+    private final RedisService redisService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    @Value("${security.stuffing.window-seconds:600}")
+    private long windowSeconds = 600;
+
+    @Value("${security.stuffing.ip-distinct-emails:20}")
+    private long ipDistinctEmails = 20;
+
+    @Value("${security.stuffing.subnet-distinct-emails:100}")
+    private long subnetDistinctEmails = 100;
+
+    @Value("${security.stuffing.heavy-hitter-failures:200}")
+    private long heavyHitterFailures = 200;
+
+    // Volume somado da sub-rede (/24 ou /64): pega o ataque espalhado por vários endereços,
+    // cada um abaixo de heavy-hitter-failures
+    @Value("${security.stuffing.subnet-heavy-hitter-failures:1000}")
+    private long subnetHeavyHitterFailures = 1000;
+
+    @Value("${security.stuffing.block-seconds:900}")
+    private long blockSeconds = 900;
+
+    @Value("${security.stuffing.sketch-depth:4}")
+    private int sketchDepth = 4;
+
+    @Value("${security.stuffing.sketch-width:4096}")
+    private int sketchWidth = 4096;
+
+    @Value("${security.stuffing.max-local-blocks:100000}")
+    private int maxLocalBlocks = 100_000;
+
+    // Falhas locais ainda não enviadas ao Redis e a última visão global da janela.
+    // O sketch pendente é criado uma vez e só drenado, nunca trocado: quem já pegou a
+    // referência continua somando nele e nada se perde entre a leitura e o envio.
+    private final AtomicReference<CountMinSketch> pending = new AtomicReference<>();
+    private volatile CountMinSketch global;
+    private volatile long globalWindow = -1;
+
+    // Origem -> instante (ms) em que o bloqueio termina; evita ir ao Redis durante o ataque
+    private final Map<String, Long> localBlocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedAttempts = new AtomicLong();
+    private final AtomicLong blocksIssued = new AtomicLong();
+
+    // Segundos restantes de bloqueio da origem (0 = liberada)
+    public long check(String ip) {
+        String subnet = subnetOf(ip);
+        long now = System.currentTimeMillis();
+
+        long localRemaining = Math.max(localRemaining(ip, now), localRemaining(subnet, now));
+        if (localRemaining > 0) {
+            rejectedAttempts.incrementAndGet();
+            RateLimitMetrics.blocked("credential-stuffing");
+            return localRemaining;
+        }
+
+        Long remaining = redisService.executeScript(CHECK_SCRIPT, List.of(blockKey(ip), blockKey(subnet)));
+        if (remaining != null && remaining > 0) {
+            localBlocks.put(ip, now + remaining * 1000);
+            rejectedAttempts.incrementAndGet();
+            RateLimitMetrics.blocked("credential-stuffing");
+            return remaining;
+        }
+
+        return 0;
+    }
+
+    public void recordFailure(String ip, String email) {
+        String subnet = subnetOf(ip);
+
+        CountMinSketch sketch = pendingSketch();
+        sketch.add(ip, 1);
+        sketch.add(subnet, 1);
+
+        if (estimate(ip) >= heavyHitterFailures) {
+            block(ip, blockSeconds, true);
+            log.warn("Origem bloqueada por volume de falhas de login: {}", ip);
+        }
+        if (!subnet.equals(ip) && estimate(subnet) >= subnetHeavyHitterFailures) {
+            block(subnet, blockSeconds, true);
+            log.warn("Sub-rede bloqueada por volume de falhas de login: {}", subnet);
+        }
+
+        List<?> result = redisService.executeScript(
+                RECORD_SCRIPT,
+                List.of("stuffing:hll:ip:" + ip, "stuffing:hll:net:" + subnet, blockKey(ip), blockKey(subnet)),
+                email.toLowerCase(),
+                windowSeconds,
+                ipDistinctEmails,
+                subnetDistinctEmails,
+                blockSeconds
+        );
+
+        if (result != null && result.size() >= 3 && ((Number) result.get(0)).longValue() > 0) {
+            long seconds = ((Number) result.get(0)).longValue();
+            block(ip, seconds, false);
+            if (((Number) result.get(2)).longValue() >= subnetDistinctEmails) {
+                block(subnet, seconds, false);
+            }
+            log.warn("Origem bloqueada por credential stuffing: ip={} ({} emails), sub-rede={} ({} emails)",
+                    ip, result.get(1), subnet, result.get(2));
+        }
+    }
+
+    public CredentialStuffingStatsDTO getStats() {
+        long now = System.currentTimeMillis();
+        long activeBlocks = localBlocks.values().stream().filter(until -> until > now).count();
+        return new CredentialStuffingStatsDTO(activeBlocks, blocksIssued.get(), rejectedAttempts.get());
+    }
+
+    // Envia as falhas locais ao sketch compartilhado da janela e lê a soma de todas as instâncias
+    @Scheduled(fixedDelayString = "${security.stuffing.merge-interval-ms:5000}")
+    public void mergeSketch() {
+        long window = System.currentTimeMillis() / 1000 / windowSeconds;
+        String key = CMS_KEY_PREFIX + window;
+        CountMinSketch local = pending.get();
+        CountMinSketch delta = local != null ? local.drain() : null;
+
+        try {
+            if (delta != null) {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                command("hincrby", () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    pushDelta(connection, rawKey, delta);
+                    connection.keyCommands().expire(rawKey, windowSeconds * 2);
+                    return null;
+                }));
+            }
+
+            Map<Object, Object> cells = command("hgetall", () -> stringRedisTemplate.opsForHash().entries(key));
+            CountMinSketch merged = new CountMinSketch(sketchDepth, sketchWidth);
+            cells.forEach((field, value) -> {
+                String[] position = field.toString().split(":");
+                merged.addCell(Integer.parseInt(position[0]), Integer.parseInt(position[1]), Long.parseLong(value.toString()));
+            });
+
+            global = merged;
+            globalWindow = window;
+        } catch (Exception e) {
+            log.error("Erro ao mesclar sketch de falhas de login: {}", e.getMessage());
+            if (delta != null) {
+                // Devolve as contagens para a próxima tentativa
+                delta.forEachNonZero(local::addCell);
+            }
+        }
+
+        purgeLocalBlocks();
+    }
+
+    private <T> T command(String op, Supplier<T> command) {
+        return circuitBreaker.execute(op, SKETCH_FAMILY, () -> RedisCommandMetrics.record(op, SKETCH_FAMILY, command));
+    }
+
+    private void pushDelta(RedisConnection connection, byte[] rawKey, CountMinSketch delta) {
+        delta.forEachNonZero((row, column, value) -> connection.hashCommands().hIncrBy(
+                rawKey, (row + ":" + column).getBytes(StandardCharsets.UTF_8), value));
+    }
+
+    private long estimate(String source) {
+        long current = System.currentTimeMillis() / 1000 / windowSeconds;
+        CountMinSketch snapshot = globalWindow == current ? global : null;
+        CountMinSketch local = pending.get();
+
+        long total = 0;
+        if (snapshot != null) {
+            total += snapshot.estimate(source);
+        }
+        if (local != null) {
+            total += local.estimate(source);
+        }
+        return total;
+    }
+
+    private CountMinSketch pendingSketch() {
+        CountMinSketch sketch = pending.get();
+        while (sketch == null) {
+            pending.compareAndSet(null, new CountMinSketch(sketchDepth, sketchWidth));
+            sketch = pending.get();
+        }
+        return sketch;
+    }
+
+    private void block(String source, long seconds, boolean propagate) {
+        if (localBlocks.size() >= maxLocalBlocks) {
+            purgeLocalBlocks();
+        }
+        localBlocks.put(source, System.currentTimeMillis() + seconds * 1000);
+        blocksIssued.incrementAndGet();
+
+        if (propagate) {
+            redisService.set(blockKey(source), "1", seconds);
+        }
+    }
+
+    private long localRemaining(String source, long now) {
+        Long until = localBlocks.get(source);
+        if (until == null) {
+            return 0;
+        }
+        if (until <= now) {
+            localBlocks.remove(source, until);
+            return 0;
+        }
+        return Duration.ofMillis(until - now).toSeconds() + 1;
+    }
+
+    private void purgeLocalBlocks() {
+        long now = System.currentTimeMillis();
+        localBlocks.values().removeIf(until -> until <= now);
+    }
+
+    private static String blockKey(String source) {
+        return "stuffing:block:" + source;
+    }
+
+    // /24 para IPv4 e /64 para IPv6; qualquer outra coisa vira a própria origem
+    static String subnetOf(String ip) {
+        // Só literais: getByName com um nome faria consulta DNS
+        if (ip == null || !(IPV4.matcher(ip).matches() || ip.contains(":"))) {
+            return ip;
+        }
+        try {
+            byte[] address = InetAddress.getByName(ip).getAddress();
+            int prefixBytes = address.length == 4 ? 3 : 8;
+            for (int i = prefixBytes; i < address.length; i++) {
+                address[i] = 0;
+            }
+            return InetAddress.getByAddress(address).getHostAddress() + "/" + (prefixBytes * 8);
+        } catch (Exception e) {
+            return ip;
+        }
+    }
+
+    private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
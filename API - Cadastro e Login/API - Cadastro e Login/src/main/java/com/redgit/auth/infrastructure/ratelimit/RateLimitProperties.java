@@ -0,0 +1,48 @@
+package com.redgit.auth.infrastructure.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Políticas de limite por rota (ratelimit.policies[n].*). A primeira que casar com
+// método + caminho é aplicada; rotas sem política não são limitadas.
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    public enum Mode { LOCAL, REDIS }
+
+    public enum KeyType { IP, PRINCIPAL, IP_AND_PRINCIPAL }
+
+    private boolean enabled = true;
+
+    // local: balde em memória por instância; redis: balde compartilhado entre instâncias
+    private Mode mode = Mode.LOCAL;
+
+    // Só confia em X-Forwarded-For quando a conexão vem de um destes endereços
+    private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.1", "0:0:0:0:0:0:0:1"));
+
+    private int maxLocalBuckets = 100_000;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private String name;
+        // Vazio = qualquer método
+        private List<String> methods = new ArrayList<>();
+        private String path;
+        private KeyType key = KeyType.IP;
+        private long capacity;
+        private long refillTokens;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+}
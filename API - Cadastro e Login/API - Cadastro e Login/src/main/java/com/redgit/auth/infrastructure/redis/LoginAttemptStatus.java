@@ -0,0 +1,23 @@
+package com.redgit.auth.infrastructure.redis;
+
+import java.util.List;
+
+public record LoginAttemptStatus(
+        boolean blocked,
+        int remainingAttempts,
+        long blockSecondsRemaining
+) {
+
+    // Retorno do script: {bloqueado (0/1), tentativas restantes, segundos de bloqueio}
+    static LoginAttemptStatus fromScriptResult(List<?> result, int maxAttempts) {
+        if (result == null || result.size() < 3) {
+            // Redis indisponível: não bloqueia o login (exceto com "ratelimit" em fail-closed-families)
+            return new LoginAttemptStatus(false, maxAttempts, 0);
+        }
+        return new LoginAttemptStatus(
+                ((Number) result.get(0)).intValue() == 1,
+                ((Number) result.get(1)).intValue(),
+                ((Number) result.get(2)).longValue()
+        );
+    }
+}
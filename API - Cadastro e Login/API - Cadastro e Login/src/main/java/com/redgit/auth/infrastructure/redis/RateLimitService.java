@@ -1,9 +1,16 @@
 package com.redgit.auth.infrastructure.redis;
 
+import com.redgit.auth.infrastructure.metrics.RateLimitMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -15,45 +22,32 @@ public class RateLimitService {
     private static final long BLOCK_DURATION_SECONDS = 300;
     private static final long ATTEMPT_WINDOW_SECONDS = 300;
 
-    public boolean isBlocked(String email) {
-        String blockKey = "blocked:" + email;
-        boolean blocked = redisService.exists(blockKey);
-
-        if (blocked) {
-            long ttl = redisService.getTTL(blockKey);
-            log.warn("Usuário bloqueado: {} (restam {}s)", email, ttl);
-        }
-
-        return blocked;
-    }
+    // Consulta, incrementa e bloqueia atomicamente; executado via EVALSHA (SHA calculado uma vez)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List> LOGIN_RATE_LIMIT_SCRIPT = loadScript();
 
-    public int recordAttempt(String email) {
-        String attemptKey = "ratelimit:" + email;
-        Long attempts = redisService.incrementWithTTL(attemptKey, ATTEMPT_WINDOW_SECONDS);
+    public LoginAttemptStatus check(String email) {
+        LoginAttemptStatus status = execute("check", email);
 
-        int currentAttempts = attempts != null ? attempts.intValue() : 0;
-        log.debug("Tentativa de login registrada: {} (total: {})", email, currentAttempts);
+        if (status.blocked()) {
+            log.warn("Usuário bloqueado: {} (restam {}s)", email, status.blockSecondsRemaining());
+            RateLimitMetrics.blocked("login-email");
+        }
 
-        return currentAttempts;
+        return status;
     }
 
-    public boolean checkAndBlock(String email) {
-        int attempts = recordAttempt(email);
+    public LoginAttemptStatus recordFailure(String email) {
+        LoginAttemptStatus status = execute("fail", email);
 
-        if (attempts >= MAX_LOGIN_ATTEMPTS) {
-            blockUser(email);
-            log.warn("Usuário bloqueado por excesso de tentativas: {} ({} tentativas)",
-                    email, attempts);
-            return true;
+        if (status.blocked()) {
+            log.warn("Usuário bloqueado por excesso de tentativas: {} (por {}s)",
+                    email, status.blockSecondsRemaining());
+        } else {
+            log.debug("Tentativa de login registrada: {} (restantes: {})", email, status.remainingAttempts());
         }
 
-        return false;
-    }
-
-    public void blockUser(String email) {
-        String blockKey = "blocked:" + email;
-        redisService.set(blockKey, true, BLOCK_DURATION_SECONDS);
-        log.info("Usuário bloqueado: {} por {}s", email, BLOCK_DURATION_SECONDS);
+        return status;
     }
 
     public void unblockUser(String email) {
@@ -72,24 +66,27 @@ public class RateLimitService {
         log.debug("Tentativas resetadas para: {}", email);
     }
 
-    public int getRemainingAttempts(String email) {
-        String attemptKey = "ratelimit:" + email;
-        Object value = redisService.get(attemptKey);
-
-        if (value == null) {
-            return MAX_LOGIN_ATTEMPTS;
+    private LoginAttemptStatus execute(String mode, String email) {
+        List<?> result = redisService.executeScript(
+                LOGIN_RATE_LIMIT_SCRIPT,
+                List.of("ratelimit:" + email, "blocked:" + email),
+                mode,
+                MAX_LOGIN_ATTEMPTS,
+                ATTEMPT_WINDOW_SECONDS,
+                BLOCK_DURATION_SECONDS
+        );
+        if (result == null && redisService.isFailClosed("ratelimit:" + email)) {
+            // Sem contador não há como limitar tentativas: com a política "fail closed" o login espera o Redis
+            return new LoginAttemptStatus(true, 0, redisService.circuitRetryAfterSeconds("ratelimit"));
         }
-
-        int currentAttempts = value instanceof Number
-                ? ((Number) value).intValue()
-                : 0;
-
-        return Math.max(0, MAX_LOGIN_ATTEMPTS - currentAttempts);
+        return LoginAttemptStatus.fromScriptResult(result, MAX_LOGIN_ATTEMPTS);
     }
 
-    public long getBlockTimeRemaining(String email) {
-        String blockKey = "blocked:" + email;
-        long ttl = redisService.getTTL(blockKey);
-        return ttl > 0 ? ttl : 0;
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> loadScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/login_rate_limit.lua")));
+        script.setResultType(List.class);
+        return script;
     }
 }
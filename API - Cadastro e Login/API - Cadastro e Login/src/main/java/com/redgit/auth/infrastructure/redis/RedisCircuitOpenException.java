@@ -0,0 +1,9 @@
+package com.redgit.auth.infrastructure.redis;
+
+// Comando recusado sem ir ao Redis porque o circuito da família está aberto
+public class RedisCircuitOpenException extends RuntimeException {
+
+    public RedisCircuitOpenException(String op, String family) {
+        super("Circuito do Redis aberto (" + family + "): " + op + " recusado");
+    }
+}
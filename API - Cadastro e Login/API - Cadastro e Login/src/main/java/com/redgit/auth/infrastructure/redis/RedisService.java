@@ -1,11 +1,19 @@
 package com.redgit.auth.infrastructure.redis;
 
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -13,37 +21,39 @@ import java.util.concurrent.TimeUnit;
 public class RedisService {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
 
     private static final String KEY_PREFIX = "auth:";
 
     public void set(String key, Object value, long ttlSeconds) {
         try {
             String fullKey = KEY_PREFIX + key;
-            redisTemplate.opsForValue().set(fullKey, value, ttlSeconds, TimeUnit.SECONDS);
+            timed("set", key,
+                    () -> redisTemplate.opsForValue().set(fullKey, value, ttlSeconds, TimeUnit.SECONDS));
             log.debug("Redis SET: {} (TTL: {}s)", fullKey, ttlSeconds);
         } catch (Exception e) {
-            log.error("Erro ao salvar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao salvar no Redis", key, e);
         }
     }
 
     public void set(String key, Object value) {
         try {
             String fullKey = KEY_PREFIX + key;
-            redisTemplate.opsForValue().set(fullKey, value);
+            timed("set", key, () -> redisTemplate.opsForValue().set(fullKey, value));
             log.debug("Redis SET (sem TTL): {}", fullKey);
         } catch (Exception e) {
-            log.error("Erro ao salvar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao salvar no Redis", key, e);
         }
     }
 
     public Object get(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Object value = redisTemplate.opsForValue().get(fullKey);
+            Object value = timed("get", key, () -> redisTemplate.opsForValue().get(fullKey));
             log.debug("Redis GET: {} = {}", fullKey, value != null ? "HIT" : "MISS");
             return value;
         } catch (Exception e) {
-            log.error("Erro ao buscar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao buscar no Redis", key, e);
             return null;
         }
     }
@@ -60,11 +70,11 @@ public class RedisService {
     public boolean delete(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Boolean deleted = redisTemplate.delete(fullKey);
+            Boolean deleted = timed("delete", key, () -> redisTemplate.delete(fullKey));
             log.debug("Redis DELETE: {} = {}", fullKey, deleted);
             return Boolean.TRUE.equals(deleted);
         } catch (Exception e) {
-            log.error("Erro ao deletar do Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao deletar do Redis", key, e);
             return false;
         }
     }
@@ -72,22 +82,22 @@ public class RedisService {
     public boolean exists(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Boolean exists = redisTemplate.hasKey(fullKey);
+            Boolean exists = timed("exists", key, () -> redisTemplate.hasKey(fullKey));
             return Boolean.TRUE.equals(exists);
         } catch (Exception e) {
-            log.error("Erro ao verificar existência no Redis: key={}, error={}", key, e.getMessage());
-            return false;
+            logFailure("Erro ao verificar existência no Redis", key, e);
+            return isFailClosed(key);
         }
     }
 
     public boolean expire(String key, long ttlSeconds) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Boolean result = redisTemplate.expire(fullKey, ttlSeconds, TimeUnit.SECONDS);
+            Boolean result = timed("expire", key, () -> redisTemplate.expire(fullKey, ttlSeconds, TimeUnit.SECONDS));
             log.debug("Redis EXPIRE: {} = {}s", fullKey, ttlSeconds);
             return Boolean.TRUE.equals(result);
         } catch (Exception e) {
-            log.error("Erro ao definir expiração no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao definir expiração no Redis", key, e);
             return false;
         }
     }
@@ -95,10 +105,10 @@ public class RedisService {
     public long getTTL(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Long ttl = redisTemplate.getExpire(fullKey, TimeUnit.SECONDS);
+            Long ttl = timed("ttl", key, () -> redisTemplate.getExpire(fullKey, TimeUnit.SECONDS));
             return ttl != null ? ttl : -2;
         } catch (Exception e) {
-            log.error("Erro ao obter TTL do Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao obter TTL do Redis", key, e);
             return -2;
         }
     }
@@ -106,29 +116,111 @@ public class RedisService {
     public Long increment(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Long value = redisTemplate.opsForValue().increment(fullKey);
+            Long value = timed("incr", key, () -> redisTemplate.opsForValue().increment(fullKey));
             log.debug("Redis INCREMENT: {} = {}", fullKey, value);
             return value;
         } catch (Exception e) {
-            log.error("Erro ao incrementar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao incrementar no Redis", key, e);
             return null;
         }
     }
 
-    public Long incrementWithTTL(String key, long ttlSeconds) {
+    public boolean zAdd(String key, Object value, double score) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Long value = redisTemplate.opsForValue().increment(fullKey);
+            Boolean added = timed("zadd", key, () -> redisTemplate.opsForZSet().add(fullKey, value, score));
+            log.debug("Redis ZADD: {} (score: {})", fullKey, score);
+            return Boolean.TRUE.equals(added);
+        } catch (Exception e) {
+            logFailure("Erro ao adicionar no sorted set do Redis", key, e);
+            return false;
+        }
+    }
 
-            if (value != null && value == 1) {
-                redisTemplate.expire(fullKey, ttlSeconds, TimeUnit.SECONDS);
-            }
+    public long zRemoveRangeByScore(String key, double min, double max) {
+        try {
+            String fullKey = KEY_PREFIX + key;
+            Long removed = timed("zremrangebyscore", key,
+                    () -> redisTemplate.opsForZSet().removeRangeByScore(fullKey, min, max));
+            log.debug("Redis ZREMRANGEBYSCORE: {} = {}", fullKey, removed);
+            return removed != null ? removed : 0;
+        } catch (Exception e) {
+            logFailure("Erro ao remover do sorted set do Redis", key, e);
+            return 0;
+        }
+    }
 
-            log.debug("Redis INCREMENT (TTL: {}s): {} = {}", ttlSeconds, fullKey, value);
-            return value;
+    // Retorna null em caso de erro (diferente de um conjunto vazio)
+    public Set<ZSetOperations.TypedTuple<Object>> zRangeByScoreWithScores(String key, double min, double max) {
+        try {
+            String fullKey = KEY_PREFIX + key;
+            Set<ZSetOperations.TypedTuple<Object>> result =
+                    timed("zrangebyscore", key,
+                            () -> redisTemplate.opsForZSet().rangeByScoreWithScores(fullKey, min, max));
+            log.debug("Redis ZRANGEBYSCORE: {} = {} itens", fullKey, result != null ? result.size() : 0);
+            return result != null ? result : Set.of();
+        } catch (Exception e) {
+            logFailure("Erro ao ler sorted set do Redis", key, e);
+            return null;
+        }
+    }
+
+    // Chaves recebem o prefixo; argumentos vão como texto puro (não JSON) para o script.
+    // O Spring tenta EVALSHA e só envia o corpo do script na primeira vez (NOSCRIPT).
+    @SuppressWarnings("unchecked")
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, Object... args) {
+        try {
+            List<String> fullKeys = keys.stream().map(key -> KEY_PREFIX + key).toList();
+            Object[] stringArgs = Arrays.stream(args).map(String::valueOf).toArray();
+            RedisSerializer<String> stringSerializer = redisTemplate.getStringSerializer();
+
+            return timed("script", keys.isEmpty() ? "" : keys.get(0),
+                    () -> redisTemplate.execute(
+                            script,
+                            stringSerializer,
+                            (RedisSerializer<T>) stringSerializer,
+                            fullKeys,
+                            stringArgs
+                    ));
         } catch (Exception e) {
-            log.error("Erro ao incrementar com TTL no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao executar script no Redis", keys, e);
             return null;
         }
     }
+
+    // Com o circuito da família aberto quem chama degrada explicitamente (validação local, sem cache)
+    public boolean isCircuitOpen(String family) {
+        return circuitBreaker.isOpen(family);
+    }
+
+    // Sem resposta do Redis, exists() responde true para as famílias configuradas como "fail closed"
+    public boolean isFailClosed(String key) {
+        return circuitBreaker.isFailClosed(key);
+    }
+
+    public long circuitRetryAfterSeconds(String family) {
+        return circuitBreaker.retryAfterSeconds(family);
+    }
+
+    // Cronometra só o comando e alimenta o circuit breaker; falhas seguem para o tratamento de cada método
+    private <T> T timed(String op, String key, Supplier<T> command) {
+        String family = RedisCommandMetrics.family(key);
+        return circuitBreaker.execute(op, family, () -> RedisCommandMetrics.record(op, family, command));
+    }
+
+    private void timed(String op, String key, Runnable command) {
+        timed(op, key, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    // Circuito aberto é falha esperada: sem log de erro a cada chamada recusada
+    private void logFailure(String message, Object key, Exception e) {
+        if (e instanceof RedisCircuitOpenException) {
+            log.debug("{}: key={}, circuito aberto", message, key);
+            return;
+        }
+        log.error("{}: key={}, error={}", message, key, e.getMessage());
+    }
 }
@@ -0,0 +1,312 @@
+package com.redgit.auth.infrastructure.redis;
+
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.repository.UserTokenVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Cópia local dos tokens revogados (fingerprint -> exp), sincronizada do Redis
+// a partir do sorted set "auth:revoked" (score = exp em epoch seconds).
+// Cada revogação também é publicada no stream compartilhado "redgit:revocations",
+// replicado pelas APIs de Profile e Ideias, junto com a tokenVersion mínima de cada
+// usuário bloqueado, desativado, removido ou com role alterada. Uma publicação de
+// tokenVersion que falha não se perde: quem mudou desde então é relido do banco
+// (updated_at) e republicado, e a instância que sobe republica a vida de um token.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationStore {
+
+    private static final String REVOKED_KEY = "revoked";
+    public static final String FEED_KEY = "redgit:revocations";
+    private static final String FEED_FAMILY = "revocations";
+    private static final int PUBLISH_BATCH = 1000;
+    // updated_at é gravado antes do commit (o UPDATE em massa usa o "now" do início do bloco)
+    private static final Duration RESCAN_MARGIN = Duration.ofMinutes(1);
+
+    private static final Counter PUBLISH_FAILURES = Counter.builder("revocation.publish.failures")
+            .description("Publicações de tokenVersion no stream que falharam e serão refeitas")
+            .register(Metrics.globalRegistry);
+
+    private final RedisService redisService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Maior vida possível de um token: entradas mais antigas que isso já estão expiradas
+    @Value("${security.jwt.revocation.feed-retention-seconds:86400}")
+    private long feedRetentionSeconds = 86400;
+
+    @Value("${security.jwt.revocation.max-staleness-ms:15000}")
+    private long maxStalenessMillis = 15000;
+
+    // Vida máxima de um token: o que uma instância que caiu não publicou ainda pode estar em uso
+    @Value("${security.jwt.revocation.startup-rescan-seconds:7200}")
+    private long startupRescanSeconds = 7200;
+
+    private volatile Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile long lastSyncMillis = 0;
+
+    // Usuários alterados a partir deste instante são republicados (null = nada pendente)
+    private final AtomicReference<LocalDateTime> rescanFrom = new AtomicReference<>();
+    // Usuários removidos não têm linha para reler: ficam aqui até a publicação dar certo
+    private final Map<UUID, Integer> unpublishedRemovals = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void scheduleStartupRescan() {
+        rescanFrom.set(LocalDateTime.now().minusSeconds(startupRescanSeconds));
+        Gauge.builder("revocation.publish.pending", this,
+                        store -> store.rescanFrom.get() != null || !store.unpublishedRemovals.isEmpty() ? 1 : 0)
+                .description("1 enquanto há tokenVersion aguardando republicação")
+                .register(Metrics.globalRegistry);
+    }
+
+    public void revoke(String fingerprint, long expiresAtEpochSecond) {
+        revoked.put(fingerprint, expiresAtEpochSecond);
+        redisService.zAdd(REVOKED_KEY, fingerprint, expiresAtEpochSecond);
+        publish(fingerprint, expiresAtEpochSecond);
+    }
+
+    // Tokens do usuário com "ver" menor que minVersion deixam de valer nas demais APIs.
+    // Publicado só depois do commit: antes disso a nova versão pode ser desfeita.
+    public void revokeUserTokens(UUID userId, int minVersion) {
+        revokeUserTokens(Map.of(userId, minVersion));
+    }
+
+    // Uma sincronização e um pipeline por lote, não um XADD por usuário
+    public void revokeUserTokens(Map<UUID, Integer> minVersions) {
+        if (minVersions.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> versions = Map.copyOf(minVersions);
+        LocalDateTime changedAt = LocalDateTime.now();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishUserVersions(versions, changedAt);
+                }
+            });
+        } else {
+            publishUserVersions(versions, changedAt);
+        }
+    }
+
+    public boolean isRevoked(String fingerprint) {
+        Long expiresAt = revoked.get(fingerprint);
+        return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
+    }
+
+    // A cópia local só é confiável se a última sincronização for recente
+    public boolean isFresh() {
+        return System.currentTimeMillis() - lastSyncMillis <= maxStalenessMillis;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        long now = Instant.now().getEpochSecond();
+
+        redisService.zRemoveRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+        Set<ZSetOperations.TypedTuple<Object>> entries =
+                redisService.zRangeByScoreWithScores(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+
+        if (entries == null) {
+            log.warn("Falha ao sincronizar tokens revogados; usando Redis diretamente até a próxima sincronização");
+            return;
+        }
+
+        Map<String, Long> snapshot = new ConcurrentHashMap<>();
+        for (ZSetOperations.TypedTuple<Object> entry : entries) {
+            if (entry.getValue() != null && entry.getScore() != null) {
+                snapshot.put(entry.getValue().toString(), entry.getScore().longValue());
+            }
+        }
+
+        // Revogações locais feitas durante a leitura não podem se perder
+        revoked.forEach((fingerprint, expiresAt) -> {
+            if (expiresAt > now) {
+                snapshot.putIfAbsent(fingerprint, expiresAt);
+            }
+        });
+
+        revoked = snapshot;
+        lastSyncMillis = System.currentTimeMillis();
+        log.debug("Tokens revogados sincronizados: {}", snapshot.size());
+    }
+
+    // O stream é limitado por idade (XTRIM MINID), não por tamanho: uma réplica atrasada
+    // precisa encontrar toda revogação de token ainda válido, por mais revogações que haja.
+    // O id da entrada começa pelo instante da publicação em ms.
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.feed-trim-interval-ms:60000}")
+    public void trimFeed() {
+        String minId = (System.currentTimeMillis() - feedRetentionSeconds * 1000) + "-0";
+        try {
+            circuitBreaker.execute("xtrim", FEED_FAMILY, () -> RedisCommandMetrics.record("xtrim", FEED_FAMILY,
+                    () -> stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.execute(
+                            "XTRIM",
+                            FEED_KEY.getBytes(StandardCharsets.UTF_8),
+                            "MINID".getBytes(StandardCharsets.UTF_8),
+                            "~".getBytes(StandardCharsets.UTF_8),
+                            minId.getBytes(StandardCharsets.UTF_8)
+                    ))));
+        } catch (Exception e) {
+            log.error("Erro ao limitar o stream de revogações: {}", e.getMessage());
+        }
+    }
+
+    // Refaz as publicações de tokenVersion que falharam, relendo do banco quem mudou desde então
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.republish-interval-ms:10000}")
+    public void republishPending() {
+        if (circuitBreaker.isOpen(FEED_FAMILY)) {
+            return;
+        }
+
+        if (!unpublishedRemovals.isEmpty()) {
+            Map<UUID, Integer> removals = new HashMap<>(unpublishedRemovals);
+            try {
+                sendUserVersions(removals);
+                removals.forEach(unpublishedRemovals::remove);
+            } catch (Exception e) {
+                log.warn("Republicação de usuários removidos falhou: {}", e.getMessage());
+                return;
+            }
+        }
+
+        LocalDateTime since = rescanFrom.get();
+        if (since == null) {
+            return;
+        }
+        try {
+            long republished = 0;
+            UUID afterId = null;
+            List<UserTokenVersion> chunk;
+            do {
+                UUID cursor = afterId;
+                // Lê do primário: a réplica pode ainda não ter a alteração que falhou
+                chunk = transactionTemplate.execute(status ->
+                        userRepository.findTokenVersionsUpdatedSince(since, cursor, Limit.of(PUBLISH_BATCH)));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                Map<UUID, Integer> versions = new HashMap<>();
+                chunk.forEach(version -> versions.put(version.getId(), version.getTokenVersion()));
+                sendUserVersions(versions);
+                republished += versions.size();
+                afterId = chunk.get(chunk.size() - 1).getId();
+            } while (chunk.size() == PUBLISH_BATCH);
+
+            // Uma falha nova durante a releitura recua o instante e mantém a pendência
+            if (rescanFrom.compareAndSet(since, null)) {
+                log.info("tokenVersion republicada para {} usuários alterados desde {}", republished, since);
+            }
+        } catch (Exception e) {
+            log.warn("Republicação de tokenVersion falhou; nova tentativa em seguida: {}", e.getMessage());
+        }
+    }
+
+    private void publish(String fingerprint, long expiresAtEpochSecond) {
+        try {
+            circuitBreaker.execute("xadd", FEED_FAMILY, () -> RedisCommandMetrics.record("xadd", FEED_FAMILY,
+                    () -> stringRedisTemplate.opsForStream().add(
+                            StreamRecords.string(Map.of(
+                                    "fp", fingerprint,
+                                    "exp", String.valueOf(expiresAtEpochSecond)
+                            )).withStreamKey(FEED_KEY)
+                    )));
+        } catch (Exception e) {
+            log.error("Erro ao publicar revogação no stream: {}", e.getMessage());
+        }
+    }
+
+    private void publishUserVersions(Map<UUID, Integer> versions, LocalDateTime changedAt) {
+        try {
+            sendUserVersions(versions);
+        } catch (Exception e) {
+            PUBLISH_FAILURES.increment();
+            versions.forEach((userId, version) -> {
+                if (version == Integer.MAX_VALUE) {
+                    unpublishedRemovals.put(userId, version);
+                }
+            });
+            LocalDateTime from = changedAt.minus(RESCAN_MARGIN);
+            rescanFrom.accumulateAndGet(from, (current, candidate) ->
+                    current == null || candidate.isBefore(current) ? candidate : current);
+            log.error("Erro ao publicar tokenVersion de {} usuários no stream; republicação agendada: {}",
+                    versions.size(), e.getMessage());
+        }
+    }
+
+    // Entradas {uid, ver, exp} em pipelines de até PUBLISH_BATCH, pelo circuit breaker.
+    // Valem pelo mesmo período do stream, que cobre a maior vida possível de um token.
+    private void sendUserVersions(Map<UUID, Integer> versions) {
+        byte[] feedKey = FEED_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] expiresAt = String.valueOf(Instant.now().getEpochSecond() + feedRetentionSeconds)
+                .getBytes(StandardCharsets.UTF_8);
+
+        List<MapRecord<byte[], byte[], byte[]>> records = new ArrayList<>(versions.size());
+        versions.forEach((userId, version) -> records.add(StreamRecords.newRecord().in(feedKey).ofMap(Map.of(
+                "uid".getBytes(StandardCharsets.UTF_8), userId.toString().getBytes(StandardCharsets.UTF_8),
+                "ver".getBytes(StandardCharsets.UTF_8), String.valueOf(version).getBytes(StandardCharsets.UTF_8),
+                "exp".getBytes(StandardCharsets.UTF_8), expiresAt
+        ))));
+
+        for (int from = 0; from < records.size(); from += PUBLISH_BATCH) {
+            List<MapRecord<byte[], byte[], byte[]>> batch =
+                    records.subList(from, Math.min(from + PUBLISH_BATCH, records.size()));
+            circuitBreaker.execute("xadd", FEED_FAMILY, () -> RedisCommandMetrics.record("xadd", FEED_FAMILY,
+                    () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        batch.forEach(record -> connection.streamCommands().xAdd(record));
+                        return null;
+                    })));
+        }
+    }
+
+    public static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.redgit.auth.infrastructure.repository;
+
+import com.redgit.auth.infrastructure.entity.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record UserExportRow(
+        UUID id,
+        String name,
+        String email,
+        UserRole role,
+        boolean enabled,
+        boolean accountNonLocked,
+        LocalDateTime createdAt
+) { }
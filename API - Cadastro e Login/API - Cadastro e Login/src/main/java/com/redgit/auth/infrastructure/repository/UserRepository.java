@@ -2,17 +2,139 @@ package com.redgit.auth.infrastructure.repository;
 
 import com.redgit.auth.infrastructure.entity.User;
 import com.redgit.auth.infrastructure.entity.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, UUID>, UserRepositoryCustom {
 
-    List<User> findByRole(UserRole role);
-    List<User> findByEnabled(boolean enabled);
-    List<User> findByAccountNonLocked(boolean locked);
-}
\ No newline at end of file
+    // Keyset: a página seguinte começa logo após (createdAt, id) do último item,
+    // então o custo não depende da profundidade. Filtros nulos são ignorados.
+    @Query("SELECT u FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:enabled IS NULL OR u.enabled = :enabled) " +
+            "AND (:accountNonLocked IS NULL OR u.accountNonLocked = :accountNonLocked) " +
+            "AND (:afterCreatedAt IS NULL OR u.createdAt > :afterCreatedAt " +
+            "OR (u.createdAt = :afterCreatedAt AND u.id > :afterId)) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    List<User> findPageAfter(@Param("role") UserRole role,
+                             @Param("enabled") Boolean enabled,
+                             @Param("accountNonLocked") Boolean accountNonLocked,
+                             @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                             @Param("afterId") UUID afterId,
+                             Limit limit);
+
+    // Projeção (não gerenciada) lida de um ResultSet forward-only em streaming:
+    // fetch size Integer.MIN_VALUE faz o driver do MySQL entregar linha a linha.
+    // Precisa ser consumido dentro de uma transação e fechado ao final.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.redgit.auth.infrastructure.repository.UserExportRow(" +
+            "u.id, u.name, u.email, u.role, u.enabled, u.accountNonLocked, u.createdAt) " +
+            "FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:enabled IS NULL OR u.enabled = :enabled) " +
+            "AND (:accountNonLocked IS NULL OR u.accountNonLocked = :accountNonLocked) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    Stream<UserExportRow> streamForExport(@Param("role") UserRole role,
+                                          @Param("enabled") Boolean enabled,
+                                          @Param("accountNonLocked") Boolean accountNonLocked);
+
+    @Query("SELECT COUNT(u) FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:enabled IS NULL OR u.enabled = :enabled) " +
+            "AND (:accountNonLocked IS NULL OR u.accountNonLocked = :accountNonLocked)")
+    long countFiltered(@Param("role") UserRole role,
+                       @Param("enabled") Boolean enabled,
+                       @Param("accountNonLocked") Boolean accountNonLocked);
+
+    // Operações em massa da administração: ids percorridos em ordem (keyset) quando
+    // o alvo é um filtro, e cada bloco atualizado com um único UPDATE ... WHERE id IN.
+    @Query("SELECT u.id FROM User u " +
+            "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:enabled IS NULL OR u.enabled = :enabled) " +
+            "AND (:accountNonLocked IS NULL OR u.accountNonLocked = :accountNonLocked) " +
+            "AND (:afterId IS NULL OR u.id > :afterId) " +
+            "ORDER BY u.id ASC")
+    List<UUID> findIdsAfter(@Param("role") UserRole role,
+                            @Param("enabled") Boolean enabled,
+                            @Param("accountNonLocked") Boolean accountNonLocked,
+                            @Param("afterId") UUID afterId,
+                            Limit limit);
+
+    @Query("SELECT u.email FROM User u WHERE u.id IN :ids")
+    List<String> findEmailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Versões após um UPDATE em massa, publicadas para as demais APIs
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u WHERE u.id IN :ids")
+    List<UserTokenVersion> findTokenVersionsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Republica as versões de quem mudou desde um instante, quando a publicação após o
+    // commit falhou; percorre por id (keyset) sobre o índice de updated_at
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u " +
+            "WHERE u.updatedAt >= :since AND u.tokenVersion > 0 " +
+            "AND (:afterId IS NULL OR u.id > :afterId) " +
+            "ORDER BY u.id ASC")
+    List<UserTokenVersion> findTokenVersionsUpdatedSince(@Param("since") LocalDateTime since,
+                                                         @Param("afterId") UUID afterId,
+                                                         Limit limit);
+
+    // ADMIN nunca é bloqueado nem desativado; tokenVersion invalida os tokens já emitidos
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.accountNonLocked = false, u.tokenVersion = u.tokenVersion + 1, u.updatedAt = :now " +
+            "WHERE u.id IN :ids AND u.accountNonLocked = true " +
+            "AND u.role <> com.redgit.auth.infrastructure.entity.UserRole.ADMIN")
+    int lockByIds(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.accountNonLocked = true, u.updatedAt = :now " +
+            "WHERE u.id IN :ids AND u.accountNonLocked = false")
+    int unlockByIds(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.enabled = false, u.tokenVersion = u.tokenVersion + 1, u.updatedAt = :now " +
+            "WHERE u.id IN :ids AND u.enabled = true " +
+            "AND u.role <> com.redgit.auth.infrastructure.entity.UserRole.ADMIN")
+    int disableByIds(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.enabled = true, u.updatedAt = :now " +
+            "WHERE u.id IN :ids AND u.enabled = false")
+    int enableByIds(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    // excludedId: o próprio ADMIN que executa, que não pode alterar a própria role
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.role = :role, u.tokenVersion = u.tokenVersion + 1, u.updatedAt = :now " +
+            "WHERE u.id IN :ids AND u.role <> :role " +
+            "AND (:excludedId IS NULL OR u.id <> :excludedId)")
+    int changeRoleByIds(@Param("ids") Collection<UUID> ids,
+                        @Param("role") UserRole role,
+                        @Param("excludedId") UUID excludedId,
+                        @Param("now") LocalDateTime now);
+
+    // Checagem de duplicados em lote (uma consulta por bloco da importação)
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    long countByRole(UserRole role);
+
+    @Query("SELECT u.role AS role, u.enabled AS enabled, u.accountNonLocked AS accountNonLocked, COUNT(u) AS total " +
+            "FROM User u GROUP BY u.role, u.enabled, u.accountNonLocked")
+    List<UserStatusCount> countGroupedByStatus();
+}
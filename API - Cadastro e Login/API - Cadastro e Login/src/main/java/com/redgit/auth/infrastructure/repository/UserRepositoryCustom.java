@@ -0,0 +1,9 @@
+package com.redgit.auth.infrastructure.repository;
+
+import com.redgit.auth.infrastructure.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByEmail(String email);
+}
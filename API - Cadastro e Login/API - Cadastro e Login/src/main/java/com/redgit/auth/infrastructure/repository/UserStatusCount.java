@@ -0,0 +1,11 @@
+package com.redgit.auth.infrastructure.repository;
+
+import com.redgit.auth.infrastructure.entity.UserRole;
+
+// Projeção do GROUP BY (role, enabled, accountNonLocked) usado nas estatísticas
+public interface UserStatusCount {
+    UserRole getRole();
+    Boolean getEnabled();
+    Boolean getAccountNonLocked();
+    long getTotal();
+}
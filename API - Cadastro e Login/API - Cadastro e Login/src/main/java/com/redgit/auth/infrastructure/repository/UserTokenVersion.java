@@ -0,0 +1,9 @@
+package com.redgit.auth.infrastructure.repository;
+
+import java.util.UUID;
+
+// Projeção (id, tokenVersion) lida depois das operações em massa
+public interface UserTokenVersion {
+    UUID getId();
+    int getTokenVersion();
+}
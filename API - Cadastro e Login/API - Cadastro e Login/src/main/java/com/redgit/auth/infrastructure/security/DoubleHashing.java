@@ -0,0 +1,31 @@
+package com.redgit.auth.infrastructure.security;
+
+// Hash das estruturas probabilísticas (Bloom filter, Count-Min Sketch): dois hashes
+// de 64 bits por valor e a i-ésima posição derivada deles (h1 + i * h2).
+public final class DoubleHashing {
+
+    public static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    public static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private DoubleHashing() {
+    }
+
+    public static long index(long hash1, long hash2, int i, long size) {
+        return Math.floorMod(hash1 + i * hash2, size);
+    }
+
+    // FNV-1a seguido do fmix64 do MurmurHash3
+    public static long hash(String value, long seed) {
+        long h = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,138 @@
+package com.redgit.auth.infrastructure.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Monta o PasswordEncoder com o custo escolhido por medição na subida da aplicação:
+// o parâmetro de trabalho do algoritmo configurado é ajustado até o hash levar
+// aproximadamente o tempo alvo neste hardware, nunca abaixo dos mínimos abaixo.
+// Só BCrypt e Argon2 são calibrados, porque gravam o custo no próprio hash; o PBKDF2
+// do Spring não grava as iterações, que por isso vêm fixas da configuração.
+// Hashes antigos sem prefixo "{id}" são BCrypt e continuam válidos.
+@Slf4j
+public final class PasswordEncoderCalibrator {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+    public static final String ARGON2 = "argon2";
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    static final int MIN_PBKDF2_ITERATIONS = 310_000;
+    static final int MIN_ARGON2_ITERATIONS = 2;
+    static final int ARGON2_MEMORY_KIB = 19_456;
+
+    // $2a$10$ + 22 caracteres de salt + 31 de hash
+    private static final String BCRYPT_HASH = "\\$2[aby]?\\$(0[4-9]|[12]\\d|3[01])\\$[./A-Za-z0-9]{53}";
+
+    // $argon2id$v=19$m=...,t=...,p=...$salt$hash, em Base64 sem padding
+    private static final String ARGON2_HASH =
+            "\\$argon2(id|i|d)\\$v=\\d+\\$m=\\d+,t=\\d+,p=\\d+\\$[A-Za-z0-9+/]+\\$[A-Za-z0-9+/]+";
+
+    private static final Pattern IMPORTABLE_HASH = Pattern.compile(
+            "(\\{" + BCRYPT + "})?" + BCRYPT_HASH + "|\\{" + ARGON2 + "}" + ARGON2_HASH);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    private PasswordEncoderCalibrator() {
+    }
+
+    // Hash pronto que o encoder consegue verificar (usado na importação): BCrypt, com ou sem
+    // prefixo, ou {argon2}, ambos no formato completo. {pbkdf2} fica de fora: sem as iterações
+    // no hash, um hash de outro sistema só conferiria por coincidência de configuração.
+    public static boolean isSupportedHash(String encodedPassword) {
+        return encodedPassword != null && IMPORTABLE_HASH.matcher(encodedPassword).matches();
+    }
+
+    // pbkdf2Iterations precisa ser o mesmo em todas as instâncias e nunca mudar depois que
+    // houver hashes {pbkdf2}: com outro valor eles deixam de conferir
+    public static PasswordEncoder build(String algorithm, long targetHashMillis, boolean calibrate, int pbkdf2Iterations) {
+        String idForEncode = algorithm == null ? BCRYPT : algorithm.trim().toLowerCase();
+
+        if (pbkdf2Iterations < MIN_PBKDF2_ITERATIONS) {
+            throw new IllegalArgumentException(
+                    "Iterações do PBKDF2 abaixo do mínimo de " + MIN_PBKDF2_ITERATIONS + ": " + pbkdf2Iterations);
+        }
+
+        int bcryptStrength = MIN_BCRYPT_STRENGTH;
+        int argon2Iterations = MIN_ARGON2_ITERATIONS;
+
+        if (calibrate) {
+            switch (idForEncode) {
+                case BCRYPT -> bcryptStrength = calibrateBcrypt(targetHashMillis);
+                case PBKDF2 -> log.info("PBKDF2 não é calibrado: usando {} iterações da configuração", pbkdf2Iterations);
+                case ARGON2 -> argon2Iterations = calibrateLinear(argon2(MIN_ARGON2_ITERATIONS), MIN_ARGON2_ITERATIONS, targetHashMillis);
+                default -> throw new IllegalArgumentException("Algoritmo de senha não suportado: " + algorithm);
+            }
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(PBKDF2, pbkdf2(pbkdf2Iterations));
+        encoders.put(ARGON2, argon2(argon2Iterations));
+
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalArgumentException("Algoritmo de senha não suportado: " + algorithm);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        log.info("PasswordEncoder: {} (bcrypt={}, pbkdf2={} iterações, argon2={} iterações)",
+                idForEncode, bcryptStrength, pbkdf2Iterations, argon2Iterations);
+        return encoder;
+    }
+
+    // Cada ponto de strength dobra o custo do BCrypt
+    private static int calibrateBcrypt(long targetHashMillis) {
+        double measured = measure(new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH));
+        int strength = MIN_BCRYPT_STRENGTH;
+        while (strength < MAX_BCRYPT_STRENGTH && measured * 2 <= targetHashMillis) {
+            measured *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    // Argon2 escala linearmente com o número de iterações
+    private static int calibrateLinear(PasswordEncoder baseline, int baseIterations, long targetHashMillis) {
+        double measured = measure(baseline);
+        if (measured <= 0) {
+            return baseIterations;
+        }
+        long scaled = (long) (baseIterations * (targetHashMillis / measured));
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(baseIterations, scaled));
+    }
+
+    // Menor tempo entre algumas execuções, após um aquecimento
+    private static double measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+
+    private static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    private static PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, ARGON2_MEMORY_KIB, iterations);
+    }
+}
@@ -0,0 +1,205 @@
+package com.redgit.auth.infrastructure.security;
+
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.metrics.CacheMetrics;
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+// Cache do usuário autenticado (email -> User) usado pelo SecurityFilter.
+// Invalidado pelo UserService em toda alteração de conta e, nas demais
+// instâncias, via pub/sub no canal "auth:principal-invalidation".
+// Guarda uma cópia imutável dos campos, nunca a entidade JPA: cada leitura
+// devolve um User novo, e alterar o principal de uma requisição não altera o cache.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache implements MessageListener {
+
+    public static final String CHANNEL = "auth:principal-invalidation";
+    private static final String CHANNEL_FAMILY = "principal-invalidation";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ReadYourWritesTracker readYourWrites;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    // Limita a janela de inconsistência caso uma mensagem de invalidação se perca
+    @Value("${security.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Geração por faixa de emails, incrementada a cada invalidação. Uma carga só entra
+    // no cache se a geração não mudou desde o início dela: a leitura concorrente que
+    // viu o estado anterior ao commit não recoloca esse estado depois da remoção.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private record Entry(Snapshot user, long expiresAtMillis) {}
+
+    private record Snapshot(UUID id, String name, String email, String password, UserRole role,
+                            boolean enabled, boolean accountNonLocked, int tokenVersion,
+                            LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        static Snapshot of(User user) {
+            return new Snapshot(user.getId(), user.getName(), user.getEmail(), user.getPassword(), user.getRole(),
+                    user.isEnabled(), user.isAccountNonLocked(), user.getTokenVersion(),
+                    user.getCreatedAt(), user.getUpdatedAt());
+        }
+
+        User toUser() {
+            return new User(id, name, email, password, role, enabled, accountNonLocked, tokenVersion,
+                    createdAt, updatedAt);
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public User get(String email, Function<String, User> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        boolean hit = entry != null && entry.expiresAtMillis() > now;
+        CacheMetrics.record("principal", hit);
+        if (hit) {
+            return entry.user().toUser();
+        }
+
+        int stripe = stripe(email);
+        long generation = generations.get(stripe);
+
+        // Recarga logo após uma invalidação lê do primário: a réplica ainda pode ter o estado antigo
+        User user = readYourWrites.readFresh(ReadYourWritesTracker.emailKey(email), () -> loader.apply(email));
+        if (user == null) {
+            return null;
+        }
+
+        Snapshot snapshot = Snapshot.of(user);
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        // compute trava a chave: a checagem da geração e a escrita não intercalam com evictAndMark
+        entries.compute(email, (key, current) -> generations.get(stripe) == generation
+                ? new Entry(snapshot, now + ttlSeconds * 1000)
+                : current);
+        return snapshot.toUser();
+    }
+
+    // Remove já e de novo após o commit, para que uma leitura concorrente
+    // não recoloque no cache o estado anterior à transação
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        evictAndMark(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndMark(email);
+                    broadcast(email);
+                }
+            });
+        } else {
+            broadcast(email);
+        }
+    }
+
+    // Operações em massa: uma única mensagem com todos os emails (um por linha)
+    public void invalidateAll(Collection<String> emails) {
+        if (emails == null || emails.isEmpty()) {
+            return;
+        }
+        List<String> batch = List.copyOf(emails);
+        batch.forEach(this::evictAndMark);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    batch.forEach(PrincipalCache.this::evictAndMark);
+                    broadcast(String.join("\n", batch));
+                }
+            });
+        } else {
+            broadcast(String.join("\n", batch));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String email : body.split("\n")) {
+            evictAndMark(email);
+        }
+        log.debug("Principal invalidado por outra instância: {}", body);
+    }
+
+    private void evictAndMark(String email) {
+        entries.compute(email, (key, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+        readYourWrites.markLocal(ReadYourWritesTracker.emailKey(email));
+    }
+
+    private static int stripe(String email) {
+        return (email.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    private void broadcast(String emails) {
+        try {
+            circuitBreaker.execute("publish", CHANNEL_FAMILY, () -> RedisCommandMetrics.record("publish", CHANNEL_FAMILY,
+                    () -> stringRedisTemplate.convertAndSend(CHANNEL, emails)));
+        } catch (Exception e) {
+            log.error("Erro ao publicar invalidação do principal: {}", e.getMessage());
+        }
+    }
+
+    private void evict(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().expiresAtMillis() <= now);
+
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
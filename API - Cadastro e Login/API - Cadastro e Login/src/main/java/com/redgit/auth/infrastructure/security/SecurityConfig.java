@@ -1,7 +1,10 @@
 package com.redgit.auth.infrastructure.security;
 
+import com.redgit.auth.infrastructure.ratelimit.RequestRateLimitFilter;
 import com.redgit.auth.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,7 +15,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -28,6 +30,9 @@ public class SecurityConfig {
     @Autowired
     SecurityFilter securityFilter;
 
+    @Autowired
+    RequestRateLimitFilter requestRateLimitFilter;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -35,11 +40,17 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
+                        // Continuação de respostas assíncronas (exportação em streaming):
+                        // a requisição já foi autorizada no dispatch original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Público
                         .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/auth/register").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/auth/register/admin").permitAll() // ⚠️ Apenas DEV
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        // Health e métricas para o Prometheus; /actuator não deve passar pelo gateway público
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
 
                         // Admin
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -47,13 +58,18 @@ public class SecurityConfig {
                         // Resto precisa autenticação
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(requestRateLimitFilter, SecurityFilter.class);
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password.target-hash-ms:250}") long targetHashMillis,
+            @Value("${security.password.calibrate:true}") boolean calibrate,
+            @Value("${security.password.pbkdf2.iterations:310000}") int pbkdf2Iterations) {
+        return PasswordEncoderCalibrator.build(algorithm, targetHashMillis, calibrate, pbkdf2Iterations);
     }
 
     @Bean
@@ -23,6 +23,8 @@ public class SecurityFilter extends OncePerRequestFilter {
     TokenService tokenService;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -30,8 +32,16 @@ public class SecurityFilter extends OncePerRequestFilter {
         var login = tokenService.validateToken(token);
 
         if(login != null){
-            User user = userRepository.findByEmail(login)
-                    .orElseThrow(() -> new RuntimeException("User Not Found"));
+            User user = principalCache.get(login, email -> userRepository.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User Not Found")));
+
+            // Conta bloqueada/desativada ou token emitido antes da última troca de versão
+            if (!user.isEnabled() || !user.isAccountNonLocked()
+                    || tokenService.getTokenVersion(token) < user.getTokenVersion()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
             var authentication = new UsernamePasswordAuthenticationToken(
                     user,
                     null,
@@ -0,0 +1,229 @@
+package com.redgit.auth.service;
+
+import com.redgit.auth.controllers.DTO.PasswordHashingStatsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Executa o hash/verificação de senha (BCrypt) num pool dedicado e limitado,
+// para que um pico de logins não ocupe as threads do Tomcat com trabalho de CPU.
+// Fila cheia = 503 imediato em vez de acumular requisições.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordHashingService {
+
+    // Tempo do hash em si (sem a fila), por operação e algoritmo
+    private static final Meter.MeterProvider<Timer> HASHING = Timer.builder("password.hashing")
+            .description("Tempo de hash/verificação de senha")
+            .withRegistry(Metrics.globalRegistry);
+
+    private static final Timer QUEUE_WAIT = Timer.builder("password.hashing.queue.wait")
+            .description("Espera na fila do pool de hash de senha")
+            .register(Metrics.globalRegistry);
+
+    private static final Meter.MeterProvider<Counter> REJECTED = Counter.builder("password.hashing.rejected")
+            .description("Hashes recusados com 503 por fila cheia ou tempo esgotado")
+            .withRegistry(Metrics.globalRegistry);
+
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${security.password.algorithm:bcrypt}")
+    private String algorithm = "bcrypt";
+
+    // 0 = número de núcleos menos um, deixando um núcleo livre para as demais rotas
+    @Value("${security.password.hashing.threads:0}")
+    private int threads = 0;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    @Value("${security.password.hashing.max-wait-ms:2000}")
+    private long maxWaitMillis = 2000;
+
+    // Importação em massa: pool separado, para não disputar a fila do login.
+    // 0 = metade dos núcleos, deixando folga para as requisições interativas
+    @Value("${security.password.hashing.bulk-threads:0}")
+    private int bulkThreads = 0;
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService bulkExecutor;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxObservedWaitMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger counter = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        log.info("Pool de hash de senha iniciado: {} threads, fila {}", poolSize, queueCapacity);
+
+        int bulkPoolSize = bulkThreads > 0 ? bulkThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger bulkCounter = new AtomicInteger();
+        bulkExecutor = Executors.newFixedThreadPool(bulkPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-bulk-" + bulkCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (bulkExecutor != null) {
+            bulkExecutor.shutdown();
+        }
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> hashTimer("encode").recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> hashTimer("matches")
+                .recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // Hash de um lote em paralelo, na mesma ordem da entrada. Sem limite de espera:
+    // quem chama (importação) controla o tamanho do lote.
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Callable<String>> tasks = rawPasswords.stream()
+                .<Callable<String>>map(raw -> () -> hashTimer("encode-bulk")
+                        .recordCallable(() -> passwordEncoder.encode(raw)))
+                .toList();
+
+        try {
+            List<String> hashes = new ArrayList<>(tasks.size());
+            for (Future<String> future : bulkExecutor.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Erro ao processar senha", e.getCause());
+        }
+    }
+
+    // Só compara os parâmetros do hash armazenado; não precisa do pool
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStatsDTO getStats() {
+        long done = completed.get();
+        return new PasswordHashingStatsDTO(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                done,
+                rejected.get(),
+                timedOut.get(),
+                done > 0 ? totalWaitMillis.get() / done : 0,
+                maxObservedWaitMillis.get()
+        );
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueuedAt = System.currentTimeMillis();
+        Future<T> future;
+
+        try {
+            future = executor.submit(() -> {
+                long waited = System.currentTimeMillis() - enqueuedAt;
+                totalWaitMillis.addAndGet(waited);
+                maxObservedWaitMillis.accumulateAndGet(waited, Math::max);
+                QUEUE_WAIT.record(waited, TimeUnit.MILLISECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            REJECTED.withTags("reason", "queue-full").increment();
+            log.warn("Fila de hash de senha cheia; requisição rejeitada");
+            throw busy();
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            REJECTED.withTags("reason", "timeout").increment();
+            log.warn("Hash de senha excedeu {}ms", maxWaitMillis);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Erro ao processar senha", e.getCause());
+        }
+    }
+
+    private Timer hashTimer(String op) {
+        return HASHING.withTags("op", op, "algorithm", algorithm);
+    }
+
+    private ResponseStatusException busy() {
+        return new ResponseStatusException(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Servidor ocupado. Tente novamente em instantes"
+        );
+    }
+}
@@ -1,11 +1,18 @@
 package com.redgit.auth.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.redgit.auth.controllers.DTO.TokenValidationStatsDTO;
 import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.metrics.CacheMetrics;
 import com.redgit.auth.infrastructure.redis.RedisService;
+import com.redgit.auth.infrastructure.redis.TokenRevocationStore;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,29 +21,65 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenService {
 
+    private static final String ISSUER = "login-auth-api";
+
+    // Claims lidas pelas APIs de Profile e Ideias para montar o principal sem consultar o banco
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
+    public enum ValidationMode { LOCAL, REDIS }
+
     @Value("${security.jwt.secret-key}")
     private String secret;
 
     @Value("${cache.token.ttl:900}")
     private long tokenCacheTTL;
 
+    @Value("${security.jwt.validation-mode:local}")
+    private ValidationMode validationMode = ValidationMode.LOCAL;
+
     private final RedisService redisService;
+    private final TokenRevocationStore revocationStore;
+
+    // Família das chaves "blacklist:<token>": o circuito dela decide entre validar no Redis ou localmente
+    private static final String BLACKLIST_FAMILY = "blacklist";
+
+    private static final Meter.MeterProvider<Timer> VALIDATIONS = Timer.builder("token.validation")
+            .description("Tempo de validação do JWT")
+            .withRegistry(Metrics.globalRegistry);
+
+    private volatile JWTVerifier verifier;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong localMisses = new AtomicLong();
+    private final AtomicLong invalidTokens = new AtomicLong();
 
     public String generateToken(User user){
         try {
             Algorithm algorithm = Algorithm.HMAC256(secret);
 
-            String token = JWT.create()
-                    .withIssuer("login-auth-api")
+            var builder = JWT.create()
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
-                    .withExpiresAt(this.generateExpirationDate())
-                    .sign(algorithm);
+                    .withClaim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
+                    .withExpiresAt(this.generateExpirationDate());
+
+            if (user.getId() != null) {
+                builder.withClaim(CLAIM_USER_ID, user.getId().toString());
+            }
+            if (user.getRole() != null) {
+                builder.withClaim(CLAIM_ROLE, user.getRole().name());
+            }
+
+            String token = builder.sign(algorithm);
 
             log.debug("Token gerado para: {}", user.getEmail());
             return token;
@@ -51,6 +94,52 @@ public class TokenService {
             return null;
         }
 
+        // Circuito do Redis aberto: valida localmente em vez de esperar timeouts
+        ValidationMode mode = validationMode == ValidationMode.REDIS && !redisService.isCircuitOpen(BLACKLIST_FAMILY)
+                ? ValidationMode.REDIS
+                : ValidationMode.LOCAL;
+
+        Timer.Sample sample = Timer.start();
+        String email = mode == ValidationMode.REDIS
+                ? validateTokenViaRedis(token)
+                : validateTokenLocally(token);
+        sample.stop(VALIDATIONS.withTags(
+                "mode", mode.name().toLowerCase(),
+                "outcome", email != null ? "valid" : "rejected"));
+        return email;
+    }
+
+    private String validateTokenLocally(String token) {
+        try {
+            // 1. Valida a assinatura localmente (mais barato que um round-trip ao Redis)
+            String email = getVerifier().verify(token).getSubject();
+
+            // 2. Consulta a lista local de revogados; Redis só se a sincronização estiver atrasada.
+            //    Com o circuito aberto a lista local é a melhor informação disponível.
+            boolean revoked;
+            if (revocationStore.isFresh() || redisService.isCircuitOpen(BLACKLIST_FAMILY)) {
+                localHits.incrementAndGet();
+                revoked = revocationStore.isRevoked(TokenRevocationStore.fingerprint(token));
+            } else {
+                localMisses.incrementAndGet();
+                revoked = isTokenBlacklisted(token);
+            }
+
+            if (revoked) {
+                log.warn("Token está na blacklist");
+                return null;
+            }
+
+            return email;
+
+        } catch (JWTVerificationException exception) {
+            invalidTokens.incrementAndGet();
+            log.debug("Token inválido: {}", exception.getMessage());
+            return null;
+        }
+    }
+
+    private String validateTokenViaRedis(String token) {
         try {
             // 1. Verifica se está na blacklist
             if (isTokenBlacklisted(token)) {
@@ -60,18 +149,14 @@ public class TokenService {
 
             // 2. Verifica se está no cache
             String cachedEmail = getCachedToken(token);
+            CacheMetrics.record("token", cachedEmail != null);
             if (cachedEmail != null) {
                 log.debug("Token validado via cache: {}", cachedEmail);
                 return cachedEmail;
             }
 
             // 3. Valida o token via JWT
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            String email = JWT.require(algorithm)
-                    .withIssuer("login-auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            String email = getVerifier().verify(token).getSubject();
 
             // 4. Armazena no cache para próximas validações
             if (email != null) {
@@ -82,11 +167,18 @@ public class TokenService {
             return email;
 
         } catch (JWTVerificationException exception) {
+            invalidTokens.incrementAndGet();
             log.debug("Token inválido: {}", exception.getMessage());
             return null;
         }
     }
 
+    // Lê a claim "ver" de um token já validado; tokens antigos não têm a claim
+    public int getTokenVersion(String token) {
+        Integer version = JWT.decode(token).getClaim(CLAIM_TOKEN_VERSION).asInt();
+        return version != null ? version : 0;
+    }
+
     public void blacklistToken(String token) {
         if (token == null || token.isEmpty()) {
             return;
@@ -99,6 +191,10 @@ public class TokenService {
 
         if (ttl > 0) {
             redisService.set(blacklistKey, true, ttl);
+            revocationStore.revoke(
+                    TokenRevocationStore.fingerprint(token),
+                    Instant.now().getEpochSecond() + ttl
+            );
 
             // Remove do cache de validação
             String cacheKey = "token:" + token;
@@ -117,6 +213,17 @@ public class TokenService {
         return redisService.exists(blacklistKey);
     }
 
+    public TokenValidationStatsDTO getValidationStats() {
+        return new TokenValidationStatsDTO(
+                validationMode.name().toLowerCase(),
+                localHits.get(),
+                localMisses.get(),
+                invalidTokens.get(),
+                revocationStore.size(),
+                revocationStore.isFresh()
+        );
+    }
+
     private void cacheToken(String token, String email) {
         String cacheKey = "token:" + token;
         redisService.set(cacheKey, email, tokenCacheTTL);
@@ -129,10 +236,7 @@ public class TokenService {
 
     private long getTokenRemainingTime(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            Instant expiresAt = JWT.require(algorithm)
-                    .withIssuer("login-auth-api")
-                    .build()
+            Instant expiresAt = getVerifier()
                     .verify(token)
                     .getExpiresAtAsInstant();
 
@@ -147,6 +251,23 @@ public class TokenService {
         return 0;
     }
 
+    // Verifier é thread-safe: criado uma única vez e reutilizado em todas as requisições
+    private JWTVerifier getVerifier() {
+        JWTVerifier current = verifier;
+        if (current == null) {
+            synchronized (this) {
+                current = verifier;
+                if (current == null) {
+                    current = JWT.require(Algorithm.HMAC256(secret))
+                            .withIssuer(ISSUER)
+                            .build();
+                    verifier = current;
+                }
+            }
+        }
+        return current;
+    }
+
     private Instant generateExpirationDate(){
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
@@ -0,0 +1,97 @@
+package com.redgit.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.repository.UserExportRow;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exporta usuários linha a linha do ResultSet direto para a resposta:
+// nada é acumulado em memória nem no contexto de persistência.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    // Flush periódico: mantém o buffer pequeno e detecta cedo cliente desconectado
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String CSV_HEADER = "id,name,email,role,enabled,accountNonLocked,createdAt";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    // Chamado pelo StreamingResponseBody, fora da thread da requisição: a transação
+    // (e a conexão em modo streaming) vive só enquanto as linhas são escritas.
+    @Transactional(readOnly = true)
+    public long export(UserFileFormat format, UserRole role, Boolean enabled, Boolean locked, OutputStream out) throws IOException {
+        Boolean accountNonLocked = locked != null ? !locked : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        try (Stream<UserExportRow> stream = userRepository.streamForExport(role, enabled, accountNonLocked)) {
+            if (format == UserFileFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            Iterator<UserExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                UserExportRow row = iterator.next();
+                writer.write(format == UserFileFormat.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Cliente desconectou: fechar o stream libera o ResultSet e a conexão
+            log.info("Exportação de usuários interrompida pelo cliente após {} linhas", rows);
+            throw e;
+        }
+
+        log.info("Exportação de usuários concluída: {} linhas ({})", rows, format.getExtension());
+        return rows;
+    }
+
+    static String toCsv(UserExportRow row) {
+        return String.join(",",
+                String.valueOf(row.id()),
+                csvField(row.name()),
+                csvField(row.email()),
+                String.valueOf(row.role()),
+                String.valueOf(row.enabled()),
+                String.valueOf(row.accountNonLocked()),
+                String.valueOf(row.createdAt()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        // Evita que planilhas interpretem o campo como fórmula
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,36 @@
+package com.redgit.auth.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+// Formatos aceitos na exportação e na importação em massa de usuários (um registro por linha)
+public enum UserFileFormat {
+    CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8")),
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    UserFileFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static UserFileFormat from(String value) {
+        for (UserFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de arquivo inválido: " + value);
+    }
+}
@@ -0,0 +1,370 @@
+package com.redgit.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redgit.auth.controllers.DTO.RegisterRequestDTO;
+import com.redgit.auth.controllers.DTO.UserImportRejectionDTO;
+import com.redgit.auth.controllers.DTO.UserImportResultDTO;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.security.PasswordEncoderCalibrator;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Importação em massa lida em streaming, em blocos de import.users.chunk-size linhas:
+// valida, descarta emails já existentes com uma consulta IN por bloco, gera os hashes
+// em paralelo e insere o bloco numa transação com batch JDBC. Memória constante:
+// cada bloco é descartado (e o contexto de persistência limpo) antes do próximo.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private static final UserStatsService.Snapshot IMPORTED =
+            new UserStatsService.Snapshot(UserRole.USER, true, true);
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final UserStatsService userStatsService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${import.users.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${import.users.max-reported-rejections:10000}")
+    private int maxReportedRejections = 10_000;
+
+    // password: senha em texto, validada como no cadastro e com hash gerado aqui.
+    // passwordHash: hash pronto de outro sistema ({bcrypt}, {argon2} ou BCrypt sem prefixo);
+    // é atualizado para o algoritmo atual no primeiro login.
+    record ImportRow(long line, String name, String email, String password, String passwordHash) { }
+
+    private record PendingUser(ImportRow row, String encodedPassword) { }
+
+    private static final class Report {
+        long totalRows;
+        long imported;
+        long rejected;
+        final List<UserImportRejectionDTO> rejections = new ArrayList<>();
+        boolean truncated;
+    }
+
+    public UserImportResultDTO importUsers(UserFileFormat format, InputStream input) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Report report = new Report();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        Map<String, Integer> header = format == UserFileFormat.CSV ? readCsvHeader(reader) : null;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = header != null ? 1 : 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.totalRows++;
+
+            try {
+                chunk.add(format == UserFileFormat.CSV ? parseCsvRow(lineNumber, line, header) : parseJsonRow(lineNumber, line));
+            } catch (IllegalArgumentException e) {
+                reject(report, lineNumber, null, "Linha malformada: " + e.getMessage());
+            }
+
+            if (chunk.size() >= chunkSize) {
+                processChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, report);
+        }
+
+        long elapsed = System.currentTimeMillis() - startedAt;
+        log.info("Importação de usuários concluída: {} linhas, {} importadas, {} rejeitadas em {}ms",
+                report.totalRows, report.imported, report.rejected, elapsed);
+
+        return new UserImportResultDTO(report.totalRows, report.imported, report.rejected,
+                report.rejections, report.truncated, elapsed);
+    }
+
+    private void processChunk(List<ImportRow> rows, Report report) {
+        // 1. Validação e duplicados dentro do próprio bloco (blocos anteriores já estão no banco)
+        Map<String, ImportRow> candidates = new HashMap<>();
+        for (ImportRow row : rows) {
+            String reason = validate(row);
+            if (reason != null) {
+                reject(report, row.line(), row.email(), reason);
+            } else if (candidates.putIfAbsent(emailKey(row.email()), row) != null) {
+                reject(report, row.line(), row.email(), "Email repetido no arquivo");
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 2. Uma consulta para o bloco inteiro
+        Set<String> existing = userRepository.findExistingEmails(
+                        candidates.values().stream().map(ImportRow::email).toList()).stream()
+                .map(UserImportService::emailKey)
+                .collect(Collectors.toSet());
+
+        List<ImportRow> accepted = new ArrayList<>(candidates.size());
+        for (ImportRow row : rows) {
+            if (candidates.get(emailKey(row.email())) != row) {
+                continue;
+            }
+            if (existing.contains(emailKey(row.email()))) {
+                reject(report, row.line(), row.email(), "Email já cadastrado");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // 3. Hash das senhas em texto em paralelo
+        List<ImportRow> toHash = accepted.stream().filter(row -> row.passwordHash() == null).toList();
+        List<String> hashes = toHash.isEmpty()
+                ? List.of()
+                : passwordHashingService.encodeAll(toHash.stream().map(ImportRow::password).toList());
+
+        List<PendingUser> pending = new ArrayList<>(accepted.size());
+        int hashIndex = 0;
+        for (ImportRow row : accepted) {
+            String encoded = row.passwordHash() != null ? row.passwordHash() : hashes.get(hashIndex++);
+            pending.add(new PendingUser(row, encoded));
+        }
+
+        // 4. Inserção em batch
+        long inserted = insert(pending, report);
+        report.imported += inserted;
+        userStatsService.recordCreations(IMPORTED, inserted);
+    }
+
+    private long insert(List<PendingUser> pending, Report report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(pending.stream().map(UserImportService::toUser).toList());
+                entityManager.flush();
+                entityManager.clear();
+            });
+            return pending.size();
+        } catch (DataIntegrityViolationException e) {
+            // Cadastro concorrente entre a consulta e o insert: refaz o bloco linha a linha
+            entityManager.clear();
+            log.warn("Conflito no insert em lote da importação; repetindo {} linhas individualmente", pending.size());
+        }
+
+        long inserted = 0;
+        for (PendingUser user : pending) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userRepository.save(toUser(user));
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                inserted++;
+            } catch (DataIntegrityViolationException e) {
+                entityManager.clear();
+                reject(report, user.row().line(), user.row().email(), conflictReason(user.row(), e));
+            }
+        }
+        return inserted;
+    }
+
+    // Só o índice único de email vira "Email já cadastrado"; outras restrições (tamanho de
+    // coluna, NOT NULL) são reportadas pelo nome, sem a mensagem do banco
+    private String conflictReason(ImportRow row, DataIntegrityViolationException e) {
+        if (!userRepository.findExistingEmails(List.of(row.email())).isEmpty()) {
+            return "Email já cadastrado";
+        }
+
+        log.warn("Linha {} da importação rejeitada pelo banco: {}", row.line(), e.getMostSpecificCause().getMessage());
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        return constraint != null
+                ? "Dados rejeitados pelo banco (restrição " + constraint + ")"
+                : "Dados rejeitados pelo banco";
+    }
+
+    private String validate(ImportRow row) {
+        boolean hasPassword = row.password() != null && !row.password().isEmpty();
+        boolean hasHash = row.passwordHash() != null && !row.passwordHash().isEmpty();
+
+        if (hasPassword == hasHash) {
+            return "Informe password ou passwordHash (apenas um)";
+        }
+        if (hasHash && !PasswordEncoderCalibrator.isSupportedHash(row.passwordHash())) {
+            return "passwordHash em formato não suportado";
+        }
+
+        RegisterRequestDTO dto = new RegisterRequestDTO(row.name(), row.email(), row.password());
+        Set<ConstraintViolation<RegisterRequestDTO>> violations = new HashSet<>();
+        if (hasHash) {
+            violations.addAll(validator.validateProperty(dto, "name"));
+            violations.addAll(validator.validateProperty(dto, "email"));
+        } else {
+            violations.addAll(validator.validate(dto));
+        }
+
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toCollection(TreeSet::new))
+                .stream()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reject(Report report, long line, String email, String reason) {
+        report.rejected++;
+        if (report.rejections.size() < maxReportedRejections) {
+            report.rejections.add(new UserImportRejectionDTO(line, email, reason));
+        } else {
+            report.truncated = true;
+        }
+    }
+
+    private static User toUser(PendingUser pending) {
+        User user = new User();
+        user.setName(pending.row().name());
+        user.setEmail(pending.row().email());
+        user.setPassword(pending.encodedPassword());
+        user.setRole(UserRole.USER);
+        user.setEnabled(true);
+        user.setAccountNonLocked(true);
+        return user;
+    }
+
+    // O índice único de email no MySQL não diferencia maiúsculas
+    private static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Arquivo vazio");
+        }
+
+        List<String> columns = parseCsvLine(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+
+        if (!header.containsKey("name") || !header.containsKey("email")
+                || !(header.containsKey("password") || header.containsKey("passwordHash"))) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Cabeçalho CSV deve conter name, email e password ou passwordHash"
+            );
+        }
+        return header;
+    }
+
+    static ImportRow parseCsvRow(long line, String value, Map<String, Integer> header) {
+        List<String> fields = parseCsvLine(value);
+        return new ImportRow(
+                line,
+                column(fields, header, "name"),
+                column(fields, header, "email"),
+                column(fields, header, "password"),
+                column(fields, header, "passwordHash")
+        );
+    }
+
+    private ImportRow parseJsonRow(long line, String value) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON inválido");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("esperado um objeto JSON");
+        }
+        return new ImportRow(line, text(node, "name"), text(node, "email"), text(node, "password"), text(node, "passwordHash"));
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() || value.asText().isEmpty() ? null : value.asText();
+    }
+
+    // Campos separados por vírgula, com aspas duplas opcionais ("" = aspas literal)
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("aspas não fechadas");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
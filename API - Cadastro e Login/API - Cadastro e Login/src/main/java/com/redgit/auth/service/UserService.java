@@ -1,29 +1,56 @@
 package com.redgit.auth.service;
 
+import com.redgit.auth.controllers.DTO.BulkUserActionDTO;
+import com.redgit.auth.controllers.DTO.BulkUserActionResultDTO;
+import com.redgit.auth.controllers.DTO.CursorPageDTO;
 import com.redgit.auth.controllers.DTO.UpdateUserDTO;
 import com.redgit.auth.controllers.DTO.UserDTO;
+import com.redgit.auth.controllers.DTO.UserFilterDTO;
+import com.redgit.auth.infrastructure.cache.SecondLevelCacheInvalidator;
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
 import com.redgit.auth.infrastructure.entity.User;
 import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.redis.TokenRevocationStore;
 import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.repository.UserTokenVersion;
+import com.redgit.auth.infrastructure.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final PrincipalCache principalCache;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWrites;
+    private final SecondLevelCacheInvalidator secondLevelCache;
+    private final TokenRevocationStore tokenRevocationStore;
+
+    @Value("${bulk.users.chunk-size:1000}")
+    private int bulkChunkSize = 1000;
+
+    public enum BulkAction { LOCK, UNLOCK, DISABLE, ENABLE, CHANGE_ROLE }
 
     public User findByEmail(String email) {
         return userRepository.findByEmail(email)
@@ -34,21 +61,63 @@ public class UserService {
     }
 
 public User findById(UUID id) {
-        return userRepository.findById(id.toString())
+        return userRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Usuário não encontrado"
                 ));
     }
 
-    public Page<UserDTO> findAll(Pageable pageable) {
-        return userRepository.findAll(pageable)
-                .map(UserDTO::new);
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Listagem por cursor: busca size + 1 linhas para saber se há próxima página,
+    // sem OFFSET e sem COUNT(*) (o total só é calculado quando pedido).
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> findPage(String cursor, int size, UserRole role,
+                                           Boolean enabled, Boolean locked, boolean includeTotal) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Tamanho de página deve estar entre 1 e " + MAX_PAGE_SIZE
+            );
+        }
+
+        UserCursor after = cursor != null && !cursor.isBlank() ? UserCursor.decode(cursor) : null;
+        Boolean accountNonLocked = locked != null ? !locked : null;
+
+        List<User> rows = userRepository.findPageAfter(
+                role,
+                enabled,
+                accountNonLocked,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                Limit.of(size + 1)
+        );
+
+        boolean hasMore = rows.size() > size;
+        List<User> page = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            User last = page.get(page.size() - 1);
+            nextCursor = new UserCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        Long total = null;
+        if (includeTotal) {
+            // Sem filtros o contador mantido no Redis responde sem tocar na tabela
+            total = role == null && enabled == null && locked == null
+                    ? userStatsService.getStats().getTotalUsers()
+                    : userRepository.countFiltered(role, enabled, accountNonLocked);
+        }
+
+        return new CursorPageDTO<>(page.stream().map(UserDTO::new).toList(), nextCursor, hasMore, total);
     }
 
     @Transactional
     public User updateProfile(UUID id, UpdateUserDTO dto) {
         User user = findById(id);
+        principalCache.invalidate(user.getEmail());
 
         if (dto.getName() != null && !dto.getName().isBlank()) {
             user.setName(dto.getName());
@@ -68,10 +137,30 @@ public User findById(UUID id) {
         }
 
         if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(dto.getPassword()));
+            user.setPassword(passwordHashingService.encode(dto.getPassword()));
+        }
+
+        User saved = userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        // Próximas leituras do próprio usuário (GET /me logo após o PUT) vão para o primário
+        readYourWrites.markWrite(ReadYourWritesTracker.userKey(id));
+        return saved;
+    }
+
+    // Regrava o hash com os parâmetros atuais após um login bem-sucedido.
+    // Falhar aqui não pode derrubar o login: tenta de novo no próximo.
+    public void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
         }
 
-        return userRepository.save(user);
+        try {
+            user.setPassword(passwordHashingService.encode(rawPassword));
+            userRepository.save(user);
+            log.info("Hash de senha atualizado para: {}", user.getEmail());
+        } catch (Exception e) {
+            log.warn("Não foi possível atualizar o hash de senha de {}: {}", user.getEmail(), e.getMessage());
+        }
     }
 
     @Transactional
@@ -88,8 +177,15 @@ public User findById(UUID id) {
             }
         }
 
+        UserStatsService.Snapshot before = UserStatsService.Snapshot.of(user);
+        if (user.getRole() != newRole) {
+            revokeIssuedTokens(user);
+        }
         user.setRole(newRole);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        userStatsService.recordTransition(before, UserStatsService.Snapshot.of(user));
+        return saved;
     }
 
     @Transactional
@@ -108,6 +204,9 @@ public User findById(UUID id) {
         }
 
         userRepository.delete(user);
+        principalCache.invalidate(user.getEmail());
+        tokenRevocationStore.revokeUserTokens(user.getId(), Integer.MAX_VALUE);
+        userStatsService.recordTransition(UserStatsService.Snapshot.of(user), null);
     }
 
     @Transactional
@@ -121,15 +220,22 @@ public User findById(UUID id) {
             );
         }
 
+        UserStatsService.Snapshot before = UserStatsService.Snapshot.of(user);
         user.setAccountNonLocked(false);
+        revokeIssuedTokens(user);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        userStatsService.recordTransition(before, UserStatsService.Snapshot.of(user));
     }
 
     @Transactional
     public void unlockAccount(UUID id) {
         User user = findById(id);
+        UserStatsService.Snapshot before = UserStatsService.Snapshot.of(user);
         user.setAccountNonLocked(true);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        userStatsService.recordTransition(before, UserStatsService.Snapshot.of(user));
     }
 
     @Transactional
@@ -143,15 +249,124 @@ public User findById(UUID id) {
             );
         }
 
+        UserStatsService.Snapshot before = UserStatsService.Snapshot.of(user);
         user.setEnabled(false);
+        revokeIssuedTokens(user);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        userStatsService.recordTransition(before, UserStatsService.Snapshot.of(user));
     }
 
     @Transactional
     public void enableAccount(UUID id) {
         User user = findById(id);
+        UserStatsService.Snapshot before = UserStatsService.Snapshot.of(user);
         user.setEnabled(true);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        userStatsService.recordTransition(before, UserStatsService.Snapshot.of(user));
+    }
+
+    // Versão em massa de lock/unlock/disable/enable/changeRole: cada bloco de ids é um
+    // UPDATE ... WHERE id IN (...) numa transação própria, com as mesmas proteções das
+    // operações individuais no WHERE e uma única invalidação de cache por bloco.
+    public BulkUserActionResultDTO bulkUpdate(BulkAction action, BulkUserActionDTO request) {
+        boolean hasIds = request.ids() != null && !request.ids().isEmpty();
+        boolean hasFilter = request.filter() != null && !request.filter().isEmpty();
+
+        if (hasIds == hasFilter) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Informe a lista de ids ou um filtro (apenas um)"
+            );
+        }
+        if (action == BulkAction.CHANGE_ROLE && request.role() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role é obrigatória");
+        }
+
+        long startedAt = System.currentTimeMillis();
+        UUID excludedId = action == BulkAction.CHANGE_ROLE && request.role() != UserRole.ADMIN
+                ? currentUserId()
+                : null;
+        long targeted = 0;
+        long updated = 0;
+
+        if (hasIds) {
+            List<UUID> ids = List.copyOf(new LinkedHashSet<>(request.ids()));
+            for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+                List<UUID> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+                targeted += chunk.size();
+                updated += applyBulkChunk(action, chunk, request.role(), excludedId);
+            }
+        } else {
+            UserFilterDTO filter = request.filter();
+            UUID afterId = null;
+            List<UUID> chunk;
+            do {
+                chunk = userRepository.findIdsAfter(filter.role(), filter.enabled(), filter.accountNonLocked(),
+                        afterId, Limit.of(bulkChunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                targeted += chunk.size();
+                updated += applyBulkChunk(action, chunk, request.role(), excludedId);
+                afterId = chunk.get(chunk.size() - 1);
+            } while (chunk.size() == bulkChunkSize);
+        }
+
+        if (updated > 0) {
+            // Um GROUP BY no fim em vez de um delta por usuário
+            userStatsService.reconcile();
+            // Os UPDATEs em massa só limpam o cache L2 desta instância
+            secondLevelCache.evictAll(User.class);
+        }
+
+        long elapsed = System.currentTimeMillis() - startedAt;
+        log.info("Operação em massa {}: {} selecionados, {} alterados em {}ms", action, targeted, updated, elapsed);
+        return new BulkUserActionResultDTO(action.name(), targeted, updated, elapsed);
+    }
+
+    private int applyBulkChunk(BulkAction action, List<UUID> ids, UserRole newRole, UUID excludedId) {
+        Integer updated = transactionTemplate.execute(status -> {
+            List<String> emails = userRepository.findEmailsByIdIn(ids);
+            LocalDateTime now = LocalDateTime.now();
+
+            int count = switch (action) {
+                case LOCK -> userRepository.lockByIds(ids, now);
+                case UNLOCK -> userRepository.unlockByIds(ids, now);
+                case DISABLE -> userRepository.disableByIds(ids, now);
+                case ENABLE -> userRepository.enableByIds(ids, now);
+                case CHANGE_ROLE -> userRepository.changeRoleByIds(ids, newRole, excludedId, now);
+            };
+
+            if (count > 0) {
+                principalCache.invalidateAll(emails);
+                if (action == BulkAction.LOCK || action == BulkAction.DISABLE || action == BulkAction.CHANGE_ROLE) {
+                    Map<UUID, Integer> versions = new HashMap<>();
+                    for (UserTokenVersion version : userRepository.findTokenVersionsByIdIn(ids)) {
+                        versions.put(version.getId(), version.getTokenVersion());
+                    }
+                    tokenRevocationStore.revokeUserTokens(versions);
+                }
+            }
+            return count;
+        });
+        return updated != null ? updated : 0;
+    }
+
+    // Mesmo efeito do "tokenVersion + 1" dos UPDATEs em massa: o SecurityFilter desta API
+    // recusa os tokens antigos e as demais APIs recebem a nova versão pelo stream
+    private void revokeIssuedTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        tokenRevocationStore.revokeUserTokens(user.getId(), user.getTokenVersion());
+    }
+
+    private UUID currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof User currentUser) {
+            return currentUser.getId();
+        }
+        return null;
     }
 
     public long countUsers() {
@@ -159,6 +374,6 @@ public User findById(UUID id) {
     }
 
     public long countByRole(UserRole role) {
-        return userRepository.findByRole(role).size();
+        return userRepository.countByRole(role);
     }
 }
@@ -0,0 +1,197 @@
+package com.redgit.auth.service;
+
+import com.redgit.auth.controllers.DTO.AdminStatsDTO;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.repository.UserStatusCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Contadores de usuários por role e status num hash do Redis ("auth:stats:users"),
+// atualizados a cada mudança e reconciliados periodicamente com um GROUP BY no MySQL.
+// Os comandos passam pelo circuit breaker da família "stats".
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserStatsService {
+
+    private static final String STATS_KEY = "auth:stats:users";
+    private static final String STATS_FAMILY = "stats";
+    private static final String TOTAL = "total";
+    private static final String DISABLED = "disabled";
+    private static final String LOCKED = "locked";
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public record Snapshot(UserRole role, boolean enabled, boolean accountNonLocked) {
+        public static Snapshot of(User user) {
+            return new Snapshot(user.getRole(), user.isEnabled(), user.isAccountNonLocked());
+        }
+    }
+
+    // before == null: usuário criado; after == null: usuário removido.
+    // Dentro de transação só aplica após o commit, para não contar rollback.
+    public void recordTransition(Snapshot before, Snapshot after) {
+        Map<String, Long> delta = new HashMap<>();
+        apply(delta, before, -1);
+        apply(delta, after, 1);
+        delta.values().removeIf(value -> value == 0);
+
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(delta);
+                }
+            });
+        } else {
+            increment(delta);
+        }
+    }
+
+    // Vários usuários criados no mesmo estado (importação em massa): um incremento por campo
+    public void recordCreations(Snapshot after, long count) {
+        if (count <= 0) {
+            return;
+        }
+
+        Map<String, Long> delta = new HashMap<>();
+        apply(delta, after, count);
+        increment(delta);
+    }
+
+    public AdminStatsDTO getStats() {
+        try {
+            Map<Object, Object> counters = command("hgetall", () -> stringRedisTemplate.opsForHash().entries(STATS_KEY));
+            if (!counters.isEmpty()) {
+                return toDto(counters);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao ler estatísticas de usuários do Redis: {}", e.getMessage());
+        }
+
+        // Primeira leitura ou Redis indisponível: agrega no banco (sem carregar entidades)
+        return toDto(new HashMap<>(reconcile()));
+    }
+
+    // Corrige desvios (falha de Redis, mudanças concorrentes, alterações fora da aplicação)
+    @Scheduled(
+            initialDelayString = "${stats.users.reconcile-initial-delay-ms:10000}",
+            fixedDelayString = "${stats.users.reconcile-interval-ms:300000}"
+    )
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    public Map<String, String> reconcile() {
+        Map<String, Long> counters = new HashMap<>();
+        counters.put(TOTAL, 0L);
+        counters.put(DISABLED, 0L);
+        counters.put(LOCKED, 0L);
+        for (UserRole role : UserRole.values()) {
+            counters.put(roleField(role), 0L);
+        }
+
+        List<UserStatusCount> groups = userRepository.countGroupedByStatus();
+        for (UserStatusCount group : groups) {
+            Snapshot snapshot = new Snapshot(
+                    group.getRole(),
+                    Boolean.TRUE.equals(group.getEnabled()),
+                    Boolean.TRUE.equals(group.getAccountNonLocked())
+            );
+            Map<String, Long> contribution = new HashMap<>();
+            apply(contribution, snapshot, 1);
+            contribution.forEach((field, one) -> counters.merge(field, one * group.getTotal(), Long::sum));
+        }
+
+        Map<String, String> values = new HashMap<>();
+        counters.forEach((field, value) -> values.put(field, String.valueOf(value)));
+
+        try {
+            command("hmset", () -> {
+                stringRedisTemplate.opsForHash().putAll(STATS_KEY, values);
+                return null;
+            });
+            log.debug("Estatísticas de usuários reconciliadas: {}", values);
+        } catch (Exception e) {
+            log.error("Erro ao gravar estatísticas de usuários no Redis: {}", e.getMessage());
+        }
+
+        return values;
+    }
+
+    // Todos os campos de uma mudança num único round trip
+    private void increment(Map<String, Long> delta) {
+        byte[] rawKey = STATS_KEY.getBytes(StandardCharsets.UTF_8);
+        try {
+            command("hincrby", () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                delta.forEach((field, value) -> connection.hashCommands().hIncrBy(
+                        rawKey, field.getBytes(StandardCharsets.UTF_8), value));
+                return null;
+            }));
+        } catch (Exception e) {
+            // A próxima reconciliação corrige o contador
+            log.error("Erro ao atualizar estatísticas de usuários: {}", e.getMessage());
+        }
+    }
+
+    private <T> T command(String op, Supplier<T> command) {
+        return circuitBreaker.execute(op, STATS_FAMILY, () -> RedisCommandMetrics.record(op, STATS_FAMILY, command));
+    }
+
+    private static void apply(Map<String, Long> delta, Snapshot snapshot, long sign) {
+        if (snapshot == null) {
+            return;
+        }
+        delta.merge(TOTAL, sign, Long::sum);
+        if (snapshot.role() != null) {
+            delta.merge(roleField(snapshot.role()), sign, Long::sum);
+        }
+        if (!snapshot.enabled()) {
+            delta.merge(DISABLED, sign, Long::sum);
+        }
+        if (!snapshot.accountNonLocked()) {
+            delta.merge(LOCKED, sign, Long::sum);
+        }
+    }
+
+    private static String roleField(UserRole role) {
+        return "role:" + role.name();
+    }
+
+    private static AdminStatsDTO toDto(Map<Object, Object> counters) {
+        AdminStatsDTO stats = new AdminStatsDTO();
+        stats.setTotalUsers(read(counters, TOTAL));
+        stats.setTotalAdmins(read(counters, roleField(UserRole.ADMIN)));
+        stats.setTotalRegularUsers(read(counters, roleField(UserRole.USER)));
+        stats.setTotalDisabled(read(counters, DISABLED));
+        stats.setTotalLocked(read(counters, LOCKED));
+        return stats;
+    }
+
+    private static long read(Map<Object, Object> counters, String field) {
+        Object value = counters.get(field);
+        return value != null ? Long.parseLong(value.toString()) : 0;
+    }
+}
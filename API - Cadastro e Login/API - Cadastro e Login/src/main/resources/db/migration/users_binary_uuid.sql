@@ -0,0 +1,24 @@
+-- Migração da chave primária de users para BINARY(16).
+-- O projeto usa ddl-auto=update, que não altera o tipo de colunas existentes:
+-- rodar manualmente uma vez, com a aplicação parada, antes de subir a versão nova.
+--
+-- Os ids já existentes são preservados (estão em tokens emitidos e em profiles.user_id);
+-- apenas os novos passam a ser UUID v7, ordenados pelo tempo.
+
+-- 1. Conferir o tipo atual. Se já for binary(16), pular para o passo 3.
+SELECT column_name, column_type
+FROM information_schema.columns
+WHERE table_schema = DATABASE() AND table_name = 'users' AND column_name = 'id';
+
+-- 2. char(36)/varchar(36) -> binary(16), na ordem de bytes do UUID (a mesma do Hibernate)
+ALTER TABLE users ADD COLUMN id_bin BINARY(16) NULL;
+UPDATE users SET id_bin = UNHEX(REPLACE(id, '-', ''));
+ALTER TABLE users
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (id);
+
+-- 3. Reconstrói o índice clusterizado e os secundários, eliminando a fragmentação
+--    deixada pelas inserções aleatórias dos UUID v4
+OPTIMIZE TABLE users;
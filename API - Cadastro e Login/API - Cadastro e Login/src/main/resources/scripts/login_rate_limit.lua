@@ -0,0 +1,29 @@
+-- Limite de tentativas de login em uma única ida ao Redis.
+-- KEYS[1] = contador de tentativas, KEYS[2] = chave de bloqueio
+-- ARGV[1] = "check" (só consulta) ou "fail" (registra falha)
+-- ARGV[2] = máximo de tentativas, ARGV[3] = janela (s), ARGV[4] = duração do bloqueio (s)
+-- Retorno: {bloqueado (0/1), tentativas restantes, segundos de bloqueio restantes}
+
+local maxAttempts = tonumber(ARGV[2])
+
+local blockTtl = redis.call('TTL', KEYS[2])
+if blockTtl ~= -2 then
+    return {1, 0, math.max(blockTtl, 0)}
+end
+
+local attempts
+if ARGV[1] == 'fail' then
+    attempts = redis.call('INCR', KEYS[1])
+    if attempts == 1 then
+        redis.call('EXPIRE', KEYS[1], ARGV[3])
+    end
+
+    if attempts >= maxAttempts then
+        redis.call('SET', KEYS[2], '1', 'EX', ARGV[4])
+        return {1, 0, tonumber(ARGV[4])}
+    end
+else
+    attempts = tonumber(redis.call('GET', KEYS[1]) or '0')
+end
+
+return {0, math.max(0, maxAttempts - attempts), 0}
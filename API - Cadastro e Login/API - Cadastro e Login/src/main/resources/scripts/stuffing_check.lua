@@ -0,0 +1,8 @@
+-- KEYS[1] = bloqueio do IP, KEYS[2] = bloqueio da sub-rede
+-- Retorno: segundos restantes do bloqueio mais longo (0 = livre)
+
+local ttl = math.max(redis.call('TTL', KEYS[1]), redis.call('TTL', KEYS[2]))
+if ttl == -1 then
+    return 1
+end
+return math.max(ttl, 0)
@@ -0,0 +1,29 @@
+-- Registra uma falha de login para detecção de credential stuffing.
+-- KEYS[1] = HLL de emails por IP, KEYS[2] = HLL de emails por sub-rede
+-- KEYS[3] = bloqueio do IP, KEYS[4] = bloqueio da sub-rede
+-- ARGV[1] = email, ARGV[2] = janela (s), ARGV[3] = limite por IP,
+-- ARGV[4] = limite por sub-rede, ARGV[5] = duração do bloqueio (s)
+-- Retorno: {segundos de bloqueio (0 = livre), emails distintos no IP, emails distintos na sub-rede}
+
+local function track(key)
+    redis.call('PFADD', key, ARGV[1])
+    if redis.call('TTL', key) < 0 then
+        redis.call('EXPIRE', key, ARGV[2])
+    end
+    return redis.call('PFCOUNT', key)
+end
+
+local ipCount = track(KEYS[1])
+local subnetCount = track(KEYS[2])
+
+local blockSeconds = 0
+if ipCount >= tonumber(ARGV[3]) then
+    redis.call('SET', KEYS[3], '1', 'EX', ARGV[5])
+    blockSeconds = tonumber(ARGV[5])
+end
+if subnetCount >= tonumber(ARGV[4]) then
+    redis.call('SET', KEYS[4], '1', 'EX', ARGV[5])
+    blockSeconds = tonumber(ARGV[5])
+end
+
+return {blockSeconds, ipCount, subnetCount}
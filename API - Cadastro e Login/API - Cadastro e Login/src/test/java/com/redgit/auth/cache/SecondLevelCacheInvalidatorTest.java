@@ -0,0 +1,178 @@
+package com.redgit.auth.cache;
+
+import com.redgit.auth.infrastructure.cache.SecondLevelCacheInvalidator;
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.metamodel.mapping.NaturalIdMapping;
+import org.hibernate.metamodel.spi.MappingMetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do SecondLevelCacheInvalidator")
+class SecondLevelCacheInvalidatorTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Spy
+    private RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+
+    @InjectMocks
+    private SecondLevelCacheInvalidator invalidator;
+
+    @Mock
+    private CacheImplementor cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(entityManagerFactory.getCache()).thenReturn(cache);
+        lenient().when(cache.unwrap(Cache.class)).thenReturn(cache);
+    }
+
+    @Test
+    @DisplayName("Mensagem de outra instância remove a entidade e o natural id do cache local")
+    void onMessage_FromOtherInstance_EvictsEntity() {
+        UUID id = UUID.randomUUID();
+
+        invalidator.onMessage(message("outra-instancia|" + User.class.getName() + "|" + id), null);
+
+        verify(cache).evictEntityData(User.class.getName(), id);
+        verify(cache).evictNaturalIdData(User.class.getName());
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    @DisplayName("A própria mensagem não limpa o cache que acabou de ser atualizado no commit")
+    void onMessage_OwnMessage_IsIgnored() {
+        invalidator.evictAll(User.class);
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(SecondLevelCacheInvalidator.CHANNEL), published.capture());
+        assertThat(published.getValue()).endsWith("|" + User.class.getName() + "|*");
+
+        invalidator.onMessage(message(published.getValue()), null);
+
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    @DisplayName("Com réplica de leitura a remoção se repete após o atraso máximo")
+    void onMessage_WithReplica_SchedulesSecondEviction() {
+        when(readYourWrites.isEnabled()).thenReturn(true);
+
+        invalidator.onMessage(message("outra-instancia|" + User.class.getName() + "|*"), null);
+
+        verify(cache).evictEntityData(User.class.getName());
+        ArgumentCaptor<Runnable> delayed = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(delayed.capture(), any(Instant.class));
+
+        delayed.getValue().run();
+        verify(cache, times(2)).evictEntityData(User.class.getName());
+        verify(cache, times(2)).evictNaturalIdData(User.class.getName());
+    }
+
+    @Test
+    @DisplayName("Troca de email remove só as associações do email antigo e do novo")
+    void onMessage_WithNaturalIds_EvictsOnlyThoseKeys() {
+        UUID id = UUID.randomUUID();
+        NaturalIdDataAccess access = mockNaturalIdAccess();
+
+        invalidator.onMessage(message("outra-instancia|" + User.class.getName() + "|" + id
+                + "|antigo@test.com\nnovo@test.com"), null);
+
+        verify(cache).evictEntityData(User.class.getName(), id);
+        verify(access).evict("key:antigo@test.com");
+        verify(access).evict("key:novo@test.com");
+        verify(cache, never()).evictNaturalIdData(anyString());
+    }
+
+    @Test
+    @DisplayName("Atualização publica o email anterior e o atual junto com o id")
+    void onPostUpdate_PublishesOldAndNewNaturalIds() {
+        UUID id = UUID.randomUUID();
+        EntityPersister persister = mock(EntityPersister.class);
+        NaturalIdMapping mapping = mock(NaturalIdMapping.class);
+        when(persister.getEntityName()).thenReturn(User.class.getName());
+        when(persister.getNaturalIdMapping()).thenReturn(mapping);
+        when(persister.hasNaturalIdCache()).thenReturn(true);
+        Object[] oldState = {"antigo@test.com"};
+        Object[] state = {"novo@test.com"};
+        when(mapping.extractNaturalIdFromEntityState(oldState)).thenReturn("antigo@test.com");
+        when(mapping.extractNaturalIdFromEntityState(state)).thenReturn("novo@test.com");
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(id);
+        when(event.getOldState()).thenReturn(oldState);
+        when(event.getState()).thenReturn(state);
+
+        invalidator.onPostUpdate(event);
+
+        verify(stringRedisTemplate).convertAndSend(eq(SecondLevelCacheInvalidator.CHANNEL),
+                endsWith("|" + User.class.getName() + "|" + id + "|antigo@test.com\nnovo@test.com"));
+    }
+
+    private NaturalIdDataAccess mockNaturalIdAccess() {
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, withSettings().withoutAnnotations());
+        MappingMetamodelImplementor metamodel = mock(MappingMetamodelImplementor.class);
+        EntityPersister persister = mock(EntityPersister.class);
+        NaturalIdMapping mapping = mock(NaturalIdMapping.class);
+        NaturalIdDataAccess access = mock(NaturalIdDataAccess.class);
+        SessionImplementor session = mock(SessionImplementor.class, withSettings().withoutAnnotations());
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getMappingMetamodel()).thenReturn(metamodel);
+        when(metamodel.getEntityDescriptor(User.class.getName())).thenReturn(persister);
+        when(persister.getNaturalIdMapping()).thenReturn(mapping);
+        when(mapping.getCacheAccess()).thenReturn(access);
+        when(mapping.normalizeInput(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sessionFactory.openSession()).thenReturn(session);
+        when(access.generateCacheKey(any(), eq(persister), eq(session))).thenAnswer(invocation ->
+                "key:" + invocation.getArgument(0));
+        return access;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(
+                SecondLevelCacheInvalidator.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package com.redgit.auth.controller;
+
+import com.redgit.auth.controllers.AuthController;
+import com.redgit.auth.controllers.DTO.LoginRequestDTO;
+import com.redgit.auth.controllers.DTO.RegisterRequestDTO;
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.ratelimit.ClientIpResolver;
+import com.redgit.auth.infrastructure.ratelimit.CredentialStuffingGuard;
+import com.redgit.auth.infrastructure.redis.LoginAttemptStatus;
+import com.redgit.auth.infrastructure.redis.RateLimitService;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.service.PasswordHashingService;
+import com.redgit.auth.service.TokenService;
+import com.redgit.auth.service.UserService;
+import com.redgit.auth.service.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do AuthController")
+class AuthControllerTest {
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CredentialStuffingGuard credentialStuffingGuard;
+
+    @Mock
+    private ClientIpResolver clientIpResolver;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @InjectMocks
+    private AuthController authController;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(readYourWrites.readFresh(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(clientIpResolver.resolve(any())).thenReturn("203.0.113.1");
+        lenient().when(rateLimitService.check(anyString())).thenReturn(new LoginAttemptStatus(false, 5, 0));
+    }
+
+    @Test
+    @DisplayName("Cadastro marca email e id como recém-gravados, para o login seguinte ler do primário")
+    void register_MarksEmailAndUserAsWritten() {
+        UUID userId = UUID.randomUUID();
+        when(repository.findByEmail("novo@test.com")).thenReturn(Optional.empty());
+        when(repository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(userId);
+            return user;
+        });
+
+        authController.register(new RegisterRequestDTO("Novo Usuario", "novo@test.com", "Senha@123"));
+
+        verify(readYourWrites).readFresh(eq(ReadYourWritesTracker.emailKey("novo@test.com")), any());
+        verify(readYourWrites).markWrite(ReadYourWritesTracker.emailKey("novo@test.com"));
+        verify(readYourWrites).markWrite(ReadYourWritesTracker.userKey(userId));
+    }
+
+    @Test
+    @DisplayName("Cadastro de ADMIN também marca email e id como recém-gravados")
+    void registerAdmin_MarksEmailAndUserAsWritten() {
+        UUID userId = UUID.randomUUID();
+        when(repository.findByEmail("admin@test.com")).thenReturn(Optional.empty());
+        when(repository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(userId);
+            return user;
+        });
+
+        authController.registerAdmin(new RegisterRequestDTO("Admin Novo", "admin@test.com", "Senha@123"));
+
+        verify(readYourWrites).markWrite(ReadYourWritesTracker.emailKey("admin@test.com"));
+        verify(readYourWrites).markWrite(ReadYourWritesTracker.userKey(userId));
+    }
+
+    @Test
+    @DisplayName("Email já cadastrado não grava nem marca nada")
+    void register_ExistingEmail_DoesNotMark() {
+        when(repository.findByEmail("existe@test.com")).thenReturn(Optional.of(new User()));
+
+        assertThat(authController.register(new RegisterRequestDTO("Ja Existe", "existe@test.com", "Senha@123"))
+                .getStatusCode().value()).isEqualTo(400);
+
+        verify(repository, never()).save(any());
+        verify(readYourWrites, never()).markWrite(anyString());
+    }
+
+    @Test
+    @DisplayName("Login busca o usuário por readFresh na chave do email")
+    void login_LooksUpUserThroughReadFresh() {
+        User user = new User();
+        user.setEmail("login@test.com");
+        user.setName("Login");
+        user.setPassword("hash");
+        when(repository.findByEmail("login@test.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("Senha@123", "hash")).thenReturn(true);
+        when(tokenService.generateToken(user)).thenReturn("token");
+
+        assertThat(authController.login(new LoginRequestDTO("login@test.com", "Senha@123"), new MockHttpServletRequest())
+                .getStatusCode().value()).isEqualTo(200);
+
+        verify(readYourWrites).readFresh(eq(ReadYourWritesTracker.emailKey("login@test.com")), any());
+    }
+}
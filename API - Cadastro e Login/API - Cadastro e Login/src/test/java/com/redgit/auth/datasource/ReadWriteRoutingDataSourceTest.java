@@ -0,0 +1,170 @@
+package com.redgit.auth.datasource;
+
+import com.redgit.auth.infrastructure.datasource.ReadWriteRoutingDataSource;
+import com.redgit.auth.infrastructure.datasource.ReadWriteRoutingDataSource.Route;
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.auth.infrastructure.datasource.ReplicaLagMonitor;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.redis.RedisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do roteamento primário/réplica")
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private ReadYourWritesTracker tracker;
+    private ReplicaLagMonitor lagMonitor;
+    private TestRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ReadYourWritesTracker(redisService);
+        ReflectionTestUtils.setField(tracker, "replicaUrl", "jdbc:mysql://replica:3306/db");
+        lagMonitor = new ReplicaLagMonitor(replicaJdbcTemplate, 5);
+
+        routing = new TestRoutingDataSource(lagMonitor, tracker);
+        routing.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Transação de escrita sempre vai para o primário")
+    void readWriteTransaction_UsesPrimary() {
+        replicaLag(0L);
+
+        assertThat(routing.route()).isEqualTo(Route.PRIMARY);
+    }
+
+    @Test
+    @DisplayName("Transação readOnly vai para a réplica saudável")
+    void readOnlyTransaction_HealthyReplica_UsesReplica() {
+        replicaLag(1L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.route()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    @DisplayName("Réplica atrasada além do limite ou com replicação parada devolve leituras ao primário")
+    void readOnlyTransaction_LaggingReplica_UsesPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        replicaLag(30L);
+        assertThat(routing.route()).isEqualTo(Route.PRIMARY);
+
+        replicaLag(null);
+        assertThat(routing.route()).isEqualTo(Route.PRIMARY);
+        assertThat(lagMonitor.getLastLagSeconds()).isNull();
+    }
+
+    @Test
+    @DisplayName("Usuário que acabou de gravar lê do primário dentro da janela")
+    void readOnlyTransaction_RecentOwnWrite_UsesPrimary() {
+        replicaLag(0L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        assertThat(routing.route()).isEqualTo(Route.REPLICA);
+
+        tracker.markWrite(ReadYourWritesTracker.userKey(user.getId()));
+
+        assertThat(routing.route()).isEqualTo(Route.PRIMARY);
+        verify(redisService).set(eq("ryw:user:" + user.getId()), eq("1"), eq(5L));
+    }
+
+    @Test
+    @DisplayName("Gravação registrada por outra instância é vista pelo Redis")
+    void isRecentlyWritten_FallsBackToRedis() {
+        when(redisService.exists("ryw:email:a@test.com")).thenReturn(true);
+        when(redisService.exists("ryw:email:b@test.com")).thenReturn(false);
+
+        assertThat(tracker.isRecentlyWritten(ReadYourWritesTracker.emailKey("a@test.com"))).isTrue();
+        assertThat(tracker.isRecentlyWritten(ReadYourWritesTracker.emailKey("b@test.com"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("readFresh fixa no primário só as leituras de chaves gravadas há pouco")
+    void readFresh_PinsRecentKeysToPrimary() {
+        replicaLag(0L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        tracker.markLocal(ReadYourWritesTracker.emailKey("a@test.com"));
+        AtomicReference<Object> route = new AtomicReference<>();
+
+        tracker.readFresh(ReadYourWritesTracker.emailKey("a@test.com"), () -> route.getAndSet(routing.route()));
+        assertThat(route.get()).isEqualTo(Route.PRIMARY);
+
+        tracker.readFresh(ReadYourWritesTracker.emailKey("b@test.com"), () -> route.getAndSet(routing.route()));
+        assertThat(route.get()).isEqualTo(Route.REPLICA);
+        assertThat(routing.route()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    @DisplayName("Sem réplica configurada o rastreador não consulta nem grava no Redis")
+    void tracker_Disabled_IsNoOp() {
+        ReflectionTestUtils.setField(tracker, "replicaUrl", "");
+
+        tracker.markWrite("user:1");
+
+        assertThat(tracker.isRecentlyWritten("user:1")).isFalse();
+        verifyNoInteractions(redisService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replicaLag(Long seconds) {
+        when(replicaJdbcTemplate.query(anyString(), any(ResultSetExtractor.class))).thenReturn(seconds);
+        lagMonitor.check();
+    }
+
+    private static class TestRoutingDataSource extends ReadWriteRoutingDataSource {
+
+        TestRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+            super(lagMonitor, readYourWrites);
+        }
+
+        Object route() {
+            return determineCurrentLookupKey();
+        }
+    }
+}
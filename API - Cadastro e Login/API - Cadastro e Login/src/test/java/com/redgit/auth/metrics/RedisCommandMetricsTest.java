@@ -0,0 +1,77 @@
+package com.redgit.auth.metrics;
+
+import com.redgit.auth.infrastructure.metrics.CacheMetrics;
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes das métricas de Redis e cache")
+class RedisCommandMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    @DisplayName("Família é o primeiro segmento da chave, sem ids ou emails")
+    void family_UsesFirstKeySegment() {
+        assertThat(RedisCommandMetrics.family("blacklist:eyJhbGciOi")).isEqualTo("blacklist");
+        assertThat(RedisCommandMetrics.family("stuffing:block:10.0.0.1")).isEqualTo("stuffing");
+        assertThat(RedisCommandMetrics.family("semprefixo")).isEqualTo("other");
+        assertThat(RedisCommandMetrics.family("")).isEqualTo("other");
+    }
+
+    @Test
+    @DisplayName("Comando bem-sucedido é cronometrado por operação e família")
+    void record_Success_TimesCommand() {
+        String result = RedisCommandMetrics.record("get", "token", () -> "valor");
+
+        assertThat(result).isEqualTo("valor");
+        Timer timer = registry.find("redis.commands")
+                .tags("op", "get", "family", "token", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Falha do comando é registrada como erro e a exceção segue para quem chamou")
+    void record_Failure_RecordsErrorAndRethrows() {
+        assertThatThrownBy(() -> RedisCommandMetrics.record("set", "token", () -> {
+            throw new IllegalStateException("conexão recusada");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get("redis.commands")
+                .tags("op", "set", "family", "token", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Hits e misses são contados separadamente por cache")
+    void cacheMetrics_CountsHitsAndMisses() {
+        CacheMetrics.record("principal", true);
+        CacheMetrics.record("principal", true);
+        CacheMetrics.record("principal", false);
+
+        assertThat(registry.get("cache.gets").tags("cache", "principal", "result", "hit").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("cache.gets").tags("cache", "principal", "result", "miss").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.redgit.auth.metrics;
+
+import com.redgit.auth.infrastructure.metrics.IoKind;
+import com.redgit.auth.infrastructure.metrics.IoStats;
+import com.redgit.auth.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.auth.infrastructure.metrics.RequestIoFilter;
+import com.redgit.auth.infrastructure.metrics.RequestIoTracer;
+import com.redgit.auth.support.IoBudget;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes do rastreamento de I/O por requisição")
+class RequestIoTracerTest {
+
+    @Test
+    @DisplayName("Comandos dentro do escopo são contados com o tempo de espera")
+    void begin_CountsCallsInsideScope() {
+        IoStats stats = RequestIoTracer.begin();
+        try {
+            RedisCommandMetrics.record("get", "token", () -> "valor");
+            RedisCommandMetrics.record("exists", "ryw", () -> true);
+            RequestIoTracer.record(IoKind.JDBC, 2_000_000);
+        } finally {
+            RequestIoTracer.end(stats);
+        }
+
+        assertThat(stats.calls(IoKind.REDIS)).isEqualTo(2);
+        assertThat(stats.calls(IoKind.JDBC)).isEqualTo(1);
+        assertThat(stats.nanos(IoKind.JDBC)).isEqualTo(2_000_000);
+    }
+
+    @Test
+    @DisplayName("Fora de um escopo (jobs agendados) nada é registrado")
+    void record_OutsideScope_IsIgnored() {
+        RequestIoTracer.record(IoKind.REDIS, 1_000);
+
+        IoStats stats = RequestIoTracer.begin();
+        RequestIoTracer.end(stats);
+
+        assertThat(stats.calls(IoKind.REDIS)).isZero();
+    }
+
+    @Test
+    @DisplayName("Escopo aninhado também conta para o escopo de fora")
+    void nestedScope_PropagatesToParent() {
+        IoStats outer = RequestIoTracer.begin();
+        try {
+            IoStats inner = RequestIoTracer.begin();
+            RequestIoTracer.record(IoKind.REDIS, 1_000);
+            RequestIoTracer.end(inner);
+
+            RequestIoTracer.record(IoKind.REDIS, 1_000);
+
+            assertThat(inner.calls(IoKind.REDIS)).isEqualTo(1);
+        } finally {
+            RequestIoTracer.end(outer);
+        }
+
+        assertThat(outer.calls(IoKind.REDIS)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Filtro escreve o Server-Timing antes do commit da resposta")
+    void filter_WritesServerTimingHeader() throws Exception {
+        RequestIoFilter filter = new RequestIoFilter();
+        ReflectionTestUtils.setField(filter, "headerEnabled", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                RedisCommandMetrics.record("get", "token", () -> null);
+                res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+                res.flushBuffer();
+            }
+        }));
+
+        assertThat(response.getHeader(RequestIoFilter.HEADER))
+                .startsWith("redis;desc=\"1 calls\";dur=")
+                .contains("jdbc;desc=\"0 calls\"");
+    }
+
+    @Test
+    @DisplayName("Sem configuração o filtro não expõe o Server-Timing")
+    void filter_HeaderDisabledByDefault() throws Exception {
+        RequestIoFilter filter = new RequestIoFilter();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/me"), response, new MockFilterChain());
+
+        assertThat(response.getHeader(RequestIoFilter.HEADER)).isNull();
+    }
+
+    @Test
+    @DisplayName("IoBudget falha quando o trecho excede o número de chamadas declarado")
+    void ioBudget_FailsWhenExceeded() throws Exception {
+        IoBudget.limit().redis(2).check(() -> {
+            RedisCommandMetrics.record("get", "token", () -> null);
+            RedisCommandMetrics.record("get", "token", () -> null);
+        });
+
+        assertThatThrownBy(() -> IoBudget.limit().redis(2).jdbc(0).check(() -> {
+            for (int i = 0; i < 3; i++) {
+                RedisCommandMetrics.record("get", "token", () -> null);
+            }
+        }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("redis 3 > 2");
+    }
+}
@@ -0,0 +1,150 @@
+package com.redgit.auth.ratelimit;
+
+import com.redgit.auth.infrastructure.ratelimit.CountMinSketch;
+import com.redgit.auth.infrastructure.ratelimit.CredentialStuffingGuard;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.redis.RedisService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes de detecção de credential stuffing")
+class CredentialStuffingGuardTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Spy
+    private RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+
+    @InjectMocks
+    private CredentialStuffingGuard guard;
+
+    @Test
+    @DisplayName("Count-Min Sketch nunca subestima e mantém chaves separadas")
+    void countMinSketch_EstimatesAtLeastRealCount() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 50; i++) {
+            sketch.add("10.0.0.1", 1);
+        }
+        sketch.add("10.0.0.2", 3);
+
+        assertThat(sketch.estimate("10.0.0.1")).isGreaterThanOrEqualTo(50);
+        assertThat(sketch.estimate("10.0.0.2")).isGreaterThanOrEqualTo(3).isLessThan(50);
+    }
+
+    @Test
+    @DisplayName("Drenar o sketch durante adições concorrentes não perde contagens")
+    void countMinSketch_DrainDuringConcurrentAdds_KeepsEveryCount() throws Exception {
+        CountMinSketch sketch = new CountMinSketch(1, 1);
+        int threads = 4;
+        int addsPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    sketch.add("10.0.0.1", 1);
+                }
+                return null;
+            });
+        }
+
+        long drained = 0;
+        start.countDown();
+        executor.shutdown();
+        while (!executor.isTerminated()) {
+            CountMinSketch delta = sketch.drain();
+            if (delta != null) {
+                drained += delta.estimate("10.0.0.1");
+            }
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        CountMinSketch rest = sketch.drain();
+        drained += rest != null ? rest.estimate("10.0.0.1") : 0;
+
+        assertThat(drained).isEqualTo((long) threads * addsPerThread);
+        assertThat(sketch.drain()).isNull();
+    }
+
+    @Test
+    @DisplayName("Falha ao mesclar devolve as contagens ao sketch pendente")
+    void mergeSketch_RedisFailure_KeepsPendingFailures() {
+        ReflectionTestUtils.setField(guard, "heavyHitterFailures", 3L);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RuntimeException("Redis fora do ar"));
+
+        guard.recordFailure("203.0.113.10", "a@test.com");
+        guard.recordFailure("203.0.113.10", "b@test.com");
+        guard.mergeSketch();
+        guard.recordFailure("203.0.113.10", "c@test.com");
+
+        assertThat(guard.check("203.0.113.10")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Origem com volume alto de falhas é bloqueada localmente, mesmo sem Redis")
+    void recordFailure_HeavyHitter_BlocksWithoutRedis() {
+        ReflectionTestUtils.setField(guard, "heavyHitterFailures", 3L);
+
+        for (int i = 0; i < 3; i++) {
+            guard.recordFailure("203.0.113.9", "vitima" + i + "@test.com");
+        }
+
+        assertThat(guard.check("203.0.113.9")).isPositive();
+        assertThat(guard.getStats().blocksIssued()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Volume alto espalhado pela sub-rede bloqueia a sub-rede inteira")
+    void recordFailure_SubnetHeavyHitter_BlocksSubnet() {
+        ReflectionTestUtils.setField(guard, "subnetHeavyHitterFailures", 6L);
+
+        for (int i = 0; i < 6; i++) {
+            guard.recordFailure("203.0.113." + (10 + i), "vitima" + i + "@test.com");
+        }
+
+        assertThat(guard.check("203.0.113.200")).isPositive();
+        assertThat(guard.check("198.51.100.1")).isZero();
+        verify(redisService).set("stuffing:block:203.0.113.0/24", "1", 900L);
+    }
+
+    @Test
+    @DisplayName("Bloqueio por emails distintos vindo do Redis barra a origem")
+    void recordFailure_DistinctEmailsThresholdInRedis_BlocksSource() {
+        when(redisService.executeScript(any(), anyList(), any(Object[].class)))
+                .thenReturn(List.of(900L, 20L, 20L));
+
+        guard.recordFailure("198.51.100.7", "alvo@test.com");
+
+        assertThat(guard.check("198.51.100.7")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Origem sem falhas não é bloqueada")
+    void check_CleanSource_ReturnsZero() {
+        assertThat(guard.check("192.0.2.1")).isZero();
+    }
+}
@@ -0,0 +1,111 @@
+package com.redgit.auth.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.ratelimit.ClientIpResolver;
+import com.redgit.auth.infrastructure.ratelimit.RateLimitDecision;
+import com.redgit.auth.infrastructure.ratelimit.RateLimitProperties;
+import com.redgit.auth.infrastructure.ratelimit.RequestRateLimitFilter;
+import com.redgit.auth.infrastructure.ratelimit.RequestRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Usa as políticas do application.properties de verdade: a ordem delas decide qual casa primeiro
+@DisplayName("Testes do filtro de rate limit por rota")
+class RequestRateLimitFilterTest {
+
+    private RequestRateLimiter rateLimiter;
+    private RequestRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new ResourcePropertySource("classpath:application.properties"));
+        RateLimitProperties properties = Binder.get(environment).bind("ratelimit", RateLimitProperties.class).get();
+
+        rateLimiter = mock(RequestRateLimiter.class);
+        when(rateLimiter.tryConsume(any(), anyString())).thenReturn(new RateLimitDecision(true, 0));
+
+        filter = new RequestRateLimitFilter(properties, rateLimiter, new ClientIpResolver(properties),
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/login é limitado por IP mesmo com usuário autenticado")
+    void login_UsesIpPolicy() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        filter.doFilter(request("POST", "/api/auth/login"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<RateLimitProperties.Policy> policy = ArgumentCaptor.forClass(RateLimitProperties.Policy.class);
+        verify(rateLimiter).tryConsume(policy.capture(), eq("ip:10.0.0.1"));
+        assertThat(policy.getValue().getName()).isEqualTo("login");
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/register casa a política de cadastro")
+    void register_UsesRegisterPolicy() throws Exception {
+        filter.doFilter(request("POST", "/api/auth/register"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<RateLimitProperties.Policy> policy = ArgumentCaptor.forClass(RateLimitProperties.Policy.class);
+        verify(rateLimiter).tryConsume(policy.capture(), eq("ip:10.0.0.1"));
+        assertThat(policy.getValue().getName()).isEqualTo("register");
+    }
+
+    @Test
+    @DisplayName("Rotas sem política seguem a cadeia sem consultar o limitador")
+    void routeWithoutPolicy_IsNotLimited() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("GET", "/api/auth/login"), new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(rateLimiter);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Responde 429 com Retry-After e não segue a cadeia quando o balde está vazio")
+    void rejected_Returns429() throws Exception {
+        when(rateLimiter.tryConsume(any(), anyString())).thenReturn(new RateLimitDecision(false, 30));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("POST", "/api/auth/login"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("30");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    private MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -0,0 +1,132 @@
+package com.redgit.auth.ratelimit;
+
+import com.redgit.auth.infrastructure.ratelimit.ClientIpResolver;
+import com.redgit.auth.infrastructure.ratelimit.RateLimitDecision;
+import com.redgit.auth.infrastructure.ratelimit.RateLimitProperties;
+import com.redgit.auth.infrastructure.ratelimit.RequestRateLimiter;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.support.IoBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Testes do rate limit por rota")
+class RequestRateLimiterTest {
+
+    private RateLimitProperties properties;
+    private StringRedisTemplate stringRedisTemplate;
+    private RequestRateLimiter rateLimiter;
+    private RateLimitProperties.Policy policy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        rateLimiter = new RequestRateLimiter(properties, stringRedisTemplate, new RedisCircuitBreaker());
+
+        policy = new RateLimitProperties.Policy();
+        policy.setName("login");
+        policy.setPath("/api/auth/login");
+        policy.setCapacity(2);
+        policy.setRefillTokens(2);
+        policy.setRefillPeriod(Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Modo local rejeita após esgotar o balde e informa Retry-After")
+    void localMode_RejectsWhenBucketIsEmpty() {
+        assertThat(rateLimiter.tryConsume(policy, "ip:1.1.1.1").allowed()).isTrue();
+        assertThat(rateLimiter.tryConsume(policy, "ip:1.1.1.1").allowed()).isTrue();
+
+        RateLimitDecision decision = rateLimiter.tryConsume(policy, "ip:1.1.1.1");
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.retryAfterSeconds()).isBetween(1L, 30L);
+        assertThat(rateLimiter.tryConsume(policy, "ip:2.2.2.2").allowed()).isTrue();
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    @DisplayName("Modo redis cai para o balde local quando o Redis falha")
+    @SuppressWarnings("unchecked")
+    void redisMode_FallsBackToLocalOnFailure() {
+        properties.setMode(RateLimitProperties.Mode.REDIS);
+        when(stringRedisTemplate.execute(any(), anyList(), any(Object[].class)))
+                .thenThrow(new RuntimeException("Redis fora do ar"));
+
+        rateLimiter.tryConsume(policy, "ip:1.1.1.1");
+        rateLimiter.tryConsume(policy, "ip:1.1.1.1");
+
+        assertThat(rateLimiter.tryConsume(policy, "ip:1.1.1.1").allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Modo redis decide com um único comando por requisição")
+    @SuppressWarnings("unchecked")
+    void redisMode_UsesSingleCommandPerRequest() throws Exception {
+        properties.setMode(RateLimitProperties.Mode.REDIS);
+        when(stringRedisTemplate.execute(any(), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L));
+
+        IoBudget.limit().redis(1).check(() ->
+                assertThat(rateLimiter.tryConsume(policy, "ip:1.1.1.1").allowed()).isTrue());
+    }
+
+    @Test
+    @DisplayName("Ao atingir o limite de baldes, quem está sendo limitado continua limitado")
+    void localMode_Eviction_KeepsThrottledBuckets() {
+        properties.setMaxLocalBuckets(10);
+        rateLimiter.tryConsume(policy, "ip:6.6.6.6");
+        rateLimiter.tryConsume(policy, "ip:6.6.6.6");
+
+        for (int i = 0; i < 30; i++) {
+            rateLimiter.tryConsume(policy, "ip:10.0.0." + i);
+            assertThat(rateLimiter.tryConsume(policy, "ip:6.6.6.6").allowed()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("IPv6 é contado pelo /64; IPv4 por endereço")
+    void clientIpResolver_GroupsIpv6By64() {
+        ClientIpResolver resolver = new ClientIpResolver(properties);
+
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.setRemoteAddr("2001:db8:1:2:aaaa::1");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.setRemoteAddr("2001:db8:1:2:bbbb::7");
+        MockHttpServletRequest otherNetwork = new MockHttpServletRequest();
+        otherNetwork.setRemoteAddr("2001:db8:1:3::1");
+        MockHttpServletRequest ipv4 = new MockHttpServletRequest();
+        ipv4.setRemoteAddr("203.0.113.7");
+
+        assertThat(resolver.resolveNetwork(first)).isEqualTo(resolver.resolveNetwork(second));
+        assertThat(resolver.resolveNetwork(first)).isNotEqualTo(resolver.resolveNetwork(otherNetwork));
+        assertThat(resolver.resolveNetwork(ipv4)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    @DisplayName("X-Forwarded-For só é usado quando a conexão vem de proxy confiável")
+    void clientIpResolver_TrustsOnlyConfiguredProxies() {
+        ClientIpResolver resolver = new ClientIpResolver(properties);
+
+        MockHttpServletRequest direct = new MockHttpServletRequest();
+        direct.setRemoteAddr("203.0.113.7");
+        direct.addHeader("X-Forwarded-For", "10.0.0.1");
+
+        MockHttpServletRequest proxied = new MockHttpServletRequest();
+        proxied.setRemoteAddr("127.0.0.1");
+        proxied.addHeader("X-Forwarded-For", "198.51.100.4, 127.0.0.1");
+
+        assertThat(resolver.resolve(direct)).isEqualTo("203.0.113.7");
+        assertThat(resolver.resolve(proxied)).isEqualTo("198.51.100.4");
+    }
+}
@@ -0,0 +1,79 @@
+package com.redgit.auth.redis;
+
+import com.redgit.auth.infrastructure.redis.LoginAttemptStatus;
+import com.redgit.auth.infrastructure.redis.RateLimitService;
+import com.redgit.auth.infrastructure.redis.RedisService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do RateLimitService")
+class RateLimitServiceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @InjectMocks
+    private RateLimitService rateLimitService;
+
+    @Test
+    @DisplayName("recordFailure faz uma única chamada ao Redis e devolve o status completo")
+    void recordFailure_SingleScriptCall_ReturnsStatus() {
+        when(redisService.executeScript(any(), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 3L, 0L));
+
+        LoginAttemptStatus status = rateLimitService.recordFailure("user@test.com");
+
+        assertThat(status.blocked()).isFalse();
+        assertThat(status.remainingAttempts()).isEqualTo(3);
+        verify(redisService, times(1)).executeScript(
+                any(), eq(List.of("ratelimit:user@test.com", "blocked:user@test.com")), any(Object[].class));
+        verifyNoMoreInteractions(redisService);
+    }
+
+    @Test
+    @DisplayName("check informa bloqueio e tempo restante")
+    void check_Blocked_ReturnsRemainingSeconds() {
+        when(redisService.executeScript(any(), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L, 120L));
+
+        LoginAttemptStatus status = rateLimitService.check("user@test.com");
+
+        assertThat(status.blocked()).isTrue();
+        assertThat(status.blockSecondsRemaining()).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("Falha no Redis não bloqueia o login")
+    void check_RedisUnavailable_FailsOpen() {
+        when(redisService.executeScript(any(), anyList(), any(Object[].class))).thenReturn(null);
+
+        LoginAttemptStatus status = rateLimitService.check("user@test.com");
+
+        assertThat(status.blocked()).isFalse();
+        assertThat(status.remainingAttempts()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Com \"ratelimit\" em fail-closed, Redis indisponível bloqueia o login até a próxima sonda")
+    void check_RedisUnavailable_FailClosed_Blocks() {
+        when(redisService.executeScript(any(), anyList(), any(Object[].class))).thenReturn(null);
+        when(redisService.isFailClosed("ratelimit:user@test.com")).thenReturn(true);
+        when(redisService.circuitRetryAfterSeconds("ratelimit")).thenReturn(4L);
+
+        LoginAttemptStatus status = rateLimitService.check("user@test.com");
+
+        assertThat(status.blocked()).isTrue();
+        assertThat(status.blockSecondsRemaining()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,132 @@
+package com.redgit.auth.redis;
+
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.redis.RedisCircuitOpenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes do circuit breaker do Redis")
+class RedisCircuitBreakerTest {
+
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new RedisCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+    }
+
+    @Test
+    @DisplayName("Abre após falhas seguidas e recusa sem chamar o Redis")
+    void execute_OpensAfterConsecutiveFailures() {
+        failTimes(3);
+
+        assertThat(breaker.getState("blacklist")).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(breaker.isOpen("blacklist")).isTrue();
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> breaker.execute("get", "blacklist", calls::incrementAndGet))
+                .isInstanceOf(RedisCircuitOpenException.class);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Sucesso no meio da sequência zera a contagem de falhas")
+    void execute_SuccessResetsFailures() {
+        failTimes(2);
+        breaker.execute("get", "blacklist", () -> "ok");
+        failTimes(2);
+
+        assertThat(breaker.getState("blacklist")).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Comando lento conta como falha (brownout)")
+    void execute_SlowCallCountsAsFailure() {
+        ReflectionTestUtils.setField(breaker, "slowCallMillis", 0L);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.execute("get", "blacklist", () -> {
+                sleep(5);
+                return "ok";
+            });
+        }
+
+        assertThat(breaker.getState("blacklist")).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("Meio-aberto deixa passar uma sonda; sucesso fecha o circuito")
+    void halfOpen_SuccessfulProbeCloses() {
+        ReflectionTestUtils.setField(breaker, "openDurationMillis", 0L);
+        failTimes(3);
+
+        assertThat(breaker.execute("get", "blacklist", () -> "ok")).isEqualTo("ok");
+
+        assertThat(breaker.getState("blacklist")).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(breaker.isOpen("blacklist")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sonda com falha reabre o circuito")
+    void halfOpen_FailedProbeReopens() {
+        ReflectionTestUtils.setField(breaker, "openDurationMillis", 60_000L);
+        failTimes(3);
+        ReflectionTestUtils.setField(breaker, "openDurationMillis", 0L);
+
+        failTimes(1);
+
+        assertThat(breaker.getState("blacklist")).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(breaker.retryAfterSeconds("blacklist")).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Falhas de uma família não abrem o circuito das outras")
+    void execute_FailuresAreIsolatedPerFamily() {
+        failTimes(3);
+
+        assertThat(breaker.isOpen("blacklist")).isTrue();
+        assertThat(breaker.isOpen("ratelimit")).isFalse();
+        assertThat(breaker.execute("script", "ratelimit", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("Só as famílias configuradas falham fechado")
+    void isFailClosed_UsesKeyFamily() {
+        assertThat(breaker.isFailClosed("ryw:email:a@test.com")).isTrue();
+        assertThat(breaker.isFailClosed("blacklist:eyJhbGciOi")).isFalse();
+        assertThat(breaker.isFailClosed("ratelimit:a@test.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Desligado, nunca recusa comandos")
+    void disabled_NeverOpens() {
+        ReflectionTestUtils.setField(breaker, "enabled", false);
+        failTimes(10);
+
+        assertThat(breaker.isOpen("blacklist")).isFalse();
+        assertThat(breaker.execute("get", "blacklist", () -> "ok")).isEqualTo("ok");
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThatThrownBy(() -> breaker.execute("get", "blacklist", () -> {
+                throw new IllegalStateException("timeout");
+            })).isInstanceOf(RuntimeException.class);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.redgit.auth.redis;
+
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.redis.RedisService;
+import com.redgit.auth.infrastructure.redis.TokenRevocationStore;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.repository.UserTokenVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Testes da publicação de revogações")
+class TokenRevocationStoreTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private RedisStreamCommands streamCommands;
+    private UserRepository userRepository;
+    private TokenRevocationStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        userRepository = mock(UserRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+
+        streamCommands = mock(RedisStreamCommands.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.streamCommands()).thenReturn(streamCommands);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        store = new TokenRevocationStore(mock(RedisService.class), stringRedisTemplate, new RedisCircuitBreaker(),
+                userRepository, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Versões de um lote vão num único pipeline, uma entrada por usuário")
+    @SuppressWarnings("unchecked")
+    void revokeUserTokens_Batch_UsesSinglePipeline() {
+        store.revokeUserTokens(Map.of(UUID.randomUUID(), 1, UUID.randomUUID(), 2, UUID.randomUUID(), 5));
+
+        verify(stringRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(streamCommands, times(3)).xAdd(any(MapRecord.class));
+    }
+
+    @Test
+    @DisplayName("Publicação que falha é refeita a partir do banco em vez de descartada")
+    @SuppressWarnings("unchecked")
+    void republishPending_AfterFailure_RescansUpdatedUsers() {
+        UUID userId = UUID.randomUUID();
+        doThrow(new RuntimeException("Redis fora do ar"))
+                .when(streamCommands).xAdd(any(MapRecord.class));
+        store.revokeUserTokens(userId, 4);
+
+        reset(streamCommands);
+        UserTokenVersion version = mock(UserTokenVersion.class);
+        when(version.getId()).thenReturn(userId);
+        when(version.getTokenVersion()).thenReturn(4);
+        when(userRepository.findTokenVersionsUpdatedSince(any(), isNull(), any(Limit.class)))
+                .thenReturn(List.of(version));
+
+        store.republishPending();
+        store.republishPending();
+
+        verify(userRepository, times(1)).findTokenVersionsUpdatedSince(any(), isNull(), any(Limit.class));
+        verify(streamCommands).xAdd(argThat((MapRecord<byte[], byte[], byte[]> record) -> hasField(record, "uid", userId.toString())
+                && hasField(record, "ver", "4")));
+    }
+
+    @Test
+    @DisplayName("Remoção que falha fica em memória até publicar, pois não há linha para reler")
+    @SuppressWarnings("unchecked")
+    void republishPending_RemovedUser_RetriedFromMemory() {
+        UUID userId = UUID.randomUUID();
+        doThrow(new RuntimeException("Redis fora do ar"))
+                .when(streamCommands).xAdd(any(MapRecord.class));
+        store.revokeUserTokens(userId, Integer.MAX_VALUE);
+
+        reset(streamCommands);
+        when(userRepository.findTokenVersionsUpdatedSince(any(), any(), any(Limit.class))).thenReturn(List.of());
+
+        store.republishPending();
+
+        verify(streamCommands).xAdd(argThat((MapRecord<byte[], byte[], byte[]> record) ->
+                hasField(record, "ver", String.valueOf(Integer.MAX_VALUE))));
+    }
+
+    @Test
+    @DisplayName("Sem falhas pendentes a republicação não consulta o banco")
+    void republishPending_NothingPending_DoesNothing() {
+        store.republishPending();
+
+        verifyNoInteractions(userRepository);
+    }
+
+    private static boolean hasField(MapRecord<byte[], byte[], byte[]> record, String field, String value) {
+        return record.getValue().entrySet().stream().anyMatch(entry ->
+                new String(entry.getKey(), StandardCharsets.UTF_8).equals(field)
+                        && new String(entry.getValue(), StandardCharsets.UTF_8).equals(value));
+    }
+}
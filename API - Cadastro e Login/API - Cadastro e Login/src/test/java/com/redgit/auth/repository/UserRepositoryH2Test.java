@@ -0,0 +1,50 @@
+package com.redgit.auth.repository;
+
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sobe o EntityManagerFactory de verdade (gerador de id, cache L2, natural id) num H2 em memória,
+// sem depender do MySQL que o UserRepositoryTest usa
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@DisplayName("Testes do mapeamento de User em H2")
+class UserRepositoryH2Test {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Persiste o usuário com id UUID v7 gerado pela aplicação")
+    void persist_GeneratesUuidV7() {
+        User newUser = new User();
+        newUser.setEmail("h2@email.com");
+        newUser.setPassword("123");
+        newUser.setName("Teste");
+
+        entityManager.persistAndFlush(newUser);
+        entityManager.clear();
+
+        assertThat(newUser.getId()).isNotNull();
+        assertThat(newUser.getId().version()).isEqualTo(7);
+        assertThat(userRepository.findByEmail("h2@email.com"))
+                .get()
+                .extracting(User::getId)
+                .isEqualTo(newUser.getId());
+    }
+}
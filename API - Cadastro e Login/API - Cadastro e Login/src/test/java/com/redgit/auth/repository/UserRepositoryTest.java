@@ -2,17 +2,21 @@ package com.redgit.auth.repository;
 
 import com.redgit.auth.infrastructure.entity.User;
 import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.support.IoBudget;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -48,4 +52,58 @@ public class UserRepositoryTest {
 
         assertThat(result).isEmpty();
     }
+
+    @Test
+    @DisplayName("findByEmail (natural id) acompanha a troca de email")
+    void findByEmailAfterEmailChange() {
+        User newUser = new User();
+        newUser.setEmail("antigo@email.com");
+        newUser.setPassword("123");
+        newUser.setName("Teste");
+        entityManager.persistAndFlush(newUser);
+
+        newUser.setEmail("novo@email.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(userRepository.findByEmail("novo@email.com")).isPresent();
+        assertThat(userRepository.findByEmail("antigo@email.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findByEmail resolve o natural id e carrega o usuário sem consultas extras")
+    void findByEmailWithinIoBudget() throws Exception {
+        User newUser = new User();
+        newUser.setEmail("orcamento@email.com");
+        newUser.setPassword("123");
+        newUser.setName("Teste");
+        entityManager.persistAndFlush(newUser);
+        entityManager.clear();
+
+        IoBudget.limit().jdbc(2).check(() ->
+                assertThat(userRepository.findByEmail("orcamento@email.com")).isPresent());
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todos os usuários por cursor sem repetir nem pular")
+    void findPageAfterWalksAllUsers() {
+        for (int i = 0; i < 3; i++) {
+            User newUser = new User();
+            newUser.setEmail("keyset" + i + "@email.com");
+            newUser.setPassword("123");
+            newUser.setName("Keyset " + i);
+            entityManager.persist(newUser);
+        }
+        entityManager.flush();
+
+        List<String> emails = new ArrayList<>();
+        List<User> page = userRepository.findPageAfter(null, null, null, null, null, Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(user -> emails.add(user.getEmail()));
+            User last = page.get(page.size() - 1);
+            page = userRepository.findPageAfter(null, null, null, last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        assertThat(emails).containsExactlyInAnyOrder("keyset0@email.com", "keyset1@email.com", "keyset2@email.com");
+    }
 }
@@ -0,0 +1,47 @@
+package com.redgit.auth.repository;
+
+import com.redgit.auth.infrastructure.entity.UuidV7Generator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes do UuidV7Generator")
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Gera UUID versão 7 com a variante RFC")
+    void next_HasVersion7AndRfcVariant() {
+        UUID id = UuidV7Generator.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ids gerados em sequência ficam em ordem crescente de bytes")
+    void next_IsMonotonicInByteOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // Ordem hexadecimal == ordem dos bytes no BINARY(16)
+            ids.add(UuidV7Generator.next().toString());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Os 48 bits mais significativos são o timestamp em milissegundos")
+    void next_EncodesTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+
+        long timestamp = id.getMostSignificantBits() >>> 16;
+
+        assertThat(timestamp).isGreaterThanOrEqualTo(before);
+    }
+}
@@ -0,0 +1,90 @@
+package com.redgit.auth.security;
+
+import com.redgit.auth.infrastructure.security.PasswordEncoderCalibrator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Testes do PasswordEncoderCalibrator")
+class PasswordEncoderCalibratorTest {
+
+    @Test
+    @DisplayName("Hash BCrypt antigo sem prefixo continua válido e é marcado para atualização")
+    void legacyBcryptHash_MatchesAndNeedsUpgrade() {
+        PasswordEncoder encoder = PasswordEncoderCalibrator.build("bcrypt", 250, false, 310_000);
+        String legacy = new BCryptPasswordEncoder(4).encode("senha");
+
+        assertThat(encoder.matches("senha", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Hash gerado com os parâmetros atuais não precisa de atualização")
+    void currentHash_DoesNotNeedUpgrade() {
+        PasswordEncoder encoder = PasswordEncoderCalibrator.build("bcrypt", 250, false, 310_000);
+        String hash = encoder.encode("senha");
+
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(encoder.matches("senha", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Trocar o algoritmo marca hashes do algoritmo anterior para atualização")
+    void algorithmChange_MarksOldHashesForUpgrade() {
+        String bcryptHash = PasswordEncoderCalibrator.build("bcrypt", 250, false, 310_000).encode("senha");
+        PasswordEncoder pbkdf2 = PasswordEncoderCalibrator.build("pbkdf2", 250, false, 310_000);
+
+        assertThat(pbkdf2.matches("senha", bcryptHash)).isTrue();
+        assertThat(pbkdf2.upgradeEncoding(bcryptHash)).isTrue();
+    }
+
+    @Test
+    @DisplayName("PBKDF2 usa as iterações da configuração: hashes continuam válidos entre subidas calibradas")
+    void pbkdf2_IsNotCalibrated() {
+        String hash = PasswordEncoderCalibrator.build("pbkdf2", 1, true, 310_000).encode("senha");
+        PasswordEncoder restarted = PasswordEncoderCalibrator.build("pbkdf2", 5_000, true, 310_000);
+
+        assertThat(restarted.matches("senha", hash)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Iterações do PBKDF2 abaixo do mínimo são rejeitadas")
+    void pbkdf2_BelowMinimum_Throws() {
+        assertThatThrownBy(() -> PasswordEncoderCalibrator.build("bcrypt", 250, false, 1_000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Algoritmo desconhecido é rejeitado")
+    void unknownAlgorithm_Throws() {
+        assertThatThrownBy(() -> PasswordEncoderCalibrator.build("md5", 250, false, 310_000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Reconhece hashes importáveis e rejeita formatos desconhecidos")
+    void isSupportedHash_RecognizesEncoderFormats() {
+        String legacy = new BCryptPasswordEncoder(4).encode("senha");
+
+        assertThat(PasswordEncoderCalibrator.isSupportedHash(legacy)).isTrue();
+        assertThat(PasswordEncoderCalibrator.isSupportedHash("{bcrypt}" + legacy)).isTrue();
+        assertThat(PasswordEncoderCalibrator.isSupportedHash("{md5}abc")).isFalse();
+        assertThat(PasswordEncoderCalibrator.isSupportedHash("senha")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Valida o formato completo de cada algoritmo e não aceita PBKDF2 importado")
+    void isSupportedHash_ValidatesFullFormat() {
+        String argon2 = PasswordEncoderCalibrator.build("argon2", 250, false, 310_000).encode("senha");
+        String pbkdf2 = PasswordEncoderCalibrator.build("pbkdf2", 250, false, 310_000).encode("senha");
+
+        assertThat(PasswordEncoderCalibrator.isSupportedHash(argon2)).isTrue();
+        assertThat(PasswordEncoderCalibrator.isSupportedHash("{bcrypt}garbage")).isFalse();
+        assertThat(PasswordEncoderCalibrator.isSupportedHash("{argon2}garbage")).isFalse();
+        assertThat(PasswordEncoderCalibrator.isSupportedHash(pbkdf2)).isFalse();
+    }
+}
@@ -0,0 +1,159 @@
+package com.redgit.auth.security;
+
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.security.PrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do PrincipalCache")
+class PrincipalCacheTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Spy
+    private RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+
+    @InjectMocks
+    private PrincipalCache principalCache;
+
+    private AtomicInteger loads;
+    private Function<String, User> loader;
+
+    @BeforeEach
+    void setUp() {
+        loads = new AtomicInteger();
+        loader = email -> {
+            loads.incrementAndGet();
+            User user = new User();
+            user.setEmail(email);
+            return user;
+        };
+        lenient().when(readYourWrites.readFresh(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @Test
+    @DisplayName("Segunda leitura do mesmo usuário não consulta o banco")
+    void get_CachedUser_DoesNotReload() {
+        principalCache.get("user@test.com", loader);
+        principalCache.get("user@test.com", loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("invalidate remove o usuário e publica para as outras instâncias")
+    void invalidate_RemovesAndBroadcasts() {
+        principalCache.get("user@test.com", loader);
+
+        principalCache.invalidate("user@test.com");
+        principalCache.get("user@test.com", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        verify(stringRedisTemplate).convertAndSend(PrincipalCache.CHANNEL, "user@test.com");
+    }
+
+    @Test
+    @DisplayName("Mensagem de outra instância remove o usuário do cache")
+    void onMessage_RemovesUser() {
+        principalCache.get("user@test.com", loader);
+
+        principalCache.onMessage(new DefaultMessage(
+                PrincipalCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "user@test.com".getBytes(StandardCharsets.UTF_8)), null);
+        principalCache.get("user@test.com", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        verify(readYourWrites).markLocal(ReadYourWritesTracker.emailKey("user@test.com"));
+    }
+
+    @Test
+    @DisplayName("invalidateAll remove vários usuários com uma única publicação")
+    void invalidateAll_SingleBroadcastForBatch() {
+        principalCache.get("a@test.com", loader);
+        principalCache.get("b@test.com", loader);
+
+        principalCache.invalidateAll(List.of("a@test.com", "b@test.com"));
+
+        assertThat(principalCache.size()).isZero();
+        verify(stringRedisTemplate).convertAndSend(PrincipalCache.CHANNEL, "a@test.com\nb@test.com");
+    }
+
+    @Test
+    @DisplayName("Mensagem em lote de outra instância remove todos os usuários listados")
+    void onMessage_BatchRemovesAllUsers() {
+        principalCache.get("a@test.com", loader);
+        principalCache.get("b@test.com", loader);
+        principalCache.get("c@test.com", loader);
+
+        principalCache.onMessage(new DefaultMessage(
+                PrincipalCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "a@test.com\nb@test.com".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(principalCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Alterar o usuário devolvido não altera o que está em cache")
+    void get_ReturnsCopy_CacheIsNotMutated() {
+        User first = principalCache.get("user@test.com", loader);
+        first.setRole(UserRole.ADMIN);
+        first.setAccountNonLocked(false);
+
+        User second = principalCache.get("user@test.com", loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getRole()).isEqualTo(UserRole.USER);
+        assertThat(second.isAccountNonLocked()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Carga concorrente com uma invalidação não recoloca o estado antigo no cache")
+    void get_InvalidatedDuringLoad_DoesNotCacheStaleUser() {
+        Function<String, User> racingLoader = email -> {
+            User stale = loader.apply(email);
+            // Commit de outra transação enquanto a leitura estava em andamento
+            principalCache.invalidate(email);
+            return stale;
+        };
+
+        principalCache.get("user@test.com", racingLoader);
+
+        assertThat(principalCache.size()).isZero();
+        principalCache.get("user@test.com", loader);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -2,24 +2,38 @@ package com.redgit.auth.service;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.redis.RedisService;
+import com.redgit.auth.infrastructure.redis.TokenRevocationStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TokenServiceTest {
 
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private TokenRevocationStore revocationStore;
+
     @InjectMocks
     private TokenService tokenService;
 
@@ -112,4 +126,99 @@ class TokenServiceTest {
         assertTrue(expirationDate.isAfter(now.plusSeconds(7199)), "A data de expiração deve ser aproximadamente 2 horas no futuro");
         assertTrue(expirationDate.isBefore(now.plusSeconds(7201)), "A data de expiração deve ser aproximadamente 2 horas no futuro");
     }
+
+    @Test
+    @DisplayName("Deve validar localmente sem consultar o Redis quando a lista de revogados está sincronizada")
+    void validateToken_withFreshRevocationList_shouldNotTouchRedis() {
+        // Arrange
+        User testUser = new User();
+        testUser.setEmail(TEST_EMAIL);
+        String token = tokenService.generateToken(testUser);
+        when(revocationStore.isFresh()).thenReturn(true);
+        when(revocationStore.isRevoked(anyString())).thenReturn(false);
+
+        // Act
+        String subject = tokenService.validateToken(token);
+
+        // Assert
+        assertEquals(TEST_EMAIL, subject);
+        verifyNoInteractions(redisService);
+        assertEquals(1, tokenService.getValidationStats().localHits());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token revogado na lista local")
+    void validateToken_withRevokedToken_shouldReturnNull() {
+        // Arrange
+        User testUser = new User();
+        testUser.setEmail(TEST_EMAIL);
+        String token = tokenService.generateToken(testUser);
+        when(revocationStore.isFresh()).thenReturn(true);
+        when(revocationStore.isRevoked(TokenRevocationStore.fingerprint(token))).thenReturn(true);
+
+        // Act
+        String subject = tokenService.validateToken(token);
+
+        // Assert
+        assertNull(subject);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o Redis quando a lista local está desatualizada")
+    void validateToken_withStaleRevocationList_shouldFallBackToRedis() {
+        // Arrange
+        User testUser = new User();
+        testUser.setEmail(TEST_EMAIL);
+        String token = tokenService.generateToken(testUser);
+        when(revocationStore.isFresh()).thenReturn(false);
+        when(redisService.exists("blacklist:" + token)).thenReturn(false);
+
+        // Act
+        String subject = tokenService.validateToken(token);
+
+        // Assert
+        assertEquals(TEST_EMAIL, subject);
+        verify(redisService).exists("blacklist:" + token);
+        assertEquals(1, tokenService.getValidationStats().localMisses());
+    }
+
+    @Test
+    @DisplayName("Com o circuito do Redis aberto deve usar a lista local mesmo desatualizada")
+    void validateToken_withCircuitOpen_shouldNotWaitForRedis() {
+        // Arrange
+        User testUser = new User();
+        testUser.setEmail(TEST_EMAIL);
+        String token = tokenService.generateToken(testUser);
+        when(revocationStore.isFresh()).thenReturn(false);
+        when(redisService.isCircuitOpen("blacklist")).thenReturn(true);
+        when(revocationStore.isRevoked(anyString())).thenReturn(false);
+
+        // Act
+        String subject = tokenService.validateToken(token);
+
+        // Assert
+        assertEquals(TEST_EMAIL, subject);
+        verify(redisService, never()).exists(anyString());
+    }
+
+    @Test
+    @DisplayName("Deve incluir id, role e versão do token nas claims")
+    void generateToken_shouldIncludePrincipalClaims() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        User testUser = new User();
+        testUser.setId(userId);
+        testUser.setEmail(TEST_EMAIL);
+        testUser.setRole(UserRole.ADMIN);
+        testUser.setTokenVersion(3);
+
+        // Act
+        String token = tokenService.generateToken(testUser);
+        DecodedJWT decoded = JWT.decode(token);
+
+        // Assert
+        assertEquals(userId.toString(), decoded.getClaim(TokenService.CLAIM_USER_ID).asString());
+        assertEquals("ADMIN", decoded.getClaim(TokenService.CLAIM_ROLE).asString());
+        assertEquals(3, decoded.getClaim(TokenService.CLAIM_TOKEN_VERSION).asInt());
+    }
 }
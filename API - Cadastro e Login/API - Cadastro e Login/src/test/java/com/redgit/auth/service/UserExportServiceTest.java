@@ -0,0 +1,118 @@
+package com.redgit.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.repository.UserExportRow;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do UserExportService")
+class UserExportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserExportService userExportService;
+
+    private UserExportRow row;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        userExportService = new UserExportService(userRepository, objectMapper);
+
+        row = new UserExportRow(
+                UUID.fromString("0190f3a2-7b1c-7000-8000-000000000001"),
+                "Silva, \"Zé\"",
+                "ze@test.com",
+                UserRole.USER,
+                true,
+                false,
+                LocalDateTime.of(2024, 1, 1, 10, 0)
+        );
+    }
+
+    @Test
+    @DisplayName("CSV tem cabeçalho e escapa vírgulas e aspas")
+    void export_Csv_WritesHeaderAndEscapedRows() throws IOException {
+        when(userRepository.streamForExport(UserRole.USER, null, false)).thenReturn(Stream.of(row));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export(UserFileFormat.CSV, UserRole.USER, null, true, out);
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,name,email,role,enabled,accountNonLocked,createdAt\n" +
+                "0190f3a2-7b1c-7000-8000-000000000001,\"Silva, \"\"Zé\"\"\",ze@test.com,USER,true,false,2024-01-01T10:00\n");
+    }
+
+    @Test
+    @DisplayName("CSV neutraliza valores que seriam interpretados como fórmula")
+    void toCsv_FormulaPrefix_IsNeutralized() {
+        UserExportRow formula = new UserExportRow(row.id(), "=HYPERLINK(\"x\")", "a@test.com",
+                UserRole.USER, true, true, row.createdAt());
+
+        assertThat(UserExportService.toCsv(formula)).contains(",\"'=HYPERLINK(\"\"x\"\")\",");
+    }
+
+    @Test
+    @DisplayName("NDJSON escreve um objeto JSON por linha")
+    void export_Ndjson_WritesOneObjectPerLine() throws IOException {
+        when(userRepository.streamForExport(null, null, null)).thenReturn(Stream.of(row, row));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.export(UserFileFormat.NDJSON, null, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"email\":\"ze@test.com\"").contains("\"createdAt\":\"2024-01-01T10:00:00\"");
+    }
+
+    @Test
+    @DisplayName("Cliente desconectado interrompe a exportação e fecha o stream do banco")
+    void export_ClientDisconnects_ClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamForExport(null, null, null))
+                .thenReturn(Stream.generate(() -> row).onClose(() -> closed.set(true)));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> userExportService.export(UserFileFormat.CSV, null, null, null, broken))
+                .isInstanceOf(IOException.class);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Formato desconhecido é rejeitado")
+    void format_Unknown_Throws() {
+        assertThat(UserFileFormat.from("NDJSON")).isEqualTo(UserFileFormat.NDJSON);
+        assertThatThrownBy(() -> UserFileFormat.from("xml"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,174 @@
+package com.redgit.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redgit.auth.controllers.DTO.UserImportRejectionDTO;
+import com.redgit.auth.controllers.DTO.UserImportResultDTO;
+import com.redgit.auth.infrastructure.entity.User;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do UserImportService")
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(
+                userRepository,
+                passwordHashingService,
+                userStatsService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                new TransactionTemplate(transactionManager),
+                entityManager
+        );
+    }
+
+    @Test
+    @DisplayName("CSV: importa linhas válidas e reporta inválidas, repetidas e já cadastradas")
+    @SuppressWarnings("unchecked")
+    void importCsv_ReportsEachRejectedRow() throws IOException {
+        String csv = """
+                name,email,password
+                Maria Silva,maria@test.com,Senha@123
+                Joao,joao@test.com,fraca
+                Maria Dup,MARIA@test.com,Senha@123
+                Ana Souza,ana@test.com,Senha@123
+                """;
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("ana@test.com"));
+        when(passwordHashingService.encodeAll(List.of("Senha@123"))).thenReturn(List.of("{bcrypt}hash"));
+
+        UserImportResultDTO result = userImportService.importUsers(UserFileFormat.CSV, stream(csv));
+
+        assertThat(result.totalRows()).isEqualTo(4);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.rejections()).extracting(UserImportRejectionDTO::line).containsExactlyInAnyOrder(3L, 4L, 5L);
+
+        ArgumentCaptor<List<User>> saved = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement().satisfies(user -> {
+            assertThat(user.getEmail()).isEqualTo("maria@test.com");
+            assertThat(user.getPassword()).isEqualTo("{bcrypt}hash");
+        });
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(userStatsService).recordCreations(any(), eq(1L));
+    }
+
+    @Test
+    @DisplayName("NDJSON: aceita hash pronto sem recalcular e rejeita linha malformada")
+    void importNdjson_AcceptsPreHashedPasswords() throws IOException {
+        String ndjson = """
+                {"name":"Maria Silva","email":"maria@test.com","passwordHash":"{bcrypt}%s"}
+                {"name":"Ana Souza","email":"ana@test.com","passwordHash":"md5:123"}
+                {"name":"Joao Lima","email":"joao@test.com","passwordHash":"{bcrypt}garbage"}
+                {nao e json
+                """.formatted(new BCryptPasswordEncoder(4).encode("Senha@123"));
+
+        UserImportResultDTO result = userImportService.importUsers(UserFileFormat.NDJSON, stream(ndjson));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.rejections()).extracting(UserImportRejectionDTO::reason)
+                .containsExactlyInAnyOrder("passwordHash em formato não suportado",
+                        "passwordHash em formato não suportado", "Linha malformada: JSON inválido");
+        verify(passwordHashingService, never()).encodeAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Conflito no insert em lote repete o bloco linha a linha")
+    void importCsv_BatchConflict_FallsBackToRowByRow() throws IOException {
+        String csv = """
+                name,email,password
+                Maria Silva,maria@test.com,Senha@123
+                Ana Souza,ana@test.com,Senha@123
+                """;
+        when(passwordHashingService.encodeAll(anyList())).thenReturn(List.of("{bcrypt}a", "{bcrypt}b"));
+        when(userRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(userRepository.save(any(User.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(userRepository.findExistingEmails(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("ana@test.com"));
+
+        UserImportResultDTO result = userImportService.importUsers(UserFileFormat.CSV, stream(csv));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.rejections().get(0).reason()).isEqualTo("Email já cadastrado");
+    }
+
+    @Test
+    @DisplayName("Violação de outra restrição no insert linha a linha não é reportada como email duplicado")
+    void importCsv_OtherConstraintViolation_ReportsConstraint() throws IOException {
+        String csv = """
+                name,email,password
+                Maria Silva,maria@test.com,Senha@123
+                """;
+        when(passwordHashingService.encodeAll(anyList())).thenReturn(List.of("{bcrypt}a"));
+        DataIntegrityViolationException tooLong = new DataIntegrityViolationException("too long",
+                new ConstraintViolationException("Data too long", new SQLException(), "users.name"));
+        when(userRepository.saveAll(anyList())).thenThrow(tooLong);
+        when(userRepository.save(any(User.class))).thenThrow(tooLong);
+
+        UserImportResultDTO result = userImportService.importUsers(UserFileFormat.CSV, stream(csv));
+
+        assertThat(result.imported()).isZero();
+        assertThat(result.rejections()).singleElement()
+                .extracting(UserImportRejectionDTO::reason)
+                .isEqualTo("Dados rejeitados pelo banco (restrição users.name)");
+    }
+
+    @Test
+    @DisplayName("CSV com aspas e vírgulas dentro do campo")
+    void parseCsvLine_QuotedFields() {
+        assertThat(UserImportService.parseCsvLine("\"Silva, \"\"Zé\"\"\",ze@test.com,"))
+                .containsExactly("Silva, \"Zé\"", "ze@test.com", "");
+        assertThatThrownBy(() -> UserImportService.parseCsvLine("\"aberto,x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
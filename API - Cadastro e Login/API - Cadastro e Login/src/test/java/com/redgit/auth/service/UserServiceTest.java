@@ -1,9 +1,20 @@
 package com.redgit.auth.service;
 
+import com.redgit.auth.controllers.DTO.AdminStatsDTO;
+import com.redgit.auth.controllers.DTO.BulkUserActionDTO;
+import com.redgit.auth.controllers.DTO.BulkUserActionResultDTO;
+import com.redgit.auth.controllers.DTO.CursorPageDTO;
 import com.redgit.auth.controllers.DTO.UpdateUserDTO;
+import com.redgit.auth.controllers.DTO.UserDTO;
+import com.redgit.auth.controllers.DTO.UserFilterDTO;
+import com.redgit.auth.infrastructure.cache.SecondLevelCacheInvalidator;
+import com.redgit.auth.infrastructure.datasource.ReadYourWritesTracker;
 import com.redgit.auth.infrastructure.entity.User;
 import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.redis.TokenRevocationStore;
 import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.repository.UserTokenVersion;
+import com.redgit.auth.infrastructure.security.PrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,9 +22,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,7 +47,25 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Mock
+    private SecondLevelCacheInvalidator secondLevelCache;
+
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
 
     @InjectMocks
     private UserService userService;
@@ -77,43 +114,78 @@ class UserServiceTest {
         UpdateUserDTO dto = new UpdateUserDTO();
         dto.setName("New Name");
 
-        when(userRepository.findById(userId.toString())).thenReturn(Optional.of(user));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         User result = userService.updateProfile(userId, dto);
 
         assertThat(result.getName()).isEqualTo("New Name");
         verify(userRepository).save(user);
+        verify(readYourWrites).markWrite(ReadYourWritesTracker.userKey(userId));
     }
 
     @Test
     @DisplayName("changeRole muda role do usuário")
     void changeRole_ChangesRole() {
-        when(userRepository.findById(userId.toString())).thenReturn(Optional.of(user));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         User result = userService.changeRole(userId, UserRole.ADMIN);
 
         assertThat(result.getRole()).isEqualTo(UserRole.ADMIN);
+        assertThat(result.getTokenVersion()).isEqualTo(1);
         verify(userRepository).save(user);
+        verify(principalCache).invalidate("user@test.com");
+        verify(tokenRevocationStore).revokeUserTokens(userId, 1);
+    }
+
+    @Test
+    @DisplayName("changeRole para a mesma role não invalida os tokens")
+    void changeRole_SameRole_KeepsTokenVersion() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.changeRole(userId, UserRole.USER);
+
+        assertThat(user.getTokenVersion()).isZero();
+        verifyNoInteractions(tokenRevocationStore);
     }
 
     @Test
     @DisplayName("lockAccount bloqueia conta de USER")
     void lockAccount_LocksUserAccount() {
-        when(userRepository.findById(userId.toString())).thenReturn(Optional.of(user));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         userService.lockAccount(userId);
 
         assertThat(user.isAccountNonLocked()).isFalse();
+        assertThat(user.getTokenVersion()).isEqualTo(1);
+        verify(userRepository).save(user);
+        verify(principalCache).invalidate("user@test.com");
+        verify(tokenRevocationStore).revokeUserTokens(userId, 1);
+        verify(userStatsService).recordTransition(
+                new UserStatsService.Snapshot(UserRole.USER, true, true),
+                new UserStatsService.Snapshot(UserRole.USER, true, false));
+    }
+
+    @Test
+    @DisplayName("disableAccount incrementa a tokenVersion e publica a nova versão")
+    void disableAccount_BumpsTokenVersion() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.disableAccount(userId);
+
+        assertThat(user.isEnabled()).isFalse();
+        assertThat(user.getTokenVersion()).isEqualTo(1);
         verify(userRepository).save(user);
+        verify(tokenRevocationStore).revokeUserTokens(userId, 1);
     }
 
     @Test
     @DisplayName("lockAccount não bloqueia conta de ADMIN")
     void lockAccount_DoesNotLockAdminAccount() {
         user.setRole(UserRole.ADMIN);
-        when(userRepository.findById(userId.toString())).thenReturn(Optional.of(user));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         assertThatThrownBy(() -> userService.lockAccount(userId))
                 .isInstanceOf(ResponseStatusException.class)
@@ -123,11 +195,52 @@ class UserServiceTest {
     @Test
     @DisplayName("delete remove usuário")
     void delete_RemovesUser() {
-        when(userRepository.findById(userId.toString())).thenReturn(Optional.of(user));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         userService.delete(userId);
 
         verify(userRepository).delete(user);
+        verify(tokenRevocationStore).revokeUserTokens(userId, Integer.MAX_VALUE);
+        verify(userStatsService).recordTransition(new UserStatsService.Snapshot(UserRole.USER, true, true), null);
+    }
+
+    @Test
+    @DisplayName("updateProfile invalida o principal do email antigo e do novo")
+    void updateProfile_ChangingEmail_InvalidatesBothPrincipals() {
+        UpdateUserDTO dto = new UpdateUserDTO();
+        dto.setEmail("new@test.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("new@test.com")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.updateProfile(userId, dto);
+
+        verify(principalCache).invalidate("user@test.com");
+        verify(principalCache).invalidate("new@test.com");
+    }
+
+    @Test
+    @DisplayName("upgradePasswordHash regrava hash com parâmetros antigos")
+    void upgradePasswordHash_OutdatedHash_Rehashes() {
+        when(passwordHashingService.needsRehash("encodedPassword")).thenReturn(true);
+        when(passwordHashingService.encode("senha")).thenReturn("{bcrypt}newHash");
+
+        userService.upgradePasswordHash(user, "senha");
+
+        assertThat(user.getPassword()).isEqualTo("{bcrypt}newHash");
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    @DisplayName("upgradePasswordHash não faz nada com hash atual")
+    void upgradePasswordHash_CurrentHash_DoesNothing() {
+        when(passwordHashingService.needsRehash("encodedPassword")).thenReturn(false);
+
+        userService.upgradePasswordHash(user, "senha");
+
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -139,4 +252,174 @@ class UserServiceTest {
 
         assertThat(result).isEqualTo(10L);
     }
+
+    @Test
+    @DisplayName("findPage busca uma linha extra e devolve cursor quando há próxima página")
+    void findPage_MoreRows_ReturnsNextCursor() {
+        User second = new User();
+        second.setId(UUID.randomUUID());
+        second.setEmail("second@test.com");
+        second.setRole(UserRole.USER);
+        second.setCreatedAt(LocalDateTime.of(2024, 1, 2, 10, 0));
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+
+        when(userRepository.findPageAfter(null, null, null, null, null, Limit.of(2)))
+                .thenReturn(List.of(user, second));
+
+        CursorPageDTO<UserDTO> page = userService.findPage(null, 1, null, null, null, false);
+
+        assertThat(page.items()).extracting(UserDTO::getId).containsExactly(userId);
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.total()).isNull();
+        assertThat(UserCursor.decode(page.nextCursor()))
+                .isEqualTo(new UserCursor(user.getCreatedAt(), userId));
+        verify(userRepository, never()).countFiltered(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("findPage continua a partir do cursor e aplica os filtros")
+    void findPage_WithCursorAndFilters_SeeksAfterCursor() {
+        UserCursor cursor = new UserCursor(LocalDateTime.of(2024, 1, 1, 10, 0), UUID.randomUUID());
+        when(userRepository.findPageAfter(UserRole.USER, true, false, cursor.createdAt(), cursor.id(), Limit.of(21)))
+                .thenReturn(List.of(user));
+        when(userRepository.countFiltered(UserRole.USER, true, false)).thenReturn(7L);
+
+        CursorPageDTO<UserDTO> page = userService.findPage(cursor.encode(), 20, UserRole.USER, true, true, true);
+
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+        assertThat(page.total()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("findPage sem filtros usa o contador mantido para o total")
+    void findPage_IncludeTotalWithoutFilters_UsesStatsCounter() {
+        when(userRepository.findPageAfter(null, null, null, null, null, Limit.of(21))).thenReturn(List.of());
+        when(userStatsService.getStats()).thenReturn(new AdminStatsDTO(42, 2, 40, 0, 0));
+
+        CursorPageDTO<UserDTO> page = userService.findPage(null, 20, null, null, null, true);
+
+        assertThat(page.total()).isEqualTo(42L);
+        verify(userRepository, never()).countFiltered(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("findPage rejeita cursor inválido e tamanho fora do limite")
+    void findPage_InvalidInput_Throws() {
+        assertThatThrownBy(() -> userService.findPage("não-é-cursor", 20, null, null, null, false))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Cursor inválido");
+        assertThatThrownBy(() -> userService.findPage(null, UserService.MAX_PAGE_SIZE + 1, null, null, null, false))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    @DisplayName("bulkUpdate por ids executa um UPDATE por bloco e uma invalidação por bloco")
+    void bulkUpdate_Ids_UpdatesInChunks() {
+        ReflectionTestUtils.setField(userService, "bulkChunkSize", 2);
+        runTransactionsInline();
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(userRepository.findEmailsByIdIn(anyList())).thenReturn(List.of("a@test.com", "b@test.com"), List.of("c@test.com"));
+        when(userRepository.lockByIds(eq(ids.subList(0, 2)), any())).thenReturn(2);
+        when(userRepository.lockByIds(eq(ids.subList(2, 3)), any())).thenReturn(1);
+
+        BulkUserActionResultDTO result = userService.bulkUpdate(
+                UserService.BulkAction.LOCK, new BulkUserActionDTO(ids, null, null));
+
+        assertThat(result.targeted()).isEqualTo(3);
+        assertThat(result.updated()).isEqualTo(3);
+        verify(principalCache).invalidateAll(List.of("a@test.com", "b@test.com"));
+        verify(principalCache).invalidateAll(List.of("c@test.com"));
+        verify(userStatsService, times(1)).reconcile();
+        verify(secondLevelCache).evictAll(User.class);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("bulkUpdate de bloqueio publica as tokenVersions do bloco de uma vez")
+    void bulkUpdate_Lock_PublishesTokenVersions() {
+        runTransactionsInline();
+        List<UUID> ids = List.of(userId);
+        UserTokenVersion version = mock(UserTokenVersion.class);
+        when(version.getId()).thenReturn(userId);
+        when(version.getTokenVersion()).thenReturn(3);
+        when(userRepository.lockByIds(eq(ids), any())).thenReturn(1);
+        when(userRepository.findTokenVersionsByIdIn(ids)).thenReturn(List.of(version));
+
+        userService.bulkUpdate(UserService.BulkAction.LOCK, new BulkUserActionDTO(ids, null, null));
+
+        verify(tokenRevocationStore).revokeUserTokens(Map.of(userId, 3));
+    }
+
+    @Test
+    @DisplayName("bulkUpdate de desbloqueio não publica tokenVersion")
+    void bulkUpdate_Unlock_DoesNotPublishTokenVersions() {
+        runTransactionsInline();
+        List<UUID> ids = List.of(userId);
+        when(userRepository.unlockByIds(eq(ids), any())).thenReturn(1);
+
+        userService.bulkUpdate(UserService.BulkAction.UNLOCK, new BulkUserActionDTO(ids, null, null));
+
+        verify(userRepository, never()).findTokenVersionsByIdIn(anyList());
+        verifyNoInteractions(tokenRevocationStore);
+    }
+
+    @Test
+    @DisplayName("bulkUpdate por filtro percorre os ids em ordem sem OFFSET")
+    void bulkUpdate_Filter_WalksIdsByKeyset() {
+        ReflectionTestUtils.setField(userService, "bulkChunkSize", 2);
+        runTransactionsInline();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UserFilterDTO filter = new UserFilterDTO(UserRole.USER, true, null);
+        when(userRepository.findIdsAfter(UserRole.USER, true, null, null, Limit.of(2))).thenReturn(List.of(first, second));
+        when(userRepository.findIdsAfter(UserRole.USER, true, null, second, Limit.of(2))).thenReturn(List.of(third));
+        when(userRepository.disableByIds(anyList(), any())).thenReturn(2, 1);
+
+        BulkUserActionResultDTO result = userService.bulkUpdate(
+                UserService.BulkAction.DISABLE, new BulkUserActionDTO(null, filter, null));
+
+        assertThat(result.targeted()).isEqualTo(3);
+        assertThat(result.updated()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("bulkUpdate de role exclui o próprio ADMIN no WHERE")
+    void bulkUpdate_ChangeRole_ExcludesCurrentAdmin() {
+        runTransactionsInline();
+        User admin = new User();
+        admin.setId(UUID.randomUUID());
+        admin.setRole(UserRole.ADMIN);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+        List<UUID> ids = List.of(admin.getId(), userId);
+
+        try {
+            userService.bulkUpdate(UserService.BulkAction.CHANGE_ROLE, new BulkUserActionDTO(ids, null, UserRole.USER));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(userRepository).changeRoleByIds(eq(ids), eq(UserRole.USER), eq(admin.getId()), any());
+    }
+
+    @Test
+    @DisplayName("bulkUpdate exige ids ou filtro, e role na troca de role")
+    void bulkUpdate_InvalidRequest_Throws() {
+        UserFilterDTO filter = new UserFilterDTO(UserRole.USER, null, null);
+
+        assertThatThrownBy(() -> userService.bulkUpdate(UserService.BulkAction.LOCK, new BulkUserActionDTO(null, null, null)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> userService.bulkUpdate(UserService.BulkAction.LOCK, new BulkUserActionDTO(List.of(userId), filter, null)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> userService.bulkUpdate(UserService.BulkAction.CHANGE_ROLE, new BulkUserActionDTO(List.of(userId), null, null)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
 }
@@ -0,0 +1,118 @@
+package com.redgit.auth.service;
+
+import com.redgit.auth.controllers.DTO.AdminStatsDTO;
+import com.redgit.auth.infrastructure.entity.UserRole;
+import com.redgit.auth.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.auth.infrastructure.repository.UserRepository;
+import com.redgit.auth.infrastructure.repository.UserStatusCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do UserStatsService")
+class UserStatsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Spy
+    private RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+
+    @InjectMocks
+    private UserStatsService userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    @DisplayName("getStats lê os contadores do Redis sem consultar o banco")
+    void getStats_CountersInRedis_DoesNotQueryDatabase() {
+        when(hashOperations.entries("auth:stats:users")).thenReturn(Map.of(
+                "total", "10", "role:ADMIN", "2", "role:USER", "8", "disabled", "1", "locked", "3"));
+
+        AdminStatsDTO stats = userStatsService.getStats();
+
+        assertThat(stats.getTotalUsers()).isEqualTo(10);
+        assertThat(stats.getTotalAdmins()).isEqualTo(2);
+        assertThat(stats.getTotalRegularUsers()).isEqualTo(8);
+        assertThat(stats.getTotalLocked()).isEqualTo(3);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("getStats sem contadores agrega via GROUP BY e grava no Redis")
+    void getStats_NoCounters_ReconcilesFromGroupBy() {
+        when(hashOperations.entries("auth:stats:users")).thenReturn(Map.of());
+        when(userRepository.countGroupedByStatus()).thenReturn(List.of(
+                group(UserRole.USER, true, true, 7),
+                group(UserRole.USER, false, true, 1),
+                group(UserRole.ADMIN, true, true, 2)));
+
+        AdminStatsDTO stats = userStatsService.getStats();
+
+        assertThat(stats.getTotalUsers()).isEqualTo(10);
+        assertThat(stats.getTotalAdmins()).isEqualTo(2);
+        assertThat(stats.getTotalRegularUsers()).isEqualTo(8);
+        assertThat(stats.getTotalDisabled()).isEqualTo(1);
+        verify(hashOperations).putAll(eq("auth:stats:users"), anyMap());
+    }
+
+    @Test
+    @DisplayName("Mudança de role move o contador entre as roles num único pipeline")
+    @SuppressWarnings("unchecked")
+    void recordTransition_RoleChange_MovesCounter() {
+        RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        userStatsService.recordTransition(
+                new UserStatsService.Snapshot(UserRole.USER, true, true),
+                new UserStatsService.Snapshot(UserRole.ADMIN, true, true));
+
+        byte[] key = "auth:stats:users".getBytes(StandardCharsets.UTF_8);
+        verify(stringRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(hashCommands).hIncrBy(key, "role:USER".getBytes(StandardCharsets.UTF_8), -1L);
+        verify(hashCommands).hIncrBy(key, "role:ADMIN".getBytes(StandardCharsets.UTF_8), 1L);
+        verifyNoMoreInteractions(hashCommands);
+        verifyNoInteractions(hashOperations);
+    }
+
+    private static UserStatusCount group(UserRole role, boolean enabled, boolean nonLocked, long total) {
+        return new UserStatusCount() {
+            public UserRole getRole() { return role; }
+            public Boolean getEnabled() { return enabled; }
+            public Boolean getAccountNonLocked() { return nonLocked; }
+            public long getTotal() { return total; }
+        };
+    }
+}
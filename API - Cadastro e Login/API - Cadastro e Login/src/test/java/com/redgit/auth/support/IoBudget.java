@@ -0,0 +1,67 @@
+package com.redgit.auth.support;
+
+import com.redgit.auth.infrastructure.metrics.IoKind;
+import com.redgit.auth.infrastructure.metrics.IoStats;
+import com.redgit.auth.infrastructure.metrics.RequestIoTracer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Orçamento de I/O para testes: falha quando o trecho medido faz mais chamadas que o declarado.
+// Tipos sem limite declarado não são verificados. Redis conta o que passa pelo RedisService
+// (também com o RedisTemplate mockado); JDBC, os statements executados pelo Hibernate.
+//
+//   IoBudget.limit().redis(2).jdbc(1).check(() -> ...);
+public final class IoBudget {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private final Map<IoKind, Long> limits = new EnumMap<>(IoKind.class);
+
+    private IoBudget() {
+    }
+
+    public static IoBudget limit() {
+        return new IoBudget();
+    }
+
+    public IoBudget redis(long maxCalls) {
+        limits.put(IoKind.REDIS, maxCalls);
+        return this;
+    }
+
+    public IoBudget jdbc(long maxCalls) {
+        limits.put(IoKind.JDBC, maxCalls);
+        return this;
+    }
+
+    public IoStats check(Action action) throws Exception {
+        IoStats stats = measure(action);
+
+        List<String> exceeded = new ArrayList<>();
+        limits.forEach((kind, max) -> {
+            if (stats.calls(kind) > max) {
+                exceeded.add(kind.tag() + " " + stats.calls(kind) + " > " + max);
+            }
+        });
+        if (!exceeded.isEmpty()) {
+            throw new AssertionError("Orçamento de I/O excedido: " + String.join(", ", exceeded) + " [" + stats + "]");
+        }
+        return stats;
+    }
+
+    public static IoStats measure(Action action) throws Exception {
+        IoStats stats = RequestIoTracer.begin();
+        try {
+            action.run();
+        } finally {
+            RequestIoTracer.end(stats);
+        }
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package com.redgit.ideas.controller;
 
 import com.redgit.ideas.controller.dto.IdeaDTO;
 import com.redgit.ideas.infrastructure.entities.Idea;
+import com.redgit.ideas.infrastructure.security.AuthenticatedUser;
 import com.redgit.ideas.service.IdeaService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -22,9 +23,9 @@ public class IdeaController {
     @PostMapping
     public ResponseEntity<Idea> createIdea(
             @Validated @RequestBody IdeaDTO ideaDTO,
-            @AuthenticationPrincipal String userEmail) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        ideaDTO.setAuthorId(userEmail);
+        ideaDTO.setAuthorId(user.email());
         Idea created = ideaService.createIdea(ideaDTO);
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
@@ -41,8 +42,8 @@ public class IdeaController {
 
     @GetMapping("/my-ideas")
     public ResponseEntity<List<Idea>> getMyIdeas(
-            @AuthenticationPrincipal String userEmail) {
-        return ResponseEntity.ok(ideaService.getIdeasByAuthor(userEmail));
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(ideaService.getIdeasByAuthor(user.email()));
     }
 
     @GetMapping("/author/{authorId}")
@@ -54,10 +55,10 @@ public class IdeaController {
     public ResponseEntity<Idea> replaceIdea(
             @PathVariable String id,
             @Validated @RequestBody IdeaDTO ideaDTO,
-            @AuthenticationPrincipal String userEmail) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
         Idea existing = ideaService.findById(id);
-        if (!existing.getAuthorId().equals(userEmail)) {
+        if (!existing.getAuthorId().equals(user.email())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -69,10 +70,10 @@ public class IdeaController {
     public ResponseEntity<Idea> updateIdea(
             @PathVariable String id,
             @RequestBody IdeaDTO ideaDTO,
-            @AuthenticationPrincipal String userEmail) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
         Idea existing = ideaService.findById(id);
-        if (!existing.getAuthorId().equals(userEmail)) {
+        if (!existing.getAuthorId().equals(user.email())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -83,10 +84,10 @@ public class IdeaController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteIdea(
             @PathVariable String id,
-            @AuthenticationPrincipal String userEmail) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
         Idea existing = ideaService.findById(id);
-        if (!existing.getAuthorId().equals(userEmail)) {
+        if (!existing.getAuthorId().equals(user.email())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
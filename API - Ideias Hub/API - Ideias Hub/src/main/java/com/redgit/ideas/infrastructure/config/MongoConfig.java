@@ -4,7 +4,11 @@ import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.redgit.ideas.infrastructure.metrics.MongoIoCommandListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 
@@ -17,6 +21,11 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.database}")
     private String databaseName;
 
+    // Com o MongoClient próprio o Spring Boot não aplica os customizers sozinho;
+    // entre eles estão os listeners de métricas de comandos e do pool do Actuator
+    @Autowired
+    private ObjectProvider<MongoClientSettingsBuilderCustomizer> settingsCustomizers;
+
     @Override
     protected String getDatabaseName() {
         return databaseName;
@@ -25,10 +34,11 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Override
     public MongoClient mongoClient() {
         ConnectionString connString = new ConnectionString(connectionString);
-        MongoClientSettings settings = MongoClientSettings.builder()
-                .applyConnectionString(connString)
-                .build();
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(connString);
+        settingsCustomizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        builder.addCommandListener(new MongoIoCommandListener());
 
-        return MongoClients.create(settings);
+        return MongoClients.create(builder.build());
     }
 }
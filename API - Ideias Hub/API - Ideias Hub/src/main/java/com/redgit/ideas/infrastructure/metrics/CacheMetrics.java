@@ -0,0 +1,20 @@
+package com.redgit.ideas.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+
+// Hits e misses por cache (cache.gets{cache, result}); a taxa de acerto sai da razão entre os dois
+public final class CacheMetrics {
+
+    private static final Meter.MeterProvider<Counter> GETS = Counter.builder("cache.gets")
+            .description("Consultas ao cache por resultado")
+            .withRegistry(Metrics.globalRegistry);
+
+    private CacheMetrics() {
+    }
+
+    public static void record(String cache, boolean hit) {
+        GETS.withTags("cache", cache, "result", hit ? "hit" : "miss").increment();
+    }
+}
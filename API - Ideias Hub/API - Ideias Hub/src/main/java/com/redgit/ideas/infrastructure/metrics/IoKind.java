@@ -0,0 +1,11 @@
+package com.redgit.ideas.infrastructure.metrics;
+
+// Tipos de I/O atribuídos à requisição pelo RequestIoTracer
+public enum IoKind {
+    REDIS,
+    MONGO;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
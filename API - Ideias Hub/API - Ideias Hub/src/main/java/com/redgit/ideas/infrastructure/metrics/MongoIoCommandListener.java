@@ -0,0 +1,22 @@
+package com.redgit.ideas.infrastructure.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.concurrent.TimeUnit;
+
+// O driver síncrono avisa na mesma thread que executou o comando,
+// então o tempo cai no escopo da requisição que o disparou
+public class MongoIoCommandListener implements CommandListener {
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        RequestIoTracer.record(IoKind.MONGO, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        RequestIoTracer.record(IoKind.MONGO, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+}
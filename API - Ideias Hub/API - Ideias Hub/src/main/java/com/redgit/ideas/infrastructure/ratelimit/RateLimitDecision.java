@@ -0,0 +1,10 @@
+package com.redgit.ideas.infrastructure.ratelimit;
+
+public record RateLimitDecision(boolean allowed, long retryAfterSeconds) {
+
+    static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    static RateLimitDecision rejected(long retryAfterMillis) {
+        return new RateLimitDecision(false, Math.max(1, (retryAfterMillis + 999) / 1000));
+    }
+}
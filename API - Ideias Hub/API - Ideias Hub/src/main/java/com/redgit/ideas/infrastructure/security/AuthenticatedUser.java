@@ -0,0 +1,49 @@
+package com.redgit.ideas.infrastructure.security;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.UUID;
+
+// Principal montado a partir das claims do JWT emitido pela API de Auth.
+// Tokens antigos (sem "uid") chegam com id nulo.
+public record AuthenticatedUser(UUID id, String email, String role, int tokenVersion) {
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+    private static final String DEFAULT_ROLE = "USER";
+
+    public static AuthenticatedUser fromToken(DecodedJWT decoded) {
+        UUID id = null;
+        Claim userId = decoded.getClaim(CLAIM_USER_ID);
+        if (!userId.isMissing() && !userId.isNull()) {
+            try {
+                id = UUID.fromString(userId.asString());
+            } catch (IllegalArgumentException e) {
+                id = null;
+            }
+        }
+
+        Claim role = decoded.getClaim(CLAIM_ROLE);
+        Claim version = decoded.getClaim(CLAIM_TOKEN_VERSION);
+
+        return new AuthenticatedUser(
+                id,
+                decoded.getSubject(),
+                !role.isMissing() && !role.isNull() ? role.asString() : DEFAULT_ROLE,
+                !version.isMissing() && !version.isNull() ? version.asInt() : 0
+        );
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    public boolean hasUserId() {
+        return id != null;
+    }
+}
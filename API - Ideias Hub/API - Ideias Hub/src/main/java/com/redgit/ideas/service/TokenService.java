@@ -1,8 +1,20 @@
 package com.redgit.ideas.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.redgit.ideas.infrastructure.metrics.CacheMetrics;
+import com.redgit.ideas.infrastructure.security.AuthenticatedUser;
+import com.redgit.ideas.infrastructure.security.TokenRevocationReplica;
+import com.redgit.ideas.infrastructure.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -10,24 +22,124 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class TokenService {
+    private static final String ISSUER = "login-auth-api";
+
+    private static final Meter.MeterProvider<Timer> VALIDATIONS = Timer.builder("token.validation")
+            .description("Tempo de validação do JWT")
+            .withRegistry(Metrics.globalRegistry);
+
+    private static final Meter.MeterProvider<Counter> UNSYNCED_VALIDATIONS = Counter.builder("token.validation.unsynced")
+            .description("Tokens validados sem a réplica de revogações sincronizada")
+            .withRegistry(Metrics.globalRegistry);
+
     @Value("${security.jwt.secret-key}")
     private String secret;
 
+    @Value("${security.jwt.cache.max-size:10000}")
+    private int cacheMaxSize = 10000;
+
+    private final TokenRevocationReplica revocationReplica;
+
+    private volatile JWTVerifier verifier;
+    private volatile VerifiedTokenCache<AuthenticatedUser> tokenCache;
+
     public String validateToken(String token){
+        AuthenticatedUser user = authenticate(token);
+        return user != null ? user.email() : null;
+    }
+
+    public AuthenticatedUser authenticate(String token){
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        Timer.Sample sample = Timer.start();
+        AuthenticatedUser user = verify(token);
+        sample.stop(VALIDATIONS.withTags("outcome", user != null ? "valid" : "rejected"));
+        return user;
+    }
+
+    private AuthenticatedUser verify(String token) {
+        // Antes da primeira leitura completa do stream a réplica não conhece as revogações vigentes.
+        // Passado o prazo de subida, aceita o token só pela assinatura e expiração: sem Redis na
+        // subida a instância não pode recusar todo mundo indefinidamente.
+        if (!revocationReplica.isCaughtUp()) {
+            if (!revocationReplica.isCatchUpOverdue()) {
+                log.debug("Réplica de tokens revogados ainda não sincronizada; token recusado");
+                return null;
+            }
+            UNSYNCED_VALIDATIONS.withTags().increment();
+        }
+
+        String fingerprint = VerifiedTokenCache.fingerprint(token);
+        if (revocationReplica.isRevoked(fingerprint)) {
+            return null;
+        }
+
+        AuthenticatedUser cachedUser = getTokenCache().get(fingerprint);
+        CacheMetrics.record("verified-tokens", cachedUser != null);
+        if (cachedUser != null) {
+            return revocationReplica.isOutdated(cachedUser) ? null : cachedUser;
+        }
+
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("login-auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT decoded = getVerifier().verify(token);
+            if (decoded.getSubject() == null) {
+                return null;
+            }
+
+            AuthenticatedUser user = AuthenticatedUser.fromToken(decoded);
+            // Conta bloqueada, desativada, removida ou com role alterada depois da emissão
+            if (revocationReplica.isOutdated(user)) {
+                return null;
+            }
+
+            // Tokens sem "exp" não são cacheados
+            if (decoded.getExpiresAtAsInstant() != null) {
+                getTokenCache().put(fingerprint, user, decoded.getExpiresAtAsInstant());
+            }
+
+            return user;
         } catch (JWTVerificationException exception) {
             return null;
         }
     }
 
+    // Verifier é thread-safe: criado uma única vez e reutilizado em todas as requisições
+    private JWTVerifier getVerifier() {
+        JWTVerifier current = verifier;
+        if (current == null) {
+            synchronized (this) {
+                current = verifier;
+                if (current == null) {
+                    current = JWT.require(Algorithm.HMAC256(secret))
+                            .withIssuer(ISSUER)
+                            .build();
+                    verifier = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private VerifiedTokenCache<AuthenticatedUser> getTokenCache() {
+        VerifiedTokenCache<AuthenticatedUser> current = tokenCache;
+        if (current == null) {
+            synchronized (this) {
+                current = tokenCache;
+                if (current == null) {
+                    current = new VerifiedTokenCache<>(cacheMaxSize);
+                    tokenCache = current;
+                }
+            }
+        }
+        return current;
+    }
+
     private Instant generateExpirationDate(){
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
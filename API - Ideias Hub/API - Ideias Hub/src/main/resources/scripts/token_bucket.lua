@@ -0,0 +1,35 @@
+-- Token bucket compartilhado entre instâncias.
+-- KEYS[1] = hash do balde (tokens, ts)
+-- ARGV[1] = capacidade, ARGV[2] = tokens repostos por período, ARGV[3] = período (ms)
+-- Retorno: {permitido (0/1), ms até haver um token}
+
+local capacity = tonumber(ARGV[1])
+local refillTokens = tonumber(ARGV[2])
+local periodMs = tonumber(ARGV[3])
+
+-- Relógio do próprio Redis, igual para todas as instâncias
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(state[1]) or capacity
+local ts = tonumber(state[2]) or now
+
+if now > ts then
+    tokens = math.min(capacity, tokens + (now - ts) * refillTokens / periodMs)
+end
+
+local allowed = 0
+local waitMs = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+    allowed = 1
+else
+    waitMs = math.ceil((1 - tokens) * periodMs / refillTokens)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+-- Depois de encher de novo o balde não carrega informação
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * periodMs / refillTokens) + 1000)
+
+return {allowed, waitMs}
@@ -0,0 +1,118 @@
+package com.redgit.ideas.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redgit.ideas.infrastructure.ratelimit.ClientIpResolver;
+import com.redgit.ideas.infrastructure.ratelimit.RateLimitDecision;
+import com.redgit.ideas.infrastructure.ratelimit.RateLimitProperties;
+import com.redgit.ideas.infrastructure.ratelimit.RequestRateLimitFilter;
+import com.redgit.ideas.infrastructure.ratelimit.RequestRateLimiter;
+import com.redgit.ideas.infrastructure.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Usa as políticas do application.properties de verdade: a ordem delas decide qual casa primeiro
+@DisplayName("Testes do filtro de rate limit por rota")
+class RequestRateLimitFilterTest {
+
+    private RequestRateLimiter rateLimiter;
+    private RequestRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new ResourcePropertySource("classpath:application.properties"));
+        RateLimitProperties properties = Binder.get(environment).bind("ratelimit", RateLimitProperties.class).get();
+
+        rateLimiter = mock(RequestRateLimiter.class);
+        when(rateLimiter.tryConsume(any(), anyString())).thenReturn(new RateLimitDecision(true, 0));
+
+        filter = new RequestRateLimitFilter(properties, rateLimiter, new ClientIpResolver(properties),
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("POST /api/ideas é limitado por usuário")
+    void createIdea_UsesPrincipalPolicy() throws Exception {
+        UUID userId = authenticate();
+
+        filter.doFilter(request("POST", "/api/ideas"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<RateLimitProperties.Policy> policy = ArgumentCaptor.forClass(RateLimitProperties.Policy.class);
+        verify(rateLimiter).tryConsume(policy.capture(), eq("user:" + userId));
+        assertThat(policy.getValue().getName()).isEqualTo("create-idea");
+    }
+
+    @Test
+    @DisplayName("GET /api/ideas/my-ideas combina IP e usuário na chave de leitura")
+    void readIdeas_UsesIpAndPrincipalKey() throws Exception {
+        UUID userId = authenticate();
+
+        filter.doFilter(request("GET", "/api/ideas/my-ideas"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<RateLimitProperties.Policy> policy = ArgumentCaptor.forClass(RateLimitProperties.Policy.class);
+        verify(rateLimiter).tryConsume(policy.capture(), eq("ip:10.0.0.1|user:" + userId));
+        assertThat(policy.getValue().getName()).isEqualTo("read-ideas");
+    }
+
+    @Test
+    @DisplayName("Leitura anônima cai para a chave por IP")
+    void readIdeas_AnonymousFallsBackToIp() throws Exception {
+        filter.doFilter(request("GET", "/api/ideas"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<RateLimitProperties.Policy> policy = ArgumentCaptor.forClass(RateLimitProperties.Policy.class);
+        verify(rateLimiter).tryConsume(policy.capture(), eq("ip:10.0.0.1"));
+        assertThat(policy.getValue().getName()).isEqualTo("read-ideas");
+    }
+
+    @Test
+    @DisplayName("Responde 429 com Retry-After e não segue a cadeia quando o balde está vazio")
+    void rejected_Returns429() throws Exception {
+        authenticate();
+        when(rateLimiter.tryConsume(any(), anyString())).thenReturn(new RateLimitDecision(false, 30));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("POST", "/api/ideas"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("30");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    private UUID authenticate() {
+        UUID userId = UUID.randomUUID();
+        AuthenticatedUser user = new AuthenticatedUser(userId, "me@email.com", "USER", 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.authorities()));
+        return userId;
+    }
+
+    private MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -1,28 +1,33 @@
-<<<<<<<< HEAD:API - Profile/src/test/java/com/redgit/profile/service/TokenServiceTest.java
-package com.redgit.profile.service;
-========
 package com.redgit.ideas.service;
->>>>>>>> ef40270143fc8b117a308d480711776626cac10c:API - Ideias Hub/src/test/java/com/redgit/ideas/service/TokenServiceTest.java
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.redgit.ideas.infrastructure.security.TokenRevocationReplica;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("TokenService Tests")
 class TokenServiceTest {
 
+    @Mock
+    private TokenRevocationReplica revocationReplica;
+
     @InjectMocks
     private TokenService tokenService;
 
@@ -32,6 +37,7 @@ class TokenServiceTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(tokenService, "secret", TEST_SECRET);
+        lenient().when(revocationReplica.isCaughtUp()).thenReturn(true);
     }
 
     @Test
@@ -178,5 +184,66 @@ class TokenServiceTest {
         assertNotNull(result);
         assertEquals(TEST_EMAIL, result);
     }
-}
 
+    @Test
+    @DisplayName("Deve recusar tokens enquanto a réplica de revogações não sincronizou")
+    void validateToken_beforeReplicaCatchUp_shouldReturnNull() {
+        // Arrange
+        Algorithm algorithm = Algorithm.HMAC256(TEST_SECRET);
+        String token = JWT.create()
+                .withIssuer("login-auth-api")
+                .withSubject(TEST_EMAIL)
+                .withExpiresAt(Instant.now().plus(2, ChronoUnit.HOURS))
+                .sign(algorithm);
+        when(revocationReplica.isCaughtUp()).thenReturn(false);
+
+        // Act
+        String result = tokenService.validateToken(token);
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    @DisplayName("Deve validar localmente quando a réplica não sincronizou dentro do prazo de subida")
+    void validateToken_afterCatchUpTimeout_shouldValidateLocally() {
+        // Arrange - Redis fora do ar desde a subida
+        Algorithm algorithm = Algorithm.HMAC256(TEST_SECRET);
+        String token = JWT.create()
+                .withIssuer("login-auth-api")
+                .withSubject(TEST_EMAIL)
+                .withExpiresAt(Instant.now().plus(2, ChronoUnit.HOURS))
+                .sign(algorithm);
+        when(revocationReplica.isCaughtUp()).thenReturn(false);
+        when(revocationReplica.isCatchUpOverdue()).thenReturn(true);
+
+        // Act
+        String result = tokenService.validateToken(token);
+
+        // Assert
+        assertEquals(TEST_EMAIL, result);
+    }
+
+    @Test
+    @DisplayName("Deve retornar null para token com tokenVersion anterior à publicada, mesmo em cache")
+    void validateToken_withOutdatedTokenVersion_shouldReturnNull() {
+        // Arrange - token emitido antes do bloqueio da conta
+        Algorithm algorithm = Algorithm.HMAC256(TEST_SECRET);
+        String token = JWT.create()
+                .withIssuer("login-auth-api")
+                .withSubject(TEST_EMAIL)
+                .withClaim("uid", UUID.randomUUID().toString())
+                .withClaim("ver", 0)
+                .withExpiresAt(Instant.now().plus(2, ChronoUnit.HOURS))
+                .sign(algorithm);
+        assertEquals(TEST_EMAIL, tokenService.validateToken(token));
+
+        when(revocationReplica.isOutdated(any())).thenReturn(true);
+
+        // Act
+        String result = tokenService.validateToken(token);
+
+        // Assert
+        assertNull(result);
+    }
+}
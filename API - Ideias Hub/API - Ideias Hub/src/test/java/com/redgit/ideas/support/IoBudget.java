@@ -0,0 +1,67 @@
+package com.redgit.ideas.support;
+
+import com.redgit.ideas.infrastructure.metrics.IoKind;
+import com.redgit.ideas.infrastructure.metrics.IoStats;
+import com.redgit.ideas.infrastructure.metrics.RequestIoTracer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Orçamento de I/O para testes: falha quando o trecho medido faz mais chamadas que o declarado.
+// Tipos sem limite declarado não são verificados. Mongo conta os comandos vistos pelo MongoClient
+// da aplicação; Redis, o rate limit compartilhado.
+//
+//   IoBudget.limit().redis(1).mongo(2).check(() -> ...);
+public final class IoBudget {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private final Map<IoKind, Long> limits = new EnumMap<>(IoKind.class);
+
+    private IoBudget() {
+    }
+
+    public static IoBudget limit() {
+        return new IoBudget();
+    }
+
+    public IoBudget redis(long maxCalls) {
+        limits.put(IoKind.REDIS, maxCalls);
+        return this;
+    }
+
+    public IoBudget mongo(long maxCalls) {
+        limits.put(IoKind.MONGO, maxCalls);
+        return this;
+    }
+
+    public IoStats check(Action action) throws Exception {
+        IoStats stats = measure(action);
+
+        List<String> exceeded = new ArrayList<>();
+        limits.forEach((kind, max) -> {
+            if (stats.calls(kind) > max) {
+                exceeded.add(kind.tag() + " " + stats.calls(kind) + " > " + max);
+            }
+        });
+        if (!exceeded.isEmpty()) {
+            throw new AssertionError("Orçamento de I/O excedido: " + String.join(", ", exceeded) + " [" + stats + "]");
+        }
+        return stats;
+    }
+
+    public static IoStats measure(Action action) throws Exception {
+        IoStats stats = RequestIoTracer.begin();
+        try {
+            action.run();
+        } finally {
+            RequestIoTracer.end(stats);
+        }
+        return stats;
+    }
+}
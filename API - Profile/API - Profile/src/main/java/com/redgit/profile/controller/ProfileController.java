@@ -6,6 +6,7 @@ import com.redgit.profile.controller.dto.UpdateProfileDTO;
 import com.redgit.profile.infrastructure.entities.Profile;
 import com.redgit.profile.infrastructure.entities.User;
 import com.redgit.profile.infrastructure.repository.UserRepository;
+import com.redgit.profile.infrastructure.security.AuthenticatedUser;
 import com.redgit.profile.infrastructure.storage.FileStorageService;
 import com.redgit.profile.service.ProfileService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,17 +37,12 @@ public class ProfileController {
 
     @GetMapping("/me")
     public ResponseEntity<ProfileDTO> getMyProfile(
-            @AuthenticationPrincipal String userEmail,
+            @AuthenticationPrincipal AuthenticatedUser user,
             HttpServletRequest request) {
 
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Usuário não encontrado"
-                ));
-        UUID userId = user.getId();
+        UUID userId = resolveUserId(user);
 
-        Profile profile = profileService.getOrCreateProfile(userId, userEmail);
+        Profile profile = profileService.getOrCreateProfile(userId, user.email());
         String baseUrl = getBaseUrl(request);
 
         return ResponseEntity.ok(new ProfileDTO(profile, baseUrl));
@@ -54,16 +50,11 @@ public class ProfileController {
 
     @PutMapping("/me")
     public ResponseEntity<ProfileDTO> updateMyProfile(
-            @AuthenticationPrincipal String userEmail,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody @Valid UpdateProfileDTO dto,
             HttpServletRequest request) {
 
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Usuário não encontrado"
-                ));
-        UUID userId = user.getId();
+        UUID userId = resolveUserId(user);
 
         Profile updated = profileService.updateProfile(userId, dto);
         String baseUrl = getBaseUrl(request);
@@ -73,16 +64,11 @@ public class ProfileController {
 
     @PostMapping("/me/avatar")
     public ResponseEntity<ProfileDTO> uploadAvatar(
-            @AuthenticationPrincipal String userEmail,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam("file") MultipartFile file,
             HttpServletRequest request) {
 
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Usuário não encontrado"
-                ));
-        UUID userId = user.getId();
+        UUID userId = resolveUserId(user);
 
         Profile updated = profileService.uploadAvatar(userId, file);
         String baseUrl = getBaseUrl(request);
@@ -92,14 +78,9 @@ public class ProfileController {
 
     @DeleteMapping("/me/avatar")
     public ResponseEntity<Void> deleteAvatar(
-            @AuthenticationPrincipal String userEmail) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Usuário não encontrado"
-                ));
-        UUID userId = user.getId();
+        UUID userId = resolveUserId(user);
 
         profileService.deleteAvatar(userId);
 
@@ -159,6 +140,20 @@ public class ProfileController {
 
     // ========== MÉTODOS AUXILIARES ==========
 
+    // Tokens novos trazem o id do usuário na claim "uid"; só tokens antigos consultam o banco
+    private UUID resolveUserId(AuthenticatedUser user) {
+        if (user.hasUserId()) {
+            return user.id();
+        }
+
+        User legacyUser = userRepository.findByEmail(user.email())
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Usuário não encontrado"
+                ));
+        return legacyUser.getId();
+    }
+
     private String getBaseUrl(HttpServletRequest request) {
         String scheme = request.getScheme();
         String serverName = request.getServerName();
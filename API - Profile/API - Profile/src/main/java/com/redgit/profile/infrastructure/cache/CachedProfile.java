@@ -0,0 +1,30 @@
+package com.redgit.profile.infrastructure.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.redgit.profile.infrastructure.entities.Profile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Valor guardado no cache de perfis: o perfil, quando ele deixa de ser fresco
+// (expiração lógica, antes do TTL real do Redis) e quanto custou carregá-lo.
+// Sem perfil, é uma entrada negativa: "não existe", com TTL curto.
+// Classe não final: o serializer do Redis só grava o tipo (@class) de tipos não finais.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedProfile {
+
+    private Profile profile;
+    private long expiresAtMillis;
+    private long computeMillis;
+
+    public boolean isStale(long now) {
+        return now >= expiresAtMillis;
+    }
+
+    @JsonIgnore
+    public boolean isNegative() {
+        return profile == null;
+    }
+}
@@ -0,0 +1,552 @@
+package com.redgit.profile.infrastructure.cache;
+
+import com.redgit.profile.infrastructure.entities.Profile;
+import com.redgit.profile.infrastructure.metrics.CacheMetrics;
+import com.redgit.profile.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.profile.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.profile.infrastructure.redis.RedisService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Cache de perfis em dois níveis: memória local (curto, por instância) na frente do Redis.
+// Hit local não paga rede nem desserialização JSON. Alterações são publicadas em
+// "profile:cache-invalidation" para todas as instâncias removerem a cópia local.
+// As instâncias devolvidas são compartilhadas: quem for alterar o perfil carrega do banco.
+// Misses da mesma chave são agrupados (single flight): uma carga por instância e, com o
+// lease ligado, uma por cluster; os demais esperam o resultado por no máximo wait-ms.
+// Entradas guardam a expiração lógica e o custo da carga: perto do fim são renovadas em
+// segundo plano com probabilidade crescente (XFetch) e, depois dele, ainda servidas por
+// stale-seconds enquanto a renovação roda (stale-while-revalidate).
+// "Não encontrado" também é cacheado (negative-ttl-seconds, curto) e removido assim que
+// o username ou userId passa a existir.
+// Toda invalidação incrementa a geração da chave; uma carga (miss, espera do lease ou
+// renovação) iniciada antes dela não grava nada, e se a invalidação cair entre a checagem
+// e a escrita a carga desfaz a própria escrita.
+// Mensagens publicadas enquanto o listener estava desconectado se perdem: ao se reinscrever,
+// a cópia local é descartada e o filtro de usernames é reconstruído.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProfileCache implements MessageListener, SubscriptionListener {
+
+    public static final String CHANNEL = "profile:cache-invalidation";
+
+    private static final String CHANNEL_FAMILY = "cache-invalidation";
+    private static final String USERNAME_KEY_PREFIX = "public:";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final RedisService redisService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final UsernameFilter usernameFilter;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    // Expiração lógica: depois dela a entrada é renovada, mas continua servível por stale-seconds
+    @Value("${cache.profile.ttl:300}")
+    private long redisTtlSeconds = 300;
+
+    @Value("${cache.profile.stale-seconds:60}")
+    private long staleSeconds = 60;
+
+    // XFetch: quanto maior, mais cedo a renovação antecipada começa
+    @Value("${cache.profile.early-refresh.beta:1.0}")
+    private double beta = 1.0;
+
+    @Value("${cache.profile.refresh.threads:2}")
+    private int refreshThreads = 2;
+
+    @Value("${cache.profile.refresh.queue-capacity:256}")
+    private int refreshQueueCapacity = 256;
+
+    @Value("${cache.profile.local.max-size:10000}")
+    private int localMaxSize = 10000;
+
+    // Limita a janela de inconsistência caso uma mensagem de invalidação se perca
+    @Value("${cache.profile.local.ttl-seconds:30}")
+    private long localTtlSeconds = 30;
+
+    @Value("${cache.profile.negative.ttl-seconds:30}")
+    private long negativeTtlSeconds = 30;
+
+    // Limite próprio: um scraper de nomes inexistentes não expulsa os perfis reais da memória
+    @Value("${cache.profile.negative.max-size:10000}")
+    private int negativeMaxSize = 10000;
+
+    @Value("${cache.profile.single-flight.wait-ms:500}")
+    private long waitMillis = 500;
+
+    // Lease no Redis para agrupar misses entre instâncias
+    @Value("${cache.profile.single-flight.lease-enabled:false}")
+    private boolean leaseEnabled = false;
+
+    @Value("${cache.profile.single-flight.lease-ms:2000}")
+    private long leaseMillis = 2000;
+
+    @Value("${cache.profile.single-flight.poll-ms:25}")
+    private long pollMillis = 25;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> negatives = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedProfile>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final String instanceId = UUID.randomUUID().toString();
+    // Geração por faixa de chaves: memória limitada, e uma colisão só descarta uma escrita a mais
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    private record Entry(CachedProfile value, long expiresAtMillis) {}
+
+    public static String userKey(UUID userId) {
+        return "user:" + userId;
+    }
+
+    public static String usernameKey(String username) {
+        return USERNAME_KEY_PREFIX + username;
+    }
+
+    @PostConstruct
+    void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+
+        AtomicInteger counter = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(
+                refreshThreads,
+                refreshThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "profile-cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
+    }
+
+    // Memória -> Redis -> loader; o loader devolve null quando o perfil não existe
+    public Profile get(String key, Supplier<Profile> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        boolean localHit = entry != null && entry.expiresAtMillis() > now;
+        CacheMetrics.record("profile-local", localHit);
+        if (localHit) {
+            return serve(key, entry.value(), loader);
+        }
+
+        Long negativeUntil = negatives.get(key);
+        if (negativeUntil != null && negativeUntil > now) {
+            CacheMetrics.record("profile-negative", true);
+            return null;
+        }
+
+        // Miss local: a primeira requisição carrega, as concorrentes esperam o mesmo resultado
+        CompletableFuture<CachedProfile> flight = new CompletableFuture<>();
+        CompletableFuture<CachedProfile> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            CacheMetrics.coalesced("profile");
+            CachedProfile value = await(key, leader, loader);
+            return value != null ? value.getProfile() : null;
+        }
+
+        CachedProfile value;
+        try {
+            value = loadThroughRedis(key, loader, generation(key));
+            flight.complete(value);
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+        return value != null && !value.isNegative() ? serve(key, value, loader) : null;
+    }
+
+    // Remove já e de novo após o commit, para que uma leitura concorrente
+    // não recoloque no cache o estado anterior à transação
+    public void invalidate(UUID userId, String... usernames) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(userKey(userId));
+        for (String username : usernames) {
+            if (username != null) {
+                keys.add(usernameKey(username));
+                usernameFilter.claim(username);
+            }
+        }
+        List<String> batch = List.copyOf(keys);
+        evict(batch);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(batch);
+                    broadcast(batch);
+                }
+            });
+        } else {
+            broadcast(batch);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String key : body.split("\n")) {
+            bumpGeneration(key);
+            entries.remove(key);
+            negatives.remove(key);
+            // Username criado ou trocado em outra instância passa a existir aqui também
+            if (key.startsWith(USERNAME_KEY_PREFIX)) {
+                usernameFilter.put(key.substring(USERNAME_KEY_PREFIX.length()));
+            }
+        }
+        log.debug("Perfis invalidados por outra instância: {}", body);
+    }
+
+    // O container avisa a cada inscrição no canal; da segunda em diante é uma reconexão
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        if (!subscribed.getAndSet(true)) {
+            return;
+        }
+        log.warn("Listener de invalidação reconectado; descartando cópia local e reconstruindo filtro de usernames");
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        entries.clear();
+        negatives.clear();
+        // Fora da thread do subscriber: a reconstrução lê todos os usernames do banco
+        try {
+            refreshExecutor.execute(usernameFilter::rebuild);
+        } catch (RejectedExecutionException e) {
+            log.warn("Fila de renovação cheia; filtro de usernames fica para a reconstrução agendada");
+        }
+    }
+
+    private void evict(List<String> keys) {
+        for (String key : keys) {
+            bumpGeneration(key);
+            entries.remove(key);
+            negatives.remove(key);
+            // Quem chegar depois da invalidação não espera uma carga iniciada antes dela
+            inFlight.remove(key);
+            redisService.delete(key);
+        }
+        log.debug("Cache de perfil invalidado: {}", keys);
+    }
+
+    private CachedProfile await(String key, CompletableFuture<CachedProfile> leader, Supplier<Profile> loader) {
+        try {
+            return leader.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Carga de {} passou de {}ms; buscando direto", key, waitMillis);
+            return loadThroughRedis(key, loader, generation(key));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando carga de " + key, e);
+        }
+    }
+
+    // Entrega o valor já em mãos; se estiver vencido ou perto de vencer, renova em segundo plano
+    private Profile serve(String key, CachedProfile value, Supplier<Profile> loader) {
+        long now = System.currentTimeMillis();
+        if (value.isStale(now)) {
+            refreshAsync(key, loader, "stale");
+        } else if (shouldRefreshEarly(value, now)) {
+            refreshAsync(key, loader, "early");
+        }
+        return value.getProfile();
+    }
+
+    // XFetch: renova se now - custo * beta * ln(U) >= expiração, com U uniforme em (0, 1].
+    // A chance cresce perto do fim e é maior para perfis caros de carregar.
+    private boolean shouldRefreshEarly(CachedProfile value, long now) {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - value.getComputeMillis() * beta * Math.log(random) >= value.getExpiresAtMillis();
+    }
+
+    private void refreshAsync(String key, Supplier<Profile> loader, String reason) {
+        if (refreshExecutor == null || !refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(key, loader, reason);
+                } catch (Exception e) {
+                    // Segue servindo o valor antigo; a próxima leitura tenta de novo
+                    log.warn("Erro ao renovar perfil em segundo plano: key={}, error={}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("Fila de renovação cheia; {} segue com o valor atual", key);
+        }
+    }
+
+    private void refresh(String key, Supplier<Profile> loader, String reason) {
+        String leaseKey = "lease:" + key;
+        Boolean acquired = leaseEnabled ? redisService.setIfAbsent(leaseKey, instanceId, leaseMillis) : null;
+        if (Boolean.FALSE.equals(acquired)) {
+            // Outra instância já está renovando
+            return;
+        }
+
+        long generation = generation(key);
+        try {
+            CachedProfile fresh = loadAndStore(key, loader, generation);
+            CacheMetrics.refreshed("profile", reason);
+            if (fresh != null && fresh.isNegative() && generation(key) == generation) {
+                // Perfil removido desde a última carga
+                entries.remove(key);
+            }
+            remember(key, fresh, generation);
+        } finally {
+            if (acquired != null) {
+                releaseLease(leaseKey);
+            }
+        }
+    }
+
+    // A carga pode passar de lease-ms: nesse caso o lease já expirou e pode ser de outra instância
+    private void releaseLease(String leaseKey) {
+        if (!redisService.deleteIfEquals(leaseKey, instanceId)) {
+            log.debug("Lease {} expirou antes do fim da carga; mantido para o novo dono", leaseKey);
+        }
+    }
+
+    private CachedProfile loadThroughRedis(String key, Supplier<Profile> loader, long generation) {
+        CachedProfile cached = redisService.get(key, CachedProfile.class);
+        CacheMetrics.record("profile-redis", cached != null);
+        if (cached != null && cached.isNegative()) {
+            CacheMetrics.record("profile-negative", true);
+        }
+        if (cached == null) {
+            cached = leaseEnabled ? loadWithLease(key, loader, generation) : loadAndStore(key, loader, generation);
+        }
+
+        remember(key, cached, generation);
+        return cached;
+    }
+
+    // Só quem obtém o lease vai ao banco; as outras instâncias esperam o valor aparecer no Redis
+    private CachedProfile loadWithLease(String key, Supplier<Profile> loader, long generation) {
+        String leaseKey = "lease:" + key;
+        Boolean acquired = redisService.setIfAbsent(leaseKey, instanceId, leaseMillis);
+
+        if (Boolean.FALSE.equals(acquired)) {
+            long deadline = System.currentTimeMillis() + waitMillis;
+            while (System.currentTimeMillis() < deadline) {
+                if (!sleep(pollMillis)) {
+                    break;
+                }
+                CachedProfile cached = redisService.get(key, CachedProfile.class);
+                if (cached != null) {
+                    CacheMetrics.coalesced("profile");
+                    return cached;
+                }
+            }
+            log.debug("Lease de {} não liberou em {}ms; buscando direto", key, waitMillis);
+            return loadAndStore(key, loader, generation);
+        }
+
+        // null: Redis indisponível, carrega sem lease
+        try {
+            return loadAndStore(key, loader, generation);
+        } finally {
+            if (acquired != null) {
+                releaseLease(leaseKey);
+            }
+        }
+    }
+
+    // O TTL no Redis cobre a expiração lógica mais a janela em que o valor ainda pode ser servido vencido
+    private CachedProfile loadAndStore(String key, Supplier<Profile> loader, long generation) {
+        long start = System.nanoTime();
+        Profile profile = loader.get();
+        long computeMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (profile == null) {
+            // Entrada negativa curta: enumerações de nomes inexistentes não vão ao MySQL a cada requisição
+            CacheMetrics.record("profile-negative", false);
+            CachedProfile negative = new CachedProfile(
+                    null, System.currentTimeMillis() + negativeTtlSeconds * 1000, computeMillis);
+            storeInRedis(key, negative, negativeTtlSeconds, generation);
+            return negative;
+        }
+
+        CachedProfile value = new CachedProfile(
+                profile,
+                System.currentTimeMillis() + redisTtlSeconds * 1000,
+                computeMillis
+        );
+        if (!storeInRedis(key, value, redisTtlSeconds + staleSeconds, generation)) {
+            return value;
+        }
+        log.debug("Perfil cacheado: {} (TTL: {}s + {}s vencido, carga: {}ms)",
+                key, redisTtlSeconds, staleSeconds, computeMillis);
+        return value;
+    }
+
+    // A carga em mãos ainda é a resposta desta requisição, mas só vai para o cache se nenhuma
+    // invalidação aconteceu desde o início dela. Se a invalidação cair entre a checagem e o SET,
+    // a segunda checagem desfaz a escrita (a invalidação incrementa a geração antes de apagar).
+    private boolean storeInRedis(String key, CachedProfile value, long ttlSeconds, long generation) {
+        if (generation(key) != generation) {
+            log.debug("Perfil {} invalidado durante a carga; valor não cacheado", key);
+            return false;
+        }
+        redisService.set(key, value, ttlSeconds);
+        if (generation(key) != generation) {
+            redisService.delete(key);
+            return false;
+        }
+        return true;
+    }
+
+    private long generation(String key) {
+        return generations.get(stripe(key));
+    }
+
+    private void bumpGeneration(String key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void broadcast(List<String> keys) {
+        try {
+            String body = String.join("\n", keys);
+            circuitBreaker.execute("publish", CHANNEL_FAMILY, () -> RedisCommandMetrics.record("publish", CHANNEL_FAMILY,
+                    () -> stringRedisTemplate.convertAndSend(CHANNEL, body)));
+        } catch (Exception e) {
+            // O TTL local limita a janela de inconsistência nas outras instâncias
+            log.error("Erro ao publicar invalidação de perfil: {}", e.getMessage());
+        }
+    }
+
+    // Mesma regra do Redis para a cópia local: checa antes, escreve, e desfaz se a geração mudou
+    private void remember(String key, CachedProfile value, long generation) {
+        if (value == null || generation(key) != generation) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (value.isNegative()) {
+            Long expiresAt = putNegative(key, value.getExpiresAtMillis(), now);
+            if (generation(key) != generation) {
+                negatives.remove(key, expiresAt);
+            }
+        } else {
+            negatives.remove(key);
+            Entry entry = putLocal(key, value, now);
+            if (generation(key) != generation) {
+                entries.remove(key, entry);
+            }
+        }
+    }
+
+    private Long putNegative(String key, long expiresAtMillis, long now) {
+        if (negatives.size() >= negativeMaxSize) {
+            negatives.values().removeIf(expiresAt -> expiresAt <= now);
+
+            int toRemove = negatives.size() - negativeMaxSize + Math.max(1, negativeMaxSize / 10);
+            Iterator<String> it = negatives.keySet().iterator();
+            while (toRemove-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        Long expiresAt = Math.min(expiresAtMillis, now + localTtlSeconds * 1000);
+        negatives.put(key, expiresAt);
+        return expiresAt;
+    }
+
+    // A cópia local nunca sobrevive à janela em que o valor ainda pode ser servido
+    private Entry putLocal(String key, CachedProfile value, long now) {
+        if (entries.size() >= localMaxSize) {
+            evictLocal(now);
+        }
+        long expiresAt = Math.min(now + localTtlSeconds * 1000, value.getExpiresAtMillis() + staleSeconds * 1000);
+        Entry entry = new Entry(value, expiresAt);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private void evictLocal(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().expiresAtMillis() <= now);
+
+        int toRemove = entries.size() - localMaxSize + Math.max(1, localMaxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.redgit.profile.infrastructure.cache;
+
+import com.redgit.profile.infrastructure.datasource.ReadYourWritesTracker;
+import com.redgit.profile.infrastructure.entities.Profile;
+import com.redgit.profile.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.profile.infrastructure.redis.RedisCircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+// O cache de segundo nível é local a cada instância: alterações commitadas aqui
+// são publicadas em "profile:l2-invalidation" para as demais removerem a entrada.
+// Inserções também são publicadas: o query cache guarda "username não encontrado".
+// Com réplica de leitura, a remoção se repete depois do atraso máximo tolerado,
+// descartando o que tenha sido recarregado da réplica ainda desatualizada.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator implements MessageListener,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    public static final String CHANNEL = "profile:l2-invalidation";
+    private static final String CHANNEL_FAMILY = "l2-invalidation";
+
+    enum Change { INSERT, UPDATE, DELETE }
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TaskScheduler taskScheduler;
+    private final ReadYourWritesTracker readYourWrites;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    @Value("${datasource.routing.max-lag-seconds:5}")
+    private long maxReplicaLagSeconds = 5;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = sessionFactory().getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(Change.INSERT, event.getPersister().getEntityName(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(Change.UPDATE, event.getPersister().getEntityName(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(Change.DELETE, event.getPersister().getEntityName(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length != 4) {
+            return;
+        }
+        String origin = parts[0];
+        Change change = Change.valueOf(parts[1]);
+        String entityName = parts[2];
+        String id = parts[3];
+
+        // A própria instância já atualizou o cache no commit
+        if (!instanceId.equals(origin)) {
+            evict(change, entityName, id);
+            log.debug("Cache L2 invalidado por outra instância: {} {} {}", change, entityName, id);
+        }
+
+        if (readYourWrites.isEnabled()) {
+            taskScheduler.schedule(() -> evict(change, entityName, id),
+                    Instant.now().plusSeconds(maxReplicaLagSeconds + 1));
+        }
+    }
+
+    void evict(Change change, String entityName, String id) {
+        try {
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            cache.evictEntityData(entityName, UUID.fromString(id));
+            // userId é imutável: a associação userId -> id só fica inválida quando o perfil sai
+            if (change == Change.DELETE) {
+                cache.evictNaturalIdData(entityName);
+            }
+            // Username criado, trocado ou removido: resultados cacheados de findByUsername caem
+            cache.evictQueryRegion(Profile.USERNAME_QUERY_REGION);
+        } catch (Exception e) {
+            log.error("Erro ao invalidar cache L2: entity={}, id={}, error={}", entityName, id, e.getMessage());
+        }
+    }
+
+    private void publish(Change change, String entityName, Object id) {
+        try {
+            String body = instanceId + "|" + change + "|" + entityName + "|" + id;
+            circuitBreaker.execute("publish", CHANNEL_FAMILY, () -> RedisCommandMetrics.record("publish", CHANNEL_FAMILY,
+                    () -> stringRedisTemplate.convertAndSend(CHANNEL, body)));
+        } catch (Exception e) {
+            // O TTL da região limita a janela de inconsistência nas outras instâncias
+            log.error("Erro ao publicar invalidação do cache L2: {}", e.getMessage());
+        }
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+}
@@ -0,0 +1,147 @@
+package com.redgit.profile.infrastructure.cache;
+
+import com.redgit.profile.infrastructure.redis.RedisService;
+import com.redgit.profile.infrastructure.repository.ProfileRepository;
+import com.redgit.profile.infrastructure.security.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Bloom filter dos usernames existentes: "não contém" responde 404 sem Redis nem MySQL.
+// Reconstruído periodicamente a partir do banco (descarta usernames abandonados);
+// nomes criados ou trocados entram na hora, aqui e nas outras instâncias (via ProfileCache).
+// O pub/sub pode perder a mensagem, então quem grava também marca o nome em "claimed:" no
+// Redis por claim-ttl-seconds; antes de responder "não existe" o filtro confere essa marca.
+// Até a primeira reconstrução não filtra nada.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsernameFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final String CLAIM_KEY_PREFIX = "claimed:";
+
+    private final ProfileRepository profileRepository;
+    private final RedisService redisService;
+
+    @Value("${cache.profile.username-filter.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cache.profile.username-filter.expected-insertions:1000000}")
+    private int expectedInsertions = 1_000_000;
+
+    // A reconstrução lê da réplica, e o ProfileCache chama put antes do commit: um nome
+    // adicionado pouco antes pode ainda não aparecer na leitura. Nomes adicionados nesta
+    // janela (maior que o atraso da réplica somado à transação mais longa) são repassados
+    // ao filtro novo.
+    @Value("${cache.profile.username-filter.carry-over-ms:60000}")
+    private long carryOverMs = 60_000;
+
+    // Tempo para todas as instâncias reconstruírem o filtro com o nome novo
+    // (intervalo de reconstrução + atraso da réplica + duração da reconstrução)
+    @Value("${cache.profile.username-filter.claim-ttl-seconds:900}")
+    private long claimTtlSeconds = 900;
+
+    private volatile BloomFilter filter;
+    // Username normalizado -> instante (ms) do último put
+    private final Map<String, Long> recentlyAdded = new ConcurrentHashMap<>();
+    private final AtomicLong lastSize = new AtomicLong();
+
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        if (!enabled || current == null) {
+            return true;
+        }
+        String normalized = normalize(username);
+        // "claimed" é fail closed: sem Redis a dúvida vai para o banco, não vira 404
+        return current.mightContain(normalized) || redisService.exists(CLAIM_KEY_PREFIX + normalized);
+    }
+
+    // Nome criado ou trocado nesta instância: entra no filtro local e fica marcado no Redis
+    // até as outras instâncias o verem numa reconstrução, mesmo que a mensagem se perca
+    public void claim(String username) {
+        if (!enabled) {
+            return;
+        }
+        put(username);
+        redisService.set(CLAIM_KEY_PREFIX + normalize(username), "1", claimTtlSeconds);
+    }
+
+    public void put(String username) {
+        if (!enabled) {
+            return;
+        }
+        // Ordem importa: o registro vem antes, para a reconstrução em curso também vê-lo
+        String normalized = normalize(username);
+        recentlyAdded.put(normalized, System.currentTimeMillis());
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalized);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Scheduled(
+            initialDelayString = "${cache.profile.username-filter.initial-delay-ms:0}",
+            fixedDelayString = "${cache.profile.username-filter.rebuild-interval-ms:600000}"
+    )
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            BloomFilter rebuilt = new BloomFilter(
+                    (int) Math.max(expectedInsertions, lastSize.get() * 2), FALSE_POSITIVE_RATE);
+            AtomicLong count = new AtomicLong();
+            try (Stream<String> usernames = profileRepository.streamAllUsernames()) {
+                usernames.forEach(username -> {
+                    rebuilt.put(normalize(username));
+                    count.incrementAndGet();
+                });
+            }
+
+            carryOver(rebuilt, startedAt);
+            filter = rebuilt;
+            // Quem escreveu entre o repasse e a troca foi para o filtro antigo
+            carryOver(rebuilt, startedAt);
+            lastSize.set(count.get());
+            log.info("Filtro de usernames reconstruído: {} usernames", count.get());
+        } catch (Exception e) {
+            // Mantém o filtro anterior (ou nenhum filtro) até a próxima tentativa
+            log.error("Erro ao reconstruir filtro de usernames: {}", e.getMessage());
+        } finally {
+            long cutoff = startedAt - carryOverMs;
+            recentlyAdded.values().removeIf(addedAt -> addedAt < cutoff);
+        }
+    }
+
+    private void carryOver(BloomFilter target, long startedAt) {
+        long cutoff = startedAt - carryOverMs;
+        recentlyAdded.forEach((username, addedAt) -> {
+            if (addedAt >= cutoff) {
+                target.put(username);
+            }
+        });
+    }
+
+    // Mesma chave para usernames que a collation utf8mb4_0900_ai_ci trata como iguais
+    // (maiúsculas/minúsculas e acentos). Juntar demais só gera falso positivo, nunca 404 falso.
+    static String normalize(String username) {
+        String folded = username.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        return COMBINING_MARKS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFKD)).replaceAll("");
+    }
+}
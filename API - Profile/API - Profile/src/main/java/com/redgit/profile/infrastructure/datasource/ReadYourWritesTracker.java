@@ -0,0 +1,167 @@
+package com.redgit.profile.infrastructure.datasource;
+
+import com.redgit.profile.infrastructure.redis.RedisService;
+import com.redgit.profile.infrastructure.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Read-your-writes com réplica de leitura: por alguns segundos após uma gravação,
+// leituras da mesma chave (ou do próprio usuário) vão para o primário.
+// A marca fica em memória e no Redis ("profile:ryw:<chave>") para valer em todas as instâncias.
+// Sem réplica configurada tudo aqui é no-op.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadYourWritesTracker {
+
+    private static final String KEY_PREFIX = "ryw:";
+    private static final String REQUEST_MEMO = ReadYourWritesTracker.class.getName() + ".memo";
+    private static final int LOCAL_PURGE_THRESHOLD = 10000;
+
+    private final RedisService redisService;
+
+    @Value("${spring.datasource.replica.url:}")
+    private String replicaUrl = "";
+
+    // Deve cobrir o atraso máximo tolerado da réplica
+    @Value("${datasource.routing.read-your-writes-seconds:5}")
+    private long windowSeconds = 5;
+
+    private final Map<String, Long> localWrites = new ConcurrentHashMap<>();
+
+    // Leituras dentro de readFresh vão para o primário
+    private final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+
+    public static String userKey(Object userId) {
+        return "user:" + userId;
+    }
+
+    public static String usernameKey(String username) {
+        return "username:" + username;
+    }
+
+    // Marca a gravação nesta instância e no Redis; a janela começa no commit
+    public void markWrite(String key) {
+        if (!isEnabled() || key == null) {
+            return;
+        }
+
+        Runnable mark = () -> {
+            markLocal(key);
+            redisService.set(KEY_PREFIX + key, "1", windowSeconds);
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            markLocal(key);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+
+    // Só nesta instância: usado quando a propagação já acontece por outro canal (pub/sub)
+    public void markLocal(String key) {
+        if (!isEnabled() || key == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (localWrites.size() >= LOCAL_PURGE_THRESHOLD) {
+            localWrites.values().removeIf(until -> until <= now);
+        }
+        localWrites.put(key, now + windowSeconds * 1000);
+    }
+
+    public boolean isRecentlyWritten(String key) {
+        if (!isEnabled() || key == null) {
+            return false;
+        }
+
+        Long until = localWrites.get(key);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) {
+                return true;
+            }
+            localWrites.remove(key, until);
+        }
+
+        // Uma consulta ao Redis por chave e requisição
+        Map<String, Boolean> memo = requestMemo();
+        if (memo != null) {
+            Boolean cached = memo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        boolean recent = redisService.exists(KEY_PREFIX + key);
+        if (memo != null) {
+            memo.put(key, recent);
+        }
+        return recent;
+    }
+
+    // Executa o loader no primário se a chave foi gravada há pouco (ex.: recarga de cache)
+    public <T> T readFresh(String key, Supplier<T> loader) {
+        if (!isRecentlyWritten(key) || Boolean.TRUE.equals(pinnedToPrimary.get())) {
+            return loader.get();
+        }
+
+        pinnedToPrimary.set(Boolean.TRUE);
+        try {
+            return loader.get();
+        } finally {
+            pinnedToPrimary.remove();
+        }
+    }
+
+    // Consultado pelo roteamento ao abrir uma conexão somente leitura
+    public boolean shouldReadFromPrimary() {
+        if (Boolean.TRUE.equals(pinnedToPrimary.get())) {
+            return true;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user && user.hasUserId()) {
+            return isRecentlyWritten(userKey(user.id()));
+        }
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return replicaUrl != null && !replicaUrl.isBlank();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Boolean> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Object memo = attributes.getAttribute(REQUEST_MEMO, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<String, Boolean>();
+            attributes.setAttribute(REQUEST_MEMO, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, Boolean>) memo;
+    }
+}
@@ -6,7 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
@@ -16,18 +20,29 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "profiles")
+// Cache de segundo nível: userId (natural id) e username (query cache) resolvem na JVM
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Profile.CACHE_REGION)
+@NaturalIdCache(region = Profile.USER_ID_CACHE_REGION)
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Profile {
 
+    public static final String CACHE_REGION = "profiles";
+    public static final String USER_ID_CACHE_REGION = "profiles-by-user-id";
+    public static final String USERNAME_QUERY_REGION = "profiles-by-username";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", updatable = false, nullable = false)
     private UUID id;
 
     // FK para users.id da API de Auth
-    @Column(name = "user_id", nullable = false, unique = true)
+    @NaturalId
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "user_id", columnDefinition = "BINARY(16)", nullable = false, unique = true)
     private UUID userId;
 
     @Column(name = "username", unique = true, nullable = false, length = 30)
@@ -3,6 +3,8 @@ package com.redgit.profile.infrastructure.entities;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.UUID;
 
@@ -12,8 +14,10 @@ import java.util.UUID;
 @Setter
 public class User {
 
+    // Linhas criadas pela API de Auth (UUID v7); aqui apenas leitura
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Column(name = "email", unique = true, nullable = false)
@@ -0,0 +1,41 @@
+package com.redgit.profile.infrastructure.entities;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UUID v7 (RFC 9562): 48 bits de timestamp em ms + 12 bits de sequência + 62 bits aleatórios.
+// Como os bytes mais significativos são o tempo, ids novos entram sempre no fim do
+// índice clusterizado do InnoDB em vez de espalhar inserções (e page splits) pela árvore.
+public class UuidV7Generator implements IdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // timestamp << 12 | sequência: garante ordem crescente dentro do mesmo milissegundo
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public UuidV7Generator(UuidV7 config, Member member, CustomIdGeneratorCreationContext context) {
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(now, last + 1));
+
+        long timestamp = state >>> 12;
+        long sequence = state & 0xFFF;
+
+        long msb = (timestamp << 16) | 0x7000L | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,36 @@
+package com.redgit.profile.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+
+// Hits e misses por cache (cache.gets{cache, result}); a taxa de acerto sai da razão entre os dois
+public final class CacheMetrics {
+
+    private static final Meter.MeterProvider<Counter> GETS = Counter.builder("cache.gets")
+            .description("Consultas ao cache por resultado")
+            .withRegistry(Metrics.globalRegistry);
+
+    private static final Meter.MeterProvider<Counter> COALESCED = Counter.builder("cache.loads.coalesced")
+            .description("Misses que esperaram a carga de outra requisição em vez de ir ao banco")
+            .withRegistry(Metrics.globalRegistry);
+
+    private static final Meter.MeterProvider<Counter> REFRESHES = Counter.builder("cache.refreshes")
+            .description("Renovações em segundo plano (early = XFetch, stale = valor já vencido)")
+            .withRegistry(Metrics.globalRegistry);
+
+    private CacheMetrics() {
+    }
+
+    public static void record(String cache, boolean hit) {
+        GETS.withTags("cache", cache, "result", hit ? "hit" : "miss").increment();
+    }
+
+    public static void coalesced(String cache) {
+        COALESCED.withTags("cache", cache).increment();
+    }
+
+    public static void refreshed(String cache, String reason) {
+        REFRESHES.withTags("cache", cache, "reason", reason).increment();
+    }
+}
@@ -0,0 +1,24 @@
+package com.redgit.profile.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Latência por consulta HQL/JPQL (depende de hibernate.generate_statistics=true).
+// Sessões, entidades e cache L2 o Spring Boot já exporta sozinho via hibernate-micrometer.
+@Configuration
+public class HibernateQueryMetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> new HibernateQueryMetrics(
+                entityManagerFactory.unwrap(SessionFactory.class),
+                "entityManagerFactory",
+                Tags.empty()
+        ).bindTo(registry);
+    }
+}
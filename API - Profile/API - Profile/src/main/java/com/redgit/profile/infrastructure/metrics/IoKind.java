@@ -0,0 +1,11 @@
+package com.redgit.profile.infrastructure.metrics;
+
+// Tipos de I/O atribuídos à requisição pelo RequestIoTracer
+public enum IoKind {
+    REDIS,
+    JDBC;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,20 @@
+package com.redgit.profile.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+
+// Requisições recusadas por limite de taxa, por política
+public final class RateLimitMetrics {
+
+    private static final Meter.MeterProvider<Counter> BLOCKED = Counter.builder("ratelimit.blocked")
+            .description("Requisições recusadas por rate limit")
+            .withRegistry(Metrics.globalRegistry);
+
+    private RateLimitMetrics() {
+    }
+
+    public static void blocked(String policy) {
+        BLOCKED.withTags("policy", policy).increment();
+    }
+}
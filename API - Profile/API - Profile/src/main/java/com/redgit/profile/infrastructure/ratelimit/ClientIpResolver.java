@@ -0,0 +1,61 @@
+package com.redgit.profile.infrastructure.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+
+@Component
+@RequiredArgsConstructor
+public class ClientIpResolver {
+
+    private final RateLimitProperties properties;
+
+    // Percorre o X-Forwarded-For da direita para a esquerda e devolve o primeiro
+    // endereço que não é um proxy confiável; sem proxy confiável, usa o IP da conexão.
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!properties.getTrustedProxies().contains(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || forwardedFor.isBlank()) {
+            return remoteAddr;
+        }
+
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !properties.getTrustedProxies().contains(hop)) {
+                return hop;
+            }
+        }
+        return hops[0].trim();
+    }
+
+    // Chave de rate limit por origem. Um cliente IPv6 costuma ter um /64 inteiro e trocaria
+    // de endereço a cada requisição, então IPv6 conta pelo /64; IPv4 continua por endereço.
+    public String resolveNetwork(HttpServletRequest request) {
+        return networkOf(resolve(request));
+    }
+
+    static String networkOf(String ip) {
+        // Só literais IPv6: getByName com um nome faria consulta DNS
+        if (ip == null || !ip.contains(":")) {
+            return ip;
+        }
+        try {
+            byte[] address = InetAddress.getByName(ip).getAddress();
+            if (address.length != 16) {
+                return ip;
+            }
+            Arrays.fill(address, 8, 16, (byte) 0);
+            return InetAddress.getByAddress(address).getHostAddress() + "/64";
+        } catch (Exception e) {
+            return ip;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.redgit.profile.infrastructure.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redgit.profile.infrastructure.exception.ErrorResponse;
+import com.redgit.profile.infrastructure.metrics.RateLimitMetrics;
+import com.redgit.profile.infrastructure.security.AuthenticatedUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Roda logo após o SecurityFilter, para já conhecer o usuário autenticado,
+// e antes de qualquer acesso a banco, Redis de cache ou disco.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final RequestRateLimiter rateLimiter;
+    private final ClientIpResolver clientIpResolver;
+    private final ObjectMapper objectMapper;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RateLimitProperties.Policy policy = properties.isEnabled() ? findPolicy(request) : null;
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitDecision decision = rateLimiter.tryConsume(policy, resolveKey(policy, request));
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        log.warn("Rate limit excedido: política={}, rota={} {}", policy.getName(), request.getMethod(), request.getRequestURI());
+        RateLimitMetrics.blocked(policy.getName());
+
+        ErrorResponse body = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Muitas requisições. Tente novamente em " + decision.retryAfterSeconds() + " segundos",
+                null,
+                LocalDateTime.now()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private RateLimitProperties.Policy findPolicy(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            boolean methodMatches = policy.getMethods().isEmpty()
+                    || policy.getMethods().stream().anyMatch(m -> m.equalsIgnoreCase(request.getMethod()));
+            if (methodMatches && pathMatcher.match(policy.getPath(), path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    // Requisições anônimas em rotas por usuário caem para o IP
+    private String resolveKey(RateLimitProperties.Policy policy, HttpServletRequest request) {
+        String ip = "ip:" + clientIpResolver.resolveNetwork(request);
+        String principal = resolvePrincipal();
+
+        return switch (policy.getKey()) {
+            case IP -> ip;
+            case PRINCIPAL -> principal != null ? principal : ip;
+            case IP_AND_PRINCIPAL -> principal != null ? ip + "|" + principal : ip;
+        };
+    }
+
+    private String resolvePrincipal() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return "user:" + (user.hasUserId() ? user.id() : user.email());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.redgit.profile.infrastructure.ratelimit;
+
+import com.redgit.profile.infrastructure.metrics.RedisCommandMetrics;
+import com.redgit.profile.infrastructure.redis.RedisCircuitBreaker;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket por (política, chave). No modo redis o balde é compartilhado entre
+// instâncias via script atômico; se o Redis falhar (ou o circuito estiver aberto), cai para o balde local.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestRateLimiter {
+
+    private static final String KEY_PREFIX = "profile:ratelimit:";
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = loadScript();
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    private final Map<String, LocalBucket> localBuckets = new ConcurrentHashMap<>();
+
+    private record LocalBucket(Bucket bucket, long capacity, AtomicLong lastUsedNanos) {}
+
+    public RateLimitDecision tryConsume(RateLimitProperties.Policy policy, String key) {
+        String bucketKey = policy.getName() + ":" + key;
+
+        if (properties.getMode() == RateLimitProperties.Mode.REDIS) {
+            RateLimitDecision shared = tryConsumeShared(policy, bucketKey);
+            if (shared != null) {
+                return shared;
+            }
+        }
+
+        return tryConsumeLocal(policy, bucketKey);
+    }
+
+    private RateLimitDecision tryConsumeLocal(RateLimitProperties.Policy policy, String bucketKey) {
+        LocalBucket local = localBuckets.get(bucketKey);
+        if (local == null) {
+            if (localBuckets.size() >= properties.getMaxLocalBuckets()) {
+                evictIdleBuckets();
+            }
+            local = localBuckets.computeIfAbsent(bucketKey, k -> newLocalBucket(policy));
+        }
+
+        local.lastUsedNanos().set(System.nanoTime());
+        ConsumptionProbe probe = local.bucket().tryConsumeAndReturnRemaining(1);
+        if (probe.isConsumed()) {
+            return RateLimitDecision.ALLOWED;
+        }
+        return RateLimitDecision.rejected(probe.getNanosToWaitForRefill() / 1_000_000);
+    }
+
+    private RateLimitDecision tryConsumeShared(RateLimitProperties.Policy policy, String bucketKey) {
+        try {
+            // Circuito aberto: recusa na hora e o balde local assume
+            List<?> result = circuitBreaker.execute("script", "ratelimit",
+                    () -> RedisCommandMetrics.record("script", "ratelimit", () -> stringRedisTemplate.execute(
+                            TOKEN_BUCKET_SCRIPT,
+                            List.of(KEY_PREFIX + bucketKey),
+                            String.valueOf(policy.getCapacity()),
+                            String.valueOf(policy.getRefillTokens()),
+                            String.valueOf(policy.getRefillPeriod().toMillis())
+                    )));
+
+            if (result == null || result.size() < 2) {
+                return null;
+            }
+            if (((Number) result.get(0)).intValue() == 1) {
+                return RateLimitDecision.ALLOWED;
+            }
+            return RateLimitDecision.rejected(((Number) result.get(1)).longValue());
+        } catch (Exception e) {
+            log.debug("Rate limit no Redis indisponível, usando balde local: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private LocalBucket newLocalBucket(RateLimitProperties.Policy policy) {
+        Bucket bucket = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(policy.getCapacity())
+                        .refillGreedy(policy.getRefillTokens(), policy.getRefillPeriod())
+                        .build())
+                .build();
+        return new LocalBucket(bucket, policy.getCapacity(), new AtomicLong(System.nanoTime()));
+    }
+
+    // Balde cheio equivale a um balde novo, então pode ser descartado sem mudar o resultado.
+    // Se não bastar, descarta os usados há mais tempo até sobrar um décimo do limite: quem está
+    // sendo limitado agora usa o balde a cada requisição e continua com ele vazio.
+    private synchronized void evictIdleBuckets() {
+        int maxBuckets = properties.getMaxLocalBuckets();
+        if (localBuckets.size() < maxBuckets) {
+            return;
+        }
+
+        localBuckets.entrySet().removeIf(e -> e.getValue().bucket().getAvailableTokens() >= e.getValue().capacity());
+        int excess = localBuckets.size() - maxBuckets * 9 / 10;
+        if (excess > 0) {
+            log.warn("Limite de baldes locais atingido ({}); descartando os {} usados há mais tempo",
+                    localBuckets.size(), excess);
+            localBuckets.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastUsedNanos().get()))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(localBuckets::remove);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> loadScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/token_bucket.lua")));
+        script.setResultType(List.class);
+        return script;
+    }
+}
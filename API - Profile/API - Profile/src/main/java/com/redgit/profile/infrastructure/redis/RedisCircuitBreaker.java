@@ -0,0 +1,193 @@
+package com.redgit.profile.infrastructure.redis;
+
+import com.redgit.profile.infrastructure.metrics.RedisCommandMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Circuit breaker na frente do Redis, para que um Redis lento ou fora do ar não prenda as threads do Tomcat.
+// Fechado: conta falhas seguidas (erro, timeout ou comando mais lento que slow-call-ms).
+// Aberto: recusa na hora durante open-duration-ms, sem esperar o timeout.
+// Meio-aberto: deixa passar uma única sonda; sucesso fecha o circuito, falha reabre.
+// Um circuito por família de chave ("blacklist", "ratelimit", ...): uma família lenta
+// (script pesado, chave grande) não derruba as outras. Com o Redis inteiro fora do ar
+// cada família abre depois das próprias failure-threshold falhas.
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Meter.MeterProvider<Counter> TRANSITIONS = Counter.builder("redis.circuit.transitions")
+            .description("Mudanças de estado do circuit breaker do Redis")
+            .withRegistry(Metrics.globalRegistry);
+
+    private static final Meter.MeterProvider<Counter> REJECTED = Counter.builder("redis.circuit.rejected")
+            .description("Comandos recusados com o circuito aberto")
+            .withRegistry(Metrics.globalRegistry);
+
+    @Value("${redis.circuit-breaker.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${redis.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold = 5;
+
+    @Value("${redis.circuit-breaker.slow-call-ms:200}")
+    private long slowCallMillis = 200;
+
+    @Value("${redis.circuit-breaker.open-duration-ms:5000}")
+    private long openDurationMillis = 5000;
+
+    // Famílias de chave que falham "fechado": sem Redis, assume a resposta mais conservadora
+    @Value("${redis.circuit-breaker.fail-closed-families:ryw,claimed}")
+    private List<String> failClosedFamilies = List.of("ryw", "claimed");
+
+    // As famílias vêm dos prefixos usados no código, então o mapa é pequeno e fixo na prática
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public <T> T execute(String op, String family, Supplier<T> command) {
+        Circuit circuit = circuit(family);
+        if (!circuit.tryAcquire(op)) {
+            throw new RedisCircuitOpenException(op, family);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = command.get();
+            circuit.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        } catch (RuntimeException e) {
+            circuit.onFailure();
+            throw e;
+        }
+    }
+
+    public boolean isOpen(String family) {
+        Circuit circuit = circuits.get(family);
+        return enabled && circuit != null && circuit.state.get() != State.CLOSED;
+    }
+
+    public State getState(String family) {
+        Circuit circuit = circuits.get(family);
+        return circuit != null ? circuit.state.get() : State.CLOSED;
+    }
+
+    public boolean isFailClosed(String key) {
+        return failClosedFamilies.contains(RedisCommandMetrics.family(key));
+    }
+
+    // Tempo até a próxima sonda da família, para o Retry-After de quem falha fechado
+    public long retryAfterSeconds(String family) {
+        Circuit circuit = circuits.get(family);
+        long remaining = circuit != null
+                ? circuit.openedAtMillis + openDurationMillis - System.currentTimeMillis()
+                : 0;
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remaining + 999));
+    }
+
+    private Circuit circuit(String family) {
+        return circuits.computeIfAbsent(family, Circuit::new);
+    }
+
+    private final class Circuit {
+
+        private final String family;
+        private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean probeInFlight = new AtomicBoolean();
+        private volatile long openedAtMillis;
+
+        private Circuit(String family) {
+            this.family = family;
+            for (State candidate : State.values()) {
+                Gauge.builder("redis.circuit.state", state, current -> current.get() == candidate ? 1 : 0)
+                        .description("Estado do circuit breaker do Redis (1 = estado atual)")
+                        .tag("family", family)
+                        .tag("state", candidate.name().toLowerCase())
+                        .register(Metrics.globalRegistry);
+            }
+        }
+
+        boolean tryAcquire(String op) {
+            if (!enabled || state.get() == State.CLOSED) {
+                return true;
+            }
+
+            if (state.get() == State.OPEN
+                    && System.currentTimeMillis() - openedAtMillis >= openDurationMillis
+                    && transition(State.OPEN, State.HALF_OPEN)) {
+                log.info("Circuito do Redis ({}) meio-aberto: enviando sonda", family);
+            }
+
+            if (state.get() == State.HALF_OPEN && probeInFlight.compareAndSet(false, true)) {
+                return true;
+            }
+
+            REJECTED.withTags("op", op, "family", family).increment();
+            return false;
+        }
+
+        void onSuccess(long elapsedMillis) {
+            if (!enabled) {
+                return;
+            }
+            // Brownout: respostas lentas contam como falha mesmo sem erro
+            if (elapsedMillis > slowCallMillis) {
+                onFailure();
+                return;
+            }
+
+            consecutiveFailures.set(0);
+            if (state.get() == State.HALF_OPEN && transition(State.HALF_OPEN, State.CLOSED)) {
+                probeInFlight.set(false);
+                log.info("Circuito do Redis ({}) fechado: sonda respondeu", family);
+            }
+        }
+
+        void onFailure() {
+            if (!enabled) {
+                return;
+            }
+
+            if (state.get() == State.HALF_OPEN) {
+                open(State.HALF_OPEN);
+                probeInFlight.set(false);
+                return;
+            }
+
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                open(State.CLOSED);
+            }
+        }
+
+        private void open(State from) {
+            openedAtMillis = System.currentTimeMillis();
+            if (transition(from, State.OPEN)) {
+                log.warn("Circuito do Redis ({}) aberto após {} falhas seguidas; comandos recusados por {}ms",
+                        family, failureThreshold, openDurationMillis);
+            }
+        }
+
+        private boolean transition(State from, State to) {
+            if (!state.compareAndSet(from, to)) {
+                return false;
+            }
+            consecutiveFailures.set(0);
+            TRANSITIONS.withTags("family", family, "to", to.name().toLowerCase()).increment();
+            return true;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.redgit.profile.infrastructure.redis;
 
+import com.redgit.profile.infrastructure.metrics.RedisCommandMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -13,37 +20,55 @@ import java.util.concurrent.TimeUnit;
 public class RedisService {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
 
     private static final String KEY_PREFIX = "profile:";
 
+    private static final RedisScript<Long> COMPARE_AND_DELETE_SCRIPT = loadScript();
+
     public void set(String key, Object value, long ttlSeconds) {
         try {
             String fullKey = KEY_PREFIX + key;
-            redisTemplate.opsForValue().set(fullKey, value, ttlSeconds, TimeUnit.SECONDS);
+            timed("set", key,
+                    () -> redisTemplate.opsForValue().set(fullKey, value, ttlSeconds, TimeUnit.SECONDS));
             log.debug("Redis SET: {} (TTL: {}s)", fullKey, ttlSeconds);
         } catch (Exception e) {
-            log.error("Erro ao salvar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao salvar no Redis", key, e);
         }
     }
 
     public void set(String key, Object value) {
         try {
             String fullKey = KEY_PREFIX + key;
-            redisTemplate.opsForValue().set(fullKey, value);
+            timed("set", key, () -> redisTemplate.opsForValue().set(fullKey, value));
             log.debug("Redis SET (sem TTL): {}", fullKey);
         } catch (Exception e) {
-            log.error("Erro ao salvar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao salvar no Redis", key, e);
+        }
+    }
+
+    // SET NX PX para leases curtos; null quando o Redis não respondeu (diferente de "já existe")
+    public Boolean setIfAbsent(String key, Object value, long ttlMillis) {
+        try {
+            String fullKey = KEY_PREFIX + key;
+            Boolean acquired = timed("setnx", key,
+                    () -> redisTemplate.opsForValue().setIfAbsent(fullKey, value, ttlMillis, TimeUnit.MILLISECONDS));
+            log.debug("Redis SETNX: {} = {}", fullKey, acquired);
+            return Boolean.TRUE.equals(acquired);
+        } catch (Exception e) {
+            logFailure("Erro ao adquirir lease no Redis", key, e);
+            return null;
         }
     }
 
     public Object get(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Object value = redisTemplate.opsForValue().get(fullKey);
+            Object value = timed("get", key, () -> redisTemplate.opsForValue().get(fullKey));
             log.debug("Redis GET: {} = {}", fullKey, value != null ? "HIT" : "MISS");
             return value;
         } catch (Exception e) {
-            log.error("Erro ao buscar no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao buscar no Redis", key, e);
             return null;
         }
     }
@@ -60,11 +85,26 @@ public class RedisService {
     public boolean delete(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Boolean deleted = redisTemplate.delete(fullKey);
+            Boolean deleted = timed("delete", key, () -> redisTemplate.delete(fullKey));
             log.debug("Redis DELETE: {} = {}", fullKey, deleted);
             return Boolean.TRUE.equals(deleted);
         } catch (Exception e) {
-            log.error("Erro ao deletar do Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao deletar do Redis", key, e);
+            return false;
+        }
+    }
+
+    // GET + DEL atômicos: um lease que expirou e foi adquirido por outra instância não é apagado.
+    // O valor esperado passa pelo mesmo serializer do SET NX, então a comparação é byte a byte.
+    public boolean deleteIfEquals(String key, Object expected) {
+        try {
+            String fullKey = KEY_PREFIX + key;
+            Long deleted = timed("compare-and-delete", key,
+                    () -> redisTemplate.execute(COMPARE_AND_DELETE_SCRIPT, List.of(fullKey), expected));
+            log.debug("Redis compare-and-delete: {} = {}", fullKey, deleted);
+            return deleted != null && deleted > 0;
+        } catch (Exception e) {
+            logFailure("Erro ao liberar lease no Redis", key, e);
             return false;
         }
     }
@@ -72,22 +112,22 @@ public class RedisService {
     public boolean exists(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Boolean exists = redisTemplate.hasKey(fullKey);
+            Boolean exists = timed("exists", key, () -> redisTemplate.hasKey(fullKey));
             return Boolean.TRUE.equals(exists);
         } catch (Exception e) {
-            log.error("Erro ao verificar existência no Redis: key={}, error={}", key, e.getMessage());
-            return false;
+            logFailure("Erro ao verificar existência no Redis", key, e);
+            return isFailClosed(key);
         }
     }
 
     public boolean expire(String key, long ttlSeconds) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Boolean result = redisTemplate.expire(fullKey, ttlSeconds, TimeUnit.SECONDS);
+            Boolean result = timed("expire", key, () -> redisTemplate.expire(fullKey, ttlSeconds, TimeUnit.SECONDS));
             log.debug("Redis EXPIRE: {} = {}s", fullKey, ttlSeconds);
             return Boolean.TRUE.equals(result);
         } catch (Exception e) {
-            log.error("Erro ao definir expiração no Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao definir expiração no Redis", key, e);
             return false;
         }
     }
@@ -95,34 +135,54 @@ public class RedisService {
     public long getTTL(String key) {
         try {
             String fullKey = KEY_PREFIX + key;
-            Long ttl = redisTemplate.getExpire(fullKey, TimeUnit.SECONDS);
+            Long ttl = timed("ttl", key, () -> redisTemplate.getExpire(fullKey, TimeUnit.SECONDS));
             return ttl != null ? ttl : -2;
         } catch (Exception e) {
-            log.error("Erro ao obter TTL do Redis: key={}, error={}", key, e.getMessage());
+            logFailure("Erro ao obter TTL do Redis", key, e);
             return -2;
         }
     }
 
-    public void invalidateProfile(String username) {
-        try {
-            delete("public:" + username);
+    // Com o circuito da família aberto quem chama degrada explicitamente (validação local, sem cache)
+    public boolean isCircuitOpen(String family) {
+        return circuitBreaker.isOpen(family);
+    }
 
-            delete("avatar:" + username);
+    // Sem resposta do Redis, exists() responde true para as famílias configuradas como "fail closed"
+    public boolean isFailClosed(String key) {
+        return circuitBreaker.isFailClosed(key);
+    }
 
-            log.info("Cache invalidado para perfil: {}", username);
-        } catch (Exception e) {
-            log.error("Erro ao invalidar cache do perfil: username={}, error={}",
-                    username, e.getMessage());
-        }
+    public long circuitRetryAfterSeconds(String family) {
+        return circuitBreaker.retryAfterSeconds(family);
     }
 
-    public void invalidateByUserId(String userId) {
-        try {
-            delete("user:" + userId);
-            log.info("Cache invalidado para userId: {}", userId);
-        } catch (Exception e) {
-            log.error("Erro ao invalidar cache por userId: userId={}, error={}",
-                    userId, e.getMessage());
+    // Cronometra só o comando e alimenta o circuit breaker; falhas seguem para o tratamento de cada método
+    private <T> T timed(String op, String key, Supplier<T> command) {
+        String family = RedisCommandMetrics.family(key);
+        return circuitBreaker.execute(op, family, () -> RedisCommandMetrics.record(op, family, command));
+    }
+
+    private void timed(String op, String key, Runnable command) {
+        timed(op, key, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    private static RedisScript<Long> loadScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/compare_and_delete.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    // Circuito aberto é falha esperada: sem log de erro a cada chamada recusada
+    private void logFailure(String message, Object key, Exception e) {
+        if (e instanceof RedisCircuitOpenException) {
+            log.debug("{}: key={}, circuito aberto", message, key);
+            return;
         }
+        log.error("{}: key={}, error={}", message, key, e.getMessage());
     }
 }
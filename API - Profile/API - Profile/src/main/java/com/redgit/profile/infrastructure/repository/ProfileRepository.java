@@ -1,20 +1,39 @@
 package com.redgit.profile.infrastructure.repository;
 
 import com.redgit.profile.infrastructure.entities.Profile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProfileRepository extends JpaRepository<Profile, UUID> {
-
-    Optional<Profile> findByUserId(UUID userId);
+public interface ProfileRepository extends JpaRepository<Profile, UUID>, ProfileRepositoryCustom {
 
+    // Só um natural id por entidade (userId); username usa o query cache (username -> id),
+    // invalidado pelo Hibernate a cada escrita na tabela profiles
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Profile.USERNAME_QUERY_REGION)
+    })
     Optional<Profile> findByUsername(String username);
 
     boolean existsByUsername(String username);
 
     boolean existsByUserId(UUID userId);
+
+    // Usernames lidos em streaming (fetch size Integer.MIN_VALUE no driver do MySQL) para
+    // reconstruir o UsernameFilter. Precisa ser consumido dentro de uma transação e fechado ao final.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p.username FROM Profile p WHERE p.username IS NOT NULL")
+    Stream<String> streamAllUsernames();
 }
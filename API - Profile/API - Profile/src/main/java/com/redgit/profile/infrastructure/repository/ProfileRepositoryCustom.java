@@ -0,0 +1,10 @@
+package com.redgit.profile.infrastructure.repository;
+
+import com.redgit.profile.infrastructure.entities.Profile;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ProfileRepositoryCustom {
+    Optional<Profile> findByUserId(UUID userId);
+}
@@ -0,0 +1,29 @@
+package com.redgit.profile.infrastructure.repository;
+
+import com.redgit.profile.infrastructure.entities.Profile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Busca por userId via natural id: com o cache de segundo nível aquecido,
+// userId -> id e id -> Profile saem da memória, sem consulta ao MySQL
+public class ProfileRepositoryImpl implements ProfileRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Profile> findByUserId(UUID userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Profile.class)
+                .loadOptional(userId);
+    }
+}
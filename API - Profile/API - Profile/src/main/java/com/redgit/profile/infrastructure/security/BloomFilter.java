@@ -0,0 +1,61 @@
+package com.redgit.profile.infrastructure.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter thread-safe: "false" é definitivo, "true" precisa de confirmação.
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions deve ser maior que zero");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate deve estar entre 0 e 1");
+        }
+
+        long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, optimalBits);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((numBits + 63) / 64));
+    }
+
+    public void put(String value) {
+        long hash1 = DoubleHashing.hash(value, DoubleHashing.SEED_1);
+        long hash2 = DoubleHashing.hash(value, DoubleHashing.SEED_2);
+
+        for (int i = 0; i < numHashes; i++) {
+            long index = DoubleHashing.index(hash1, hash2, i, numBits);
+            setBit(index);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = DoubleHashing.hash(value, DoubleHashing.SEED_1);
+        long hash2 = DoubleHashing.hash(value, DoubleHashing.SEED_2);
+
+        for (int i = 0; i < numHashes; i++) {
+            long index = DoubleHashing.index(hash1, hash2, i, numBits);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+}
@@ -0,0 +1,224 @@
+package com.redgit.profile.infrastructure.security;
+
+import com.redgit.profile.infrastructure.metrics.RedisCommandMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Réplica local da lista de tokens revogados publicada pela API de Auth no stream
+// "redgit:revocations". Um token não revogado custa uma consulta ao Bloom filter;
+// o conjunto exato só é consultado quando o filtro indica possível revogação.
+// O stream também traz a tokenVersion mínima de usuários bloqueados, desativados,
+// removidos ou com role alterada ("uid"/"ver"), o mesmo corte que o SecurityFilter de Auth faz.
+// Se o Redis estiver fora do ar na subida, a primeira leitura não acontece: passado
+// catch-up-timeout o TokenService valida só localmente em vez de recusar tudo.
+@Slf4j
+@Component
+public class TokenRevocationReplica {
+
+    private static final String FEED_KEY = "redgit:revocations";
+    private static final int READ_BATCH_SIZE = 500;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final JedisConnectionFactory connectionFactory;
+    private final StringRedisTemplate redisTemplate;
+    private final int expectedRevocations;
+    private final long catchUpDeadlineMillis;
+    private final AtomicBoolean overdueWarned = new AtomicBoolean();
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Map<UUID, MinVersion> minVersions = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile String lastId = "0-0";
+    private volatile boolean caughtUp = false;
+
+    // O stream vive no database do Redis usado pela API de Auth, por isso uma conexão própria.
+    // Criada à mão, não herda spring.data.redis.timeout/connect-timeout: os prazos são copiados aqui.
+    public TokenRevocationReplica(
+            RedisProperties redisProperties,
+            @Value("${security.jwt.revocation.redis-database:0}") int database,
+            @Value("${security.jwt.revocation.expected-entries:100000}") int expectedRevocations,
+            @Value("${security.jwt.revocation.catch-up-timeout:30s}") Duration catchUpTimeout) {
+
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                redisProperties.getHost(), redisProperties.getPort());
+        configuration.setDatabase(database);
+        if (redisProperties.getPassword() != null && !redisProperties.getPassword().isEmpty()) {
+            configuration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        }
+
+        JedisClientConfiguration.JedisClientConfigurationBuilder client = JedisClientConfiguration.builder();
+        if (redisProperties.getTimeout() != null) {
+            client.readTimeout(redisProperties.getTimeout());
+        }
+        if (redisProperties.getConnectTimeout() != null) {
+            client.connectTimeout(redisProperties.getConnectTimeout());
+        }
+
+        this.connectionFactory = new JedisConnectionFactory(configuration, client.build());
+        this.connectionFactory.afterPropertiesSet();
+        this.connectionFactory.start();
+
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.expectedRevocations = expectedRevocations;
+        this.catchUpDeadlineMillis = System.currentTimeMillis() + catchUpTimeout.toMillis();
+        this.bloomFilter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(String fingerprint) {
+        if (!bloomFilter.mightContain(fingerprint)) {
+            return false;
+        }
+
+        Long expiresAt = revoked.get(fingerprint);
+        return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
+    }
+
+    // Tokens sem "uid" (emitidos antes da claim existir) não podem ser checados aqui
+    public boolean isOutdated(AuthenticatedUser user) {
+        if (user.id() == null) {
+            return false;
+        }
+
+        MinVersion minVersion = minVersions.get(user.id());
+        return minVersion != null
+                && minVersion.expiresAt() > Instant.now().getEpochSecond()
+                && user.tokenVersion() < minVersion.version();
+    }
+
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    // Ainda sem a primeira leitura completa e já passado o prazo de subida
+    public boolean isCatchUpOverdue() {
+        if (caughtUp || System.currentTimeMillis() < catchUpDeadlineMillis) {
+            return false;
+        }
+        if (overdueWarned.compareAndSet(false, true)) {
+            log.warn("Réplica de tokens revogados não sincronizou no prazo; validando tokens só localmente");
+        }
+        return true;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Na primeira execução lê o stream desde o início (catch-up após restart)
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        try {
+            List<MapRecord<String, Object, Object>> records;
+            do {
+                records = RedisCommandMetrics.record("xread", "revocations", () -> redisTemplate.opsForStream().read(
+                        StreamReadOptions.empty().count(READ_BATCH_SIZE),
+                        StreamOffset.create(FEED_KEY, ReadOffset.from(lastId))
+                ));
+
+                if (records == null) {
+                    break;
+                }
+
+                for (MapRecord<String, Object, Object> record : records) {
+                    apply(record.getValue());
+                    lastId = record.getId().getValue();
+                }
+            } while (records.size() == READ_BATCH_SIZE);
+
+            if (!caughtUp) {
+                caughtUp = true;
+                log.info("Réplica de tokens revogados sincronizada: {} entradas", revoked.size());
+            }
+        } catch (Exception e) {
+            log.error("Erro ao ler o stream de revogações: {}", e.getMessage());
+        }
+    }
+
+    // Remove entradas expiradas e reconstrói o filtro, mantendo a memória limitada
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        minVersions.values().removeIf(minVersion -> minVersion.expiresAt() <= now);
+
+        BloomFilter rebuilt = new BloomFilter(
+                Math.max(expectedRevocations, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionFactory.destroy();
+    }
+
+    private void apply(Map<Object, Object> values) {
+        Object fingerprint = values.get("fp");
+        Object userId = values.get("uid");
+        Object expiresAt = values.get("exp");
+        if ((fingerprint == null && userId == null) || expiresAt == null) {
+            return;
+        }
+
+        long exp;
+        try {
+            exp = Long.parseLong(expiresAt.toString());
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        if (exp <= Instant.now().getEpochSecond()) {
+            return;
+        }
+
+        if (fingerprint != null) {
+            revoked.put(fingerprint.toString(), exp);
+            bloomFilter.put(fingerprint.toString());
+        } else {
+            applyMinVersion(userId.toString(), values.get("ver"), exp);
+        }
+    }
+
+    // Fora de ordem ou repetida, vale sempre a maior versão publicada
+    private void applyMinVersion(String userId, Object version, long expiresAt) {
+        if (version == null) {
+            return;
+        }
+
+        UUID id;
+        int ver;
+        try {
+            id = UUID.fromString(userId);
+            ver = Integer.parseInt(version.toString());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        minVersions.merge(id, new MinVersion(ver, expiresAt), (current, received) ->
+                received.version() >= current.version() ? received : current);
+    }
+
+    private record MinVersion(int version, long expiresAt) {
+    }
+}
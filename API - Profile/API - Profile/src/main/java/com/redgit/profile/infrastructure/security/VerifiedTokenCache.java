@@ -0,0 +1,90 @@
+package com.redgit.profile.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cache local de tokens já verificados: fingerprint (SHA-256) -> principal + exp.
+// Nunca devolve uma entrada depois do "exp" do token.
+public class VerifiedTokenCache<T> {
+
+    private final int maxSize;
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize deve ser maior que zero");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public T get(String fingerprint) {
+        Entry<T> entry = entries.get(fingerprint);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(fingerprint, entry);
+            return null;
+        }
+
+        return entry.value();
+    }
+
+    public void put(String fingerprint, T value, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+
+        entries.put(fingerprint, new Entry<>(value, expiresAtMillis));
+    }
+
+    public void invalidate(String fingerprint) {
+        entries.remove(fingerprint);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+
+    // Remove primeiro os expirados; se ainda estiver cheio, descarta ~10% das entradas
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (toRemove > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            toRemove--;
+        }
+    }
+
+    private record Entry<T>(T value, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.redgit.profile.service;
 
 import com.redgit.profile.controller.dto.UpdateProfileDTO;
+import com.redgit.profile.infrastructure.cache.ProfileCache;
+import com.redgit.profile.infrastructure.cache.UsernameFilter;
+import com.redgit.profile.infrastructure.datasource.ReadYourWritesTracker;
 import com.redgit.profile.infrastructure.entities.Profile;
-import com.redgit.profile.infrastructure.redis.RedisService;
+import com.redgit.profile.infrastructure.metrics.CacheMetrics;
 import com.redgit.profile.infrastructure.repository.ProfileRepository;
 import com.redgit.profile.infrastructure.storage.FileStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,10 +25,9 @@ public class ProfileService {
 
     private final ProfileRepository profileRepository;
     private final FileStorageService fileStorageService;
-    private final RedisService redisService;
-
-    @Value("${cache.profile.ttl:300}")
-    private long profileCacheTTL;
+    private final ProfileCache profileCache;
+    private final UsernameFilter usernameFilter;
+    private final ReadYourWritesTracker readYourWrites;
 
     public Profile getOrCreateProfile(UUID userId, String email) {
         return profileRepository.findByUserId(userId)
@@ -34,48 +35,37 @@ public class ProfileService {
     }
 
     public Profile findByUserId(UUID userId) {
-        String cacheKey = "user:" + userId.toString();
-        Profile cached = redisService.get(cacheKey, Profile.class);
+        Profile profile = profileCache.get(ProfileCache.userKey(userId), () -> {
+            log.debug("Cache MISS - Buscando do banco: {}", userId);
+            // Logo após uma gravação lê do primário, para não cachear o estado antigo da réplica
+            return readYourWrites.readFresh(ReadYourWritesTracker.userKey(userId),
+                    () -> profileRepository.findByUserId(userId)).orElse(null);
+        });
 
-        if (cached != null) {
-            log.debug("Cache HIT - Perfil userId: {}", userId);
-            return cached;
+        if (profile == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Perfil não encontrado");
         }
-
-        log.debug("Cache MISS - Buscando do banco: {}", userId);
-
-        Profile profile = profileRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Perfil não encontrado"
-                ));
-
-        redisService.set(cacheKey, profile, profileCacheTTL);
-        log.debug("Perfil cacheado: {} (TTL: {}s)", userId, profileCacheTTL);
-
         return profile;
     }
 
     public Profile findByUsername(String username) {
-        String cacheKey = "public:" + username;
-        Profile cached = redisService.get(cacheKey, Profile.class);
-
-        if (cached != null) {
-            log.debug("Cache HIT - Perfil público: {}", username);
-            return cached;
+        // Username que o filtro garante não existir: 404 sem Redis nem MySQL
+        boolean filtered = !usernameFilter.mightExist(username);
+        CacheMetrics.record("username-filter", filtered);
+        if (filtered) {
+            log.debug("Username inexistente pelo filtro: {}", username);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Perfil não encontrado");
         }
 
-        log.debug("Cache MISS - Buscando do banco: {}", username);
-
-        Profile profile = profileRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Perfil não encontrado"
-                ));
-
-        redisService.set(cacheKey, profile, profileCacheTTL);
-        log.debug("Perfil público cacheado: {} (TTL: {}s)", username, profileCacheTTL);
+        Profile profile = profileCache.get(ProfileCache.usernameKey(username), () -> {
+            log.debug("Cache MISS - Buscando do banco: {}", username);
+            return readYourWrites.readFresh(ReadYourWritesTracker.usernameKey(username),
+                    () -> profileRepository.findByUsername(username)).orElse(null);
+        });
 
+        if (profile == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Perfil não encontrado");
+        }
         return profile;
     }
 
@@ -97,12 +87,17 @@ public class ProfileService {
         profile.setDisplayName(email.split("@")[0]); // Nome inicial do email
         profile.setPublic(true);
 
-        return profileRepository.save(profile);
+        Profile savedProfile = profileRepository.save(profile);
+        // Remove o "não encontrado" cacheado para o userId e para o username recém-criado
+        profileCache.invalidate(userId, initialUsername);
+        markWritten(userId, initialUsername);
+        return savedProfile;
     }
 
     @Transactional
     public Profile updateProfile(UUID userId, UpdateProfileDTO dto) {
-        Profile profile = findByUserId(userId);
+        Profile profile = loadForUpdate(userId);
+        String previousUsername = profile.getUsername();
 
         if (dto.getUsername() != null && !dto.getUsername().equals(profile.getUsername())) {
             if (profileRepository.existsByUsername(dto.getUsername())) {
@@ -113,8 +108,7 @@ public class ProfileService {
             }
 
             if (profile.getUsername() != null) {
-                redisService.invalidateProfile(profile.getUsername());
-                log.info("Cache invalidado para username antigo: {}", profile.getUsername());
+                readYourWrites.markWrite(ReadYourWritesTracker.usernameKey(profile.getUsername()));
             }
 
             profile.setUsername(dto.getUsername());
@@ -147,10 +141,8 @@ public class ProfileService {
         profile.updateTimestamp();
         Profile savedProfile = profileRepository.save(profile);
 
-        redisService.invalidateByUserId(userId.toString());
-        if (savedProfile.getUsername() != null) {
-            redisService.invalidateProfile(savedProfile.getUsername());
-        }
+        profileCache.invalidate(userId, previousUsername, savedProfile.getUsername());
+        markWritten(userId, savedProfile.getUsername());
         log.info("Cache invalidado após atualização de perfil: userId={}", userId);
 
         return savedProfile;
@@ -158,7 +150,7 @@ public class ProfileService {
 
     @Transactional
     public Profile uploadAvatar(UUID userId, MultipartFile file) {
-        Profile profile = findByUserId(userId);
+        Profile profile = loadForUpdate(userId);
 
         if (profile.getAvatarPath() != null) {
             fileStorageService.deleteFile(profile.getAvatarPath());
@@ -170,10 +162,8 @@ public class ProfileService {
 
         Profile savedProfile = profileRepository.save(profile);
 
-        redisService.invalidateByUserId(userId.toString());
-        if (savedProfile.getUsername() != null) {
-            redisService.invalidateProfile(savedProfile.getUsername());
-        }
+        profileCache.invalidate(userId, savedProfile.getUsername());
+        markWritten(userId, savedProfile.getUsername());
         log.info("Cache invalidado após upload de avatar: userId={}", userId);
 
         return savedProfile;
@@ -181,7 +171,7 @@ public class ProfileService {
 
     @Transactional
     public void deleteAvatar(UUID userId) {
-        Profile profile = findByUserId(userId);
+        Profile profile = loadForUpdate(userId);
 
         if (profile.getAvatarPath() == null) {
             throw new ResponseStatusException(
@@ -196,13 +186,28 @@ public class ProfileService {
         profile.updateTimestamp();
         profileRepository.save(profile);
 
-        redisService.invalidateByUserId(userId.toString());
-        if (profile.getUsername() != null) {
-            redisService.invalidateProfile(profile.getUsername());
-        }
+        profileCache.invalidate(userId, profile.getUsername());
+        markWritten(userId, profile.getUsername());
         log.info("Cache invalidado após remoção de avatar: userId={}", userId);
     }
 
+    // Gravações partem do banco, nunca da instância compartilhada pelo cache local
+    private Profile loadForUpdate(UUID userId) {
+        return profileRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Perfil não encontrado"
+                ));
+    }
+
+    // Read-your-writes: leituras seguintes deste perfil (próprio usuário ou recarga do cache) vão ao primário
+    private void markWritten(UUID userId, String username) {
+        readYourWrites.markWrite(ReadYourWritesTracker.userKey(userId));
+        if (username != null) {
+            readYourWrites.markWrite(ReadYourWritesTracker.usernameKey(username));
+        }
+    }
+
     private String generateUsernameFromEmail(String email) {
         String baseUsername = email.split("@")[0].replaceAll("[^a-zA-Z0-9_]", "");
         String username = baseUsername;
@@ -0,0 +1,31 @@
+-- Migração de profiles.id e profiles.user_id para BINARY(16).
+-- O projeto usa ddl-auto=update, que não altera o tipo de colunas existentes:
+-- rodar manualmente uma vez, com a aplicação parada, depois da migração de users
+-- da API de Auth (users_binary_uuid.sql).
+--
+-- Os ids já existentes são preservados; apenas os novos passam a ser UUID v7.
+
+-- 1. Conferir o tipo atual. Se já for binary(16), pular para o passo 3.
+SELECT column_name, column_type
+FROM information_schema.columns
+WHERE table_schema = DATABASE() AND table_name = 'profiles' AND column_name IN ('id', 'user_id');
+
+-- 2. char(36)/varchar(36) -> binary(16), na ordem de bytes do UUID (a mesma do Hibernate)
+ALTER TABLE profiles
+    ADD COLUMN id_bin BINARY(16) NULL,
+    ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE profiles
+SET id_bin = UNHEX(REPLACE(id, '-', '')),
+    user_id_bin = UNHEX(REPLACE(user_id, '-', ''));
+ALTER TABLE profiles
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    DROP COLUMN user_id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST,
+    CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL AFTER id,
+    ADD PRIMARY KEY (id),
+    ADD UNIQUE KEY uk_profiles_user_id (user_id);
+
+-- 3. Reconstrói o índice clusterizado e os secundários, eliminando a fragmentação
+--    deixada pelas inserções aleatórias dos UUID v4
+OPTIMIZE TABLE profiles;
@@ -0,0 +1,9 @@
+-- Libera um lease só se ele ainda pertence a quem o adquiriu.
+-- KEYS[1] = chave do lease
+-- ARGV[1] = valor gravado no SET NX (id da instância)
+-- Retorno: 1 se removeu, 0 se o lease expirou ou já é de outra instância
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
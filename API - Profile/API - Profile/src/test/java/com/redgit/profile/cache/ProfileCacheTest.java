@@ -0,0 +1,410 @@
+package com.redgit.profile.cache;
+
+import com.redgit.profile.infrastructure.cache.CachedProfile;
+import com.redgit.profile.infrastructure.cache.ProfileCache;
+import com.redgit.profile.infrastructure.cache.UsernameFilter;
+import com.redgit.profile.infrastructure.entities.Profile;
+import com.redgit.profile.infrastructure.redis.RedisCircuitBreaker;
+import com.redgit.profile.infrastructure.redis.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do cache de perfis em dois níveis")
+class ProfileCacheTest {
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Spy
+    private RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+
+    @InjectMocks
+    private ProfileCache profileCache;
+
+    private UUID userId;
+    private Profile profile;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        profile = new Profile();
+        profile.setUserId(userId);
+        profile.setUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Miss nos dois níveis carrega do banco e grava no Redis e na memória")
+    void get_Miss_LoadsAndPopulatesBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Profile first = profileCache.get(ProfileCache.usernameKey("testuser"), () -> {
+            loads.incrementAndGet();
+            return profile;
+        });
+        Profile second = profileCache.get(ProfileCache.usernameKey("testuser"), () -> {
+            loads.incrementAndGet();
+            return profile;
+        });
+
+        assertThat(first).isSameAs(profile);
+        assertThat(second).isSameAs(profile);
+        assertThat(loads).hasValue(1);
+        verify(redisService).set(eq("public:testuser"), any(CachedProfile.class), anyLong());
+        // O segundo acesso é servido da memória, sem ir ao Redis
+        verify(redisService, times(1)).get("public:testuser", CachedProfile.class);
+    }
+
+    @Test
+    @DisplayName("Hit no Redis copia o perfil para a memória")
+    void get_RedisHit_PopulatesLocalTier() {
+        when(redisService.get("user:" + userId, CachedProfile.class)).thenReturn(fresh(profile));
+
+        profileCache.get(ProfileCache.userKey(userId), () -> null);
+        Profile local = profileCache.get(ProfileCache.userKey(userId), () -> null);
+
+        assertThat(local).isSameAs(profile);
+        assertThat(profileCache.size()).isEqualTo(1);
+        verify(redisService, times(1)).get(anyString(), eq(CachedProfile.class));
+        verify(redisService, never()).set(anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Perfil inexistente vira entrada negativa curta e não volta ao banco")
+    void get_NotFound_IsCachedAsNegative() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Profile first = profileCache.get(ProfileCache.usernameKey("ninguem"), () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Profile second = profileCache.get(ProfileCache.usernameKey("ninguem"), () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(loads).hasValue(1);
+        assertThat(profileCache.size()).isZero();
+        verify(redisService).set(eq("public:ninguem"),
+                argThat((CachedProfile value) -> value.isNegative()), eq(30L));
+    }
+
+    @Test
+    @DisplayName("Entrada negativa no Redis responde sem ir ao banco")
+    void get_NegativeInRedis_SkipsDatabase() {
+        when(redisService.get("public:ninguem", CachedProfile.class))
+                .thenReturn(new CachedProfile(null, System.currentTimeMillis() + 30_000, 1));
+
+        Profile result = profileCache.get(ProfileCache.usernameKey("ninguem"), () -> {
+            throw new AssertionError("não deveria ir ao banco");
+        });
+
+        assertThat(result).isNull();
+    }
+
+    @Test
+    @DisplayName("Criar o username remove a entrada negativa e o adiciona ao filtro")
+    void invalidate_ClearsNegativeEntry() {
+        profileCache.get(ProfileCache.usernameKey("novo"), () -> null);
+
+        profileCache.invalidate(userId, "novo");
+        Profile result = profileCache.get(ProfileCache.usernameKey("novo"), () -> profile);
+
+        assertThat(result).isSameAs(profile);
+        verify(usernameFilter).claim("novo");
+    }
+
+    @Test
+    @DisplayName("Username criado em outra instância entra no filtro local")
+    void onMessage_AddsUsernameToFilter() {
+        profileCache.onMessage(new DefaultMessage(
+                ProfileCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("user:" + userId + "\npublic:novo").getBytes(StandardCharsets.UTF_8)), null);
+
+        verify(usernameFilter).put("novo");
+        verifyNoMoreInteractions(usernameFilter);
+    }
+
+    @Test
+    @DisplayName("Invalidação remove os dois níveis e publica as chaves para as outras instâncias")
+    void invalidate_EvictsAndBroadcasts() {
+        profileCache.get(ProfileCache.userKey(userId), () -> profile);
+
+        profileCache.invalidate(userId, "antigo", "novo", null);
+
+        assertThat(profileCache.size()).isZero();
+        verify(redisService).delete("user:" + userId);
+        verify(redisService).delete("public:antigo");
+        verify(redisService).delete("public:novo");
+        verify(stringRedisTemplate).convertAndSend(ProfileCache.CHANNEL,
+                "user:" + userId + "\npublic:antigo\npublic:novo");
+    }
+
+    @Test
+    @DisplayName("Mensagem de outra instância remove só a cópia local")
+    void onMessage_EvictsLocalCopy() {
+        profileCache.get(ProfileCache.usernameKey("testuser"), () -> profile);
+
+        profileCache.onMessage(new DefaultMessage(
+                ProfileCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "public:testuser".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(profileCache.size()).isZero();
+        verify(redisService, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("Invalidação durante a carga impede que o valor antigo entre no cache")
+    void get_InvalidatedDuringLoad_DoesNotStoreStaleValue() {
+        Profile result = profileCache.get(ProfileCache.userKey(userId), () -> {
+            // Commit de outra transação enquanto a leitura estava em andamento
+            profileCache.invalidate(userId);
+            return profile;
+        });
+
+        assertThat(result).isSameAs(profile);
+        assertThat(profileCache.size()).isZero();
+        verify(redisService, never()).set(anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Mensagem de outra instância durante a renovação descarta o valor renovado")
+    void refresh_InvalidatedByOtherInstance_DoesNotStoreStaleValue() {
+        ReflectionTestUtils.invokeMethod(profileCache, "start");
+        CachedProfile stale = new CachedProfile(profile, System.currentTimeMillis() - 1_000, 5);
+        when(redisService.get("public:testuser", CachedProfile.class)).thenReturn(stale);
+        CountDownLatch loaded = new CountDownLatch(1);
+
+        try {
+            profileCache.get(ProfileCache.usernameKey("testuser"), () -> {
+                profileCache.onMessage(new DefaultMessage(
+                        ProfileCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                        "public:testuser".getBytes(StandardCharsets.UTF_8)), null);
+                loaded.countDown();
+                return profile;
+            });
+
+            await(loaded);
+        } finally {
+            ReflectionTestUtils.invokeMethod(profileCache, "stop");
+        }
+
+        verify(redisService, after(200).never()).set(anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Misses concorrentes da mesma chave fazem uma única consulta ao banco")
+    void get_ConcurrentMisses_LoadOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<Profile>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> profileCache.get(ProfileCache.usernameKey("viral"), () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return profile;
+                })));
+            }
+
+            // Dá tempo para todas as threads ficarem esperando a primeira carga
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Profile> result : results) {
+                assertThat(result.get(2, TimeUnit.SECONDS)).isSameAs(profile);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        verify(redisService, times(1)).set(eq("public:viral"), any(CachedProfile.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("Sem o lease, a instância espera o valor que outra instância grava no Redis")
+    void get_LeaseHeldElsewhere_WaitsForRedisValue() {
+        ReflectionTestUtils.setField(profileCache, "leaseEnabled", true);
+        ReflectionTestUtils.setField(profileCache, "pollMillis", 1L);
+        when(redisService.get("public:viral", CachedProfile.class)).thenReturn(null, null, fresh(profile));
+        when(redisService.setIfAbsent(eq("lease:public:viral"), anyString(), anyLong())).thenReturn(false);
+
+        Profile result = profileCache.get(ProfileCache.usernameKey("viral"), () -> {
+            throw new AssertionError("não deveria ir ao banco");
+        });
+
+        assertThat(result).isSameAs(profile);
+        verify(redisService, never()).set(anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Com o lease, carrega do banco, grava no Redis e libera o lease")
+    void get_LeaseAcquired_LoadsAndReleases() {
+        ReflectionTestUtils.setField(profileCache, "leaseEnabled", true);
+        when(redisService.setIfAbsent(eq("lease:public:viral"), anyString(), anyLong())).thenReturn(true);
+
+        Profile result = profileCache.get(ProfileCache.usernameKey("viral"), () -> profile);
+
+        assertThat(result).isSameAs(profile);
+        verify(redisService).set(eq("public:viral"), any(CachedProfile.class), anyLong());
+        ArgumentCaptor<Object> owner = ArgumentCaptor.forClass(Object.class);
+        verify(redisService).setIfAbsent(eq("lease:public:viral"), owner.capture(), anyLong());
+        verify(redisService).deleteIfEquals("lease:public:viral", owner.getValue());
+        verify(redisService, never()).delete("lease:public:viral");
+    }
+
+    @Test
+    @DisplayName("Valor vencido é servido na hora e renovado em segundo plano")
+    void get_StaleValue_ServedWhileRevalidating() {
+        ReflectionTestUtils.invokeMethod(profileCache, "start");
+        Profile updated = new Profile();
+        updated.setUsername("testuser");
+        CachedProfile stale = new CachedProfile(profile, System.currentTimeMillis() - 1_000, 5);
+        when(redisService.get("public:testuser", CachedProfile.class)).thenReturn(stale);
+
+        try {
+            Profile result = profileCache.get(ProfileCache.usernameKey("testuser"), () -> updated);
+
+            assertThat(result).isSameAs(profile);
+            verify(redisService, timeout(1_000)).set(eq("public:testuser"),
+                    argThat((CachedProfile value) -> value.getProfile() == updated && !value.isStale(System.currentTimeMillis())),
+                    anyLong());
+        } finally {
+            ReflectionTestUtils.invokeMethod(profileCache, "stop");
+        }
+    }
+
+    @Test
+    @DisplayName("XFetch renova antes do vencimento quando a carga é cara perto do fim")
+    void get_NearExpiryWithCostlyLoad_RefreshesEarly() {
+        ReflectionTestUtils.setField(profileCache, "beta", 1_000.0);
+        ReflectionTestUtils.invokeMethod(profileCache, "start");
+        // Custo de carga (x beta) muito maior que o tempo restante: a renovação antecipada é praticamente certa
+        CachedProfile nearExpiry = new CachedProfile(profile, System.currentTimeMillis() + 50, 60_000);
+        when(redisService.get("public:testuser", CachedProfile.class)).thenReturn(nearExpiry);
+        AtomicInteger loads = new AtomicInteger();
+
+        try {
+            Profile result = profileCache.get(ProfileCache.usernameKey("testuser"), () -> {
+                loads.incrementAndGet();
+                return profile;
+            });
+
+            assertThat(result).isSameAs(profile);
+            verify(redisService, timeout(1_000)).set(eq("public:testuser"), any(CachedProfile.class), anyLong());
+            assertThat(loads).hasValue(1);
+        } finally {
+            ReflectionTestUtils.invokeMethod(profileCache, "stop");
+        }
+    }
+
+    @Test
+    @DisplayName("Primeira inscrição no canal não reconstrói nada")
+    void onChannelSubscribed_First_DoesNothing() {
+        profileCache.onChannelSubscribed(ProfileCache.CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        verifyNoInteractions(usernameFilter);
+    }
+
+    @Test
+    @DisplayName("Reinscrição descarta a cópia local e reconstrói o filtro de usernames")
+    void onChannelSubscribed_Resubscribe_DropsLocalAndRebuildsFilter() {
+        ReflectionTestUtils.invokeMethod(profileCache, "start");
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            rebuilt.countDown();
+            return null;
+        }).when(usernameFilter).rebuild();
+        byte[] channel = ProfileCache.CHANNEL.getBytes(StandardCharsets.UTF_8);
+        AtomicInteger loads = new AtomicInteger();
+
+        try {
+            profileCache.onChannelSubscribed(channel, 1);
+            profileCache.get(ProfileCache.userKey(userId), () -> {
+                loads.incrementAndGet();
+                return profile;
+            });
+            profileCache.onChannelSubscribed(channel, 1);
+            await(rebuilt);
+            profileCache.get(ProfileCache.userKey(userId), () -> {
+                loads.incrementAndGet();
+                return profile;
+            });
+        } finally {
+            ReflectionTestUtils.invokeMethod(profileCache, "stop");
+        }
+
+        verify(usernameFilter).rebuild();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Valor fresco longe do vencimento não dispara renovação")
+    void get_FreshValue_DoesNotRefresh() {
+        ReflectionTestUtils.invokeMethod(profileCache, "start");
+        when(redisService.get("public:testuser", CachedProfile.class)).thenReturn(fresh(profile));
+
+        try {
+            profileCache.get(ProfileCache.usernameKey("testuser"), () -> {
+                throw new AssertionError("não deveria recarregar");
+            });
+        } finally {
+            ReflectionTestUtils.invokeMethod(profileCache, "stop");
+        }
+
+        verify(redisService, never()).set(anyString(), any(), anyLong());
+    }
+
+    private static CachedProfile fresh(Profile profile) {
+        return new CachedProfile(profile, System.currentTimeMillis() + 300_000, 5);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.redgit.profile.cache;
+
+import com.redgit.profile.infrastructure.cache.UsernameFilter;
+import com.redgit.profile.infrastructure.redis.RedisService;
+import com.redgit.profile.infrastructure.repository.ProfileRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes do filtro de usernames existentes")
+class UsernameFilterTest {
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private RedisService redisService;
+
+    @InjectMocks
+    private UsernameFilter usernameFilter;
+
+    @Test
+    @DisplayName("Antes da primeira reconstrução nenhum username é descartado")
+    void mightExist_BeforeRebuild_AllowsEverything() {
+        assertThat(usernameFilter.mightExist("qualquer")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Depois da reconstrução descarta usernames que não estão no banco")
+    void rebuild_FiltersUnknownUsernames() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice", "bob"));
+
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightExist("alice")).isTrue();
+        assertThat(usernameFilter.mightExist("bob")).isTrue();
+        assertThat(usernameFilter.mightExist("scraper-0001")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Username criado depois da reconstrução passa a existir na hora")
+    void put_AfterRebuild_IsVisible() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice"));
+        usernameFilter.rebuild();
+
+        usernameFilter.put("carol");
+
+        assertThat(usernameFilter.mightExist("carol")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Falha na reconstrução mantém o filtro anterior")
+    void rebuild_Failure_KeepsPreviousFilter() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames())
+                .thenReturn(Stream.of("alice"))
+                .thenThrow(new IllegalStateException("réplica fora do ar"));
+        usernameFilter.rebuild();
+
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightExist("alice")).isTrue();
+        assertThat(usernameFilter.mightExist("scraper-0001")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Username com outra caixa ou acento não é descartado, como na collation do MySQL")
+    void mightExist_IgnoresCaseAndAccents() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice"));
+        usernameFilter.rebuild();
+
+        usernameFilter.put("Bruno_Dev");
+
+        assertThat(usernameFilter.mightExist("Alice")).isTrue();
+        assertThat(usernameFilter.mightExist("ÁLICE")).isTrue();
+        assertThat(usernameFilter.mightExist("alicé")).isTrue();
+        assertThat(usernameFilter.mightExist("bruno_dev")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Nome adicionado antes do commit sobrevive a uma reconstrução que ainda não o vê")
+    void rebuild_CarriesOverRecentlyAddedNames() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames())
+                .thenReturn(Stream.of("alice"))
+                .thenReturn(Stream.of("alice"));
+        usernameFilter.rebuild();
+
+        // ProfileCache.invalidate chama put antes do commit; a réplica ainda não tem "carol"
+        usernameFilter.put("carol");
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightExist("carol")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Nome adicionado antes da janela de repasse depende só do banco")
+    @SuppressWarnings("unchecked")
+    void rebuild_DropsNamesOlderThanCarryOverWindow() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice"));
+        usernameFilter.put("carol");
+        ((Map<String, Long>) ReflectionTestUtils.getField(usernameFilter, "recentlyAdded"))
+                .replaceAll((username, addedAt) -> 0L);
+
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightExist("carol")).isFalse();
+        assertThat((Map<String, Long>) ReflectionTestUtils.getField(usernameFilter, "recentlyAdded")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Nome fora do filtro mas marcado no Redis não vira 404 (mensagem perdida)")
+    void mightExist_ClaimedInRedis_IsVisible() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice"));
+        usernameFilter.rebuild();
+        when(redisService.exists("claimed:carol")).thenReturn(true);
+
+        assertThat(usernameFilter.mightExist("Carol")).isTrue();
+        assertThat(usernameFilter.mightExist("scraper-0001")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Nome no filtro não consulta o Redis")
+    void mightExist_InFilter_SkipsRedis() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice"));
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightExist("alice")).isTrue();
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    @DisplayName("claim adiciona ao filtro local e marca o nome normalizado no Redis")
+    void claim_PutsLocallyAndMarksInRedis() {
+        ReflectionTestUtils.setField(usernameFilter, "expectedInsertions", 1_000);
+        when(profileRepository.streamAllUsernames()).thenReturn(Stream.of("alice"));
+        usernameFilter.rebuild();
+
+        usernameFilter.claim("Carolína");
+
+        assertThat(usernameFilter.mightExist("carolina")).isTrue();
+        verify(redisService).set("claimed:carolina", "1", 900L);
+        verify(redisService, never()).exists(anyString());
+    }
+}
@@ -0,0 +1,103 @@
+package com.redgit.profile.controller;
+
+import com.redgit.profile.controller.dto.ProfileDTO;
+import com.redgit.profile.infrastructure.entities.Profile;
+import com.redgit.profile.infrastructure.entities.User;
+import com.redgit.profile.infrastructure.repository.UserRepository;
+import com.redgit.profile.infrastructure.security.AuthenticatedUser;
+import com.redgit.profile.infrastructure.storage.FileStorageService;
+import com.redgit.profile.service.ProfileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProfileController Tests")
+class ProfileControllerTest {
+
+    @Mock
+    private ProfileService profileService;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private ProfileController profileController;
+
+    private MockHttpServletRequest request;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Usa o id da claim uid sem consultar o banco")
+    void getMyProfile_withUserIdClaim_shouldNotQueryUsers() {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "test@example.com", "USER", 0);
+        when(profileService.getOrCreateProfile(userId, "test@example.com")).thenReturn(profile(userId));
+
+        ResponseEntity<ProfileDTO> response = profileController.getMyProfile(user, request);
+
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getUserId()).isEqualTo(userId);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Token antigo sem uid resolve o id pelo email")
+    void getMyProfile_withLegacyToken_shouldLookUpByEmail() {
+        AuthenticatedUser user = new AuthenticatedUser(null, "test@example.com", "USER", 0);
+        User legacyUser = new User();
+        legacyUser.setId(userId);
+        legacyUser.setEmail("test@example.com");
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(legacyUser));
+        when(profileService.getOrCreateProfile(userId, "test@example.com")).thenReturn(profile(userId));
+
+        ResponseEntity<ProfileDTO> response = profileController.getMyProfile(user, request);
+
+        assertThat(response.getBody().getUserId()).isEqualTo(userId);
+        verify(userRepository).findByEmail("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Token antigo de email desconhecido retorna 404")
+    void deleteAvatar_withUnknownLegacyUser_shouldReturnNotFound() {
+        AuthenticatedUser user = new AuthenticatedUser(null, "ghost@example.com", "USER", 0);
+        when(userRepository.findByEmail("ghost@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> profileController.deleteAvatar(user))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        verify(profileService, never()).deleteAvatar(any());
+    }
+
+    private Profile profile(UUID owner) {
+        Profile profile = new Profile();
+        profile.setUserId(owner);
+        profile.setUsername("testuser");
+        return profile;
+    }
+}
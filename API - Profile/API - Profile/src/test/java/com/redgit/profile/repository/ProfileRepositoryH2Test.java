@@ -0,0 +1,52 @@
+package com.redgit.profile.repository;
+
+import com.redgit.profile.infrastructure.entities.Profile;
+import com.redgit.profile.infrastructure.repository.ProfileRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sobe o EntityManagerFactory de verdade (gerador de id, cache L2, natural id) num H2 em memória,
+// sem depender do MySQL que o ProfileRepositoryTest usa
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@DisplayName("Testes do mapeamento de Profile em H2")
+class ProfileRepositoryH2Test {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Test
+    @DisplayName("Persiste o perfil com id UUID v7 gerado pela aplicação")
+    void persist_GeneratesUuidV7() {
+        UUID userId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setUserId(userId);
+        profile.setUsername("h2user");
+
+        entityManager.persistAndFlush(profile);
+        entityManager.clear();
+
+        assertThat(profile.getId()).isNotNull();
+        assertThat(profile.getId().version()).isEqualTo(7);
+        assertThat(profileRepository.findByUserId(userId))
+                .get()
+                .extracting(Profile::getId)
+                .isEqualTo(profile.getId());
+    }
+}
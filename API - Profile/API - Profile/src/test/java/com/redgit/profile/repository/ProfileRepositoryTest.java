@@ -2,6 +2,7 @@ package com.redgit.profile.repository;
 
 import com.redgit.profile.infrastructure.entities.Profile;
 import com.redgit.profile.infrastructure.repository.ProfileRepository;
+import com.redgit.profile.support.IoBudget;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -292,4 +293,35 @@ public class ProfileRepositoryTest {
         // Assert
         assertThat(count).isGreaterThanOrEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("findByUsername (query cache) acompanha a troca de username")
+    void findByUsername_afterUsernameChange_shouldNotReturnStaleResult() {
+        // Arrange
+        entityManager.persistAndFlush(testProfile);
+        assertThat(profileRepository.findByUsername("testuser")).isPresent();
+
+        // Act
+        testProfile.setUsername("novonome");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertThat(profileRepository.findByUsername("testuser")).isEmpty();
+        assertThat(profileRepository.findByUsername("novonome")).isPresent();
+        assertThat(profileRepository.findByUserId(userId)).get()
+                .extracting(Profile::getUsername).isEqualTo("novonome");
+    }
+
+    @Test
+    @DisplayName("Busca por username cabe em um único statement")
+    void findByUsername_shouldStayWithinIoBudget() throws Exception {
+        // Arrange
+        entityManager.persistAndFlush(testProfile);
+        entityManager.clear();
+
+        // Act & Assert
+        IoBudget.limit().jdbc(1).check(() ->
+                assertThat(profileRepository.findByUsername("testuser")).isPresent());
+    }
+}
@@ -0,0 +1,68 @@
+package com.redgit.profile.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.redgit.profile.infrastructure.security.AuthenticatedUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuthenticatedUser Tests")
+class AuthenticatedUserTest {
+
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256("test-secret");
+
+    @Test
+    @DisplayName("Monta o principal com id, role e versão das claims")
+    void fromToken_withAllClaims_shouldReadClaims() {
+        UUID userId = UUID.randomUUID();
+        DecodedJWT decoded = JWT.decode(JWT.create()
+                .withSubject("test@example.com")
+                .withClaim("uid", userId.toString())
+                .withClaim("role", "ADMIN")
+                .withClaim("ver", 3)
+                .sign(ALGORITHM));
+
+        AuthenticatedUser user = AuthenticatedUser.fromToken(decoded);
+
+        assertThat(user.id()).isEqualTo(userId);
+        assertThat(user.email()).isEqualTo("test@example.com");
+        assertThat(user.role()).isEqualTo("ADMIN");
+        assertThat(user.tokenVersion()).isEqualTo(3);
+        assertThat(user.hasUserId()).isTrue();
+        assertThat(user.authorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Token antigo sem claims chega sem id, com role USER e versão 0")
+    void fromToken_withoutClaims_shouldUseDefaults() {
+        DecodedJWT decoded = JWT.decode(JWT.create()
+                .withSubject("test@example.com")
+                .sign(ALGORITHM));
+
+        AuthenticatedUser user = AuthenticatedUser.fromToken(decoded);
+
+        assertThat(user.id()).isNull();
+        assertThat(user.hasUserId()).isFalse();
+        assertThat(user.role()).isEqualTo("USER");
+        assertThat(user.tokenVersion()).isZero();
+    }
+
+    @Test
+    @DisplayName("Claim uid que não é UUID é tratada como ausente")
+    void fromToken_withInvalidUserId_shouldReturnNullId() {
+        DecodedJWT decoded = JWT.decode(JWT.create()
+                .withSubject("test@example.com")
+                .withClaim("uid", "not-a-uuid")
+                .sign(ALGORITHM));
+
+        AuthenticatedUser user = AuthenticatedUser.fromToken(decoded);
+
+        assertThat(user.id()).isNull();
+        assertThat(user.hasUserId()).isFalse();
+    }
+}
@@ -0,0 +1,56 @@
+package com.redgit.profile.security;
+
+import com.redgit.profile.infrastructure.security.BloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Deve sempre encontrar valores inseridos")
+    void mightContain_withInsertedValues_shouldReturnTrue() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("token-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Taxa de falsos positivos deve ficar próxima da configurada")
+    void mightContain_withUnknownValues_shouldRespectFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("outro-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 300, "Falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Filtro vazio não deve conter nada")
+    void mightContain_onEmptyFilter_shouldReturnFalse() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertFalse(filter.mightContain("qualquer"));
+    }
+}
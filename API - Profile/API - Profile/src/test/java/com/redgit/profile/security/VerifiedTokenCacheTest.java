@@ -0,0 +1,69 @@
+package com.redgit.profile.security;
+
+import com.redgit.profile.infrastructure.security.VerifiedTokenCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VerifiedTokenCache Tests")
+class VerifiedTokenCacheTest {
+
+    private static final String TEST_EMAIL = "test@example.com";
+
+    @Test
+    @DisplayName("Deve retornar o subject de um token cacheado e válido")
+    void get_withValidEntry_shouldReturnSubject() {
+        // Arrange
+        VerifiedTokenCache<String> cache = new VerifiedTokenCache<>(10);
+        String fingerprint = VerifiedTokenCache.fingerprint("header.payload.signature");
+        cache.put(fingerprint, TEST_EMAIL, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        // Act
+        String result = cache.get(fingerprint);
+
+        // Assert
+        assertEquals(TEST_EMAIL, result);
+    }
+
+    @Test
+    @DisplayName("Não deve cachear token já expirado")
+    void put_withExpiredToken_shouldNotCache() {
+        // Arrange
+        VerifiedTokenCache<String> cache = new VerifiedTokenCache<>(10);
+        String fingerprint = VerifiedTokenCache.fingerprint("header.payload.signature");
+
+        // Act
+        cache.put(fingerprint, TEST_EMAIL, Instant.now().minus(1, ChronoUnit.SECONDS));
+
+        // Assert
+        assertNull(cache.get(fingerprint));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Não deve ultrapassar o tamanho máximo")
+    void put_beyondMaxSize_shouldEvictEntries() {
+        // Arrange
+        VerifiedTokenCache<String> cache = new VerifiedTokenCache<>(100);
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            cache.put(VerifiedTokenCache.fingerprint("token-" + i), TEST_EMAIL, expiresAt);
+        }
+
+        // Assert
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    @DisplayName("Fingerprint deve ser determinístico e diferente para tokens diferentes")
+    void fingerprint_shouldBeDeterministic() {
+        assertEquals(VerifiedTokenCache.fingerprint("a.b.c"), VerifiedTokenCache.fingerprint("a.b.c"));
+        assertNotEquals(VerifiedTokenCache.fingerprint("a.b.c"), VerifiedTokenCache.fingerprint("a.b.d"));
+    }
+}
@@ -1,6 +1,9 @@
 package com.redgit.profile.service;
 
 import com.redgit.profile.controller.dto.UpdateProfileDTO;
+import com.redgit.profile.infrastructure.cache.ProfileCache;
+import com.redgit.profile.infrastructure.cache.UsernameFilter;
+import com.redgit.profile.infrastructure.datasource.ReadYourWritesTracker;
 import com.redgit.profile.infrastructure.entities.Profile;
 import com.redgit.profile.infrastructure.repository.ProfileRepository;
 import com.redgit.profile.infrastructure.storage.FileStorageService;
@@ -20,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -36,6 +40,15 @@ class ProfileServiceTest {
     @Mock
     private FileStorageService fileStorageService;
 
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Mock
+    private ProfileCache profileCache;
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
     @InjectMocks
     private ProfileService profileService;
 
@@ -55,6 +68,12 @@ class ProfileServiceTest {
         testProfile.setDisplayName("Test User");
         testProfile.setBio("Test bio");
         testProfile.setPublic(true);
+
+        lenient().when(readYourWrites.readFresh(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(profileCache.get(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(usernameFilter.mightExist(anyString())).thenReturn(true);
     }
 
     // ========== findByUserId Tests ==========
@@ -122,6 +141,21 @@ class ProfileServiceTest {
         verify(profileRepository, times(1)).findByUsername("nonexistent");
     }
 
+    @Test
+    @DisplayName("Username descartado pelo filtro responde 404 sem cache nem banco")
+    void findByUsername_whenFilteredOut_shouldSkipCacheAndDatabase() {
+        // Arrange
+        when(usernameFilter.mightExist("scraper123")).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> profileService.findByUsername("scraper123"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        verifyNoInteractions(profileCache, profileRepository);
+    }
+
     // ========== createProfile Tests ==========
 
     @Test
@@ -139,6 +173,7 @@ class ProfileServiceTest {
         assertThat(result).isNotNull();
         verify(profileRepository, times(1)).existsByUserId(userId);
         verify(profileRepository, times(1)).save(any(Profile.class));
+        verify(readYourWrites).markWrite(ReadYourWritesTracker.userKey(userId));
     }
 
     @Test
@@ -251,6 +286,7 @@ class ProfileServiceTest {
 
         // Assert
         verify(profileRepository).save(any(Profile.class));
+        verify(profileCache).invalidate(userId, "testuser", "newusername");
     }
 
     @Test